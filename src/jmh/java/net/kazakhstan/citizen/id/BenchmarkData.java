@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.Random;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class generates deterministic mixes of citizen ids for benchmarks. Invalid values are split between wrong control
+ * digit, wrong length and non digital symbols, so every branch of parsing is exercised.
+ */
+final class BenchmarkData {
+
+    static final int SIZE = 4096;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Method generates values of citizen ids
+     * @param invalidRatio part of values which are rejected by parsing or validation
+     * @param juridicalRatio part of valid values which belong to juridical subjects
+     * @return values of citizen ids
+     */
+    static String[] values(double invalidRatio, double juridicalRatio) {
+        Random random = new Random(42);
+        String[] values = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            boolean juridical = random.nextDouble() < juridicalRatio;
+            String valid = juridical ? juridical(random) : physical(random);
+            if (random.nextDouble() >= invalidRatio) {
+                values[i] = valid;
+            } else {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        char control = valid.charAt(11);
+                        values[i] = valid.substring(0, 11) + (char) (control == '9' ? '0' : control + 1);
+                        break;
+                    case 1:
+                        values[i] = valid.substring(0, 11);
+                        break;
+                    default:
+                        values[i] = valid.substring(0, 6) + 'O' + valid.substring(7);
+                        break;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Method generates values of valid citizen ids
+     * @param juridical true for juridical subjects
+     * @return values of valid citizen ids
+     */
+    static String[] valid(boolean juridical) {
+        Random random = new Random(42);
+        String[] values = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = juridical ? juridical(random) : physical(random);
+        }
+        return values;
+    }
+
+    private static String physical(Random random) {
+        StringBuilder builder = new StringBuilder();
+        append(builder, random.nextInt(100));
+        append(builder, 1 + random.nextInt(12));
+        append(builder, 1 + random.nextInt(28));
+        builder.append((char) ('3' + random.nextInt(4)));
+        return withControlDigit(builder, random);
+    }
+
+    private static String juridical(Random random) {
+        StringBuilder builder = new StringBuilder();
+        append(builder, random.nextInt(100));
+        append(builder, 1 + random.nextInt(12));
+        builder.append((char) ('4' + random.nextInt(3)));
+        builder.append((char) ('0' + random.nextInt(4)));
+        builder.append('0');
+        return withControlDigit(builder, random);
+    }
+
+    private static void append(StringBuilder builder, int twoDigits) {
+        builder.append((char) ('0' + twoDigits / 10)).append((char) ('0' + twoDigits % 10));
+    }
+
+    private static String withControlDigit(StringBuilder prefix, Random random) {
+        while (true) {
+            StringBuilder builder = new StringBuilder(prefix);
+            while (builder.length() < 11) {
+                builder.append((char) ('0' + random.nextInt(10)));
+            }
+            int control = Checksum.controlDigit(builder, 0);
+            if (control != Checksum.UNDEFINED) {
+                return builder.append((char) ('0' + control)).toString();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark compares Bloom filter of citizen ids with exact set on ids which mostly are not added to them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BloomFilterBenchmark {
+
+    private static final int WATCH_LIST_SIZE = 1 << 20;
+
+    private long[] queries;
+    private CitizenIdBloomFilter filter;
+    private CitizenIdSet set;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        long[] watchList = new long[WATCH_LIST_SIZE];
+        CitizenIdGenerator.builder().seed(42).build().fill(watchList, 0);
+        filter = CitizenIdBloomFilter.builder().expectedSize(WATCH_LIST_SIZE).addAllPacked(watchList).build();
+        set = CitizenIdSet.builder().expectedSize(WATCH_LIST_SIZE).addAllPacked(watchList).build();
+        queries = new long[BenchmarkData.SIZE];
+        CitizenIdGenerator.builder().seed(7).build().fill(queries, 0);
+        for (int i = 0; i < queries.length; i += 100) {
+            queries[i] = watchList[i];
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (next + 1) & (BenchmarkData.SIZE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public boolean bloomFilter() {
+        return filter.mightContain(queries[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean exactSet() {
+        return set.contains(queries[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean bloomFilterThenExactSet() {
+        long packed = queries[nextIndex()];
+        return filter.mightContain(packed) && set.contains(packed);
+    }
+}
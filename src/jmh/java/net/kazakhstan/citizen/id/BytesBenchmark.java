@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark measures validation of citizen ids stored in fixed width records: decoding into string before parsing
+ * versus reading bytes in place from array and direct buffer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BytesBenchmark {
+
+    private static final int RECORD_LENGTH = 32;
+    private static final int FIELD_OFFSET = 7;
+
+    private byte[] records;
+    private ByteBuffer direct;
+    private int next;
+
+    @Setup
+    public void setUp() throws UnsupportedEncodingException {
+        String[] values = BenchmarkData.values(0.08, 0.5);
+        records = new byte[BenchmarkData.SIZE * RECORD_LENGTH];
+        for (int i = 0; i < BenchmarkData.SIZE; i++) {
+            byte[] value = values[i % values.length].getBytes("US-ASCII");
+            System.arraycopy(value, 0, records, i * RECORD_LENGTH + FIELD_OFFSET, Math.min(value.length, 12));
+        }
+        direct = ByteBuffer.allocateDirect(records.length);
+        direct.put(records);
+    }
+
+    private int nextOffset() {
+        int offset = next * RECORD_LENGTH + FIELD_OFFSET;
+        next = (next + 1) & (BenchmarkData.SIZE - 1);
+        return offset;
+    }
+
+    @Benchmark
+    public CitizenIdStatus decodeString() throws UnsupportedEncodingException {
+        return CitizenId.validate(new String(records, nextOffset(), CitizenId.LENGTH, "US-ASCII"));
+    }
+
+    @Benchmark
+    public CitizenIdStatus array() {
+        return CitizenIdBytes.validate(records, nextOffset());
+    }
+
+    @Benchmark
+    public CitizenIdStatus directBuffer() {
+        return CitizenIdBytes.validate(direct, nextOffset());
+    }
+
+    @Benchmark
+    public long packArray() {
+        return CitizenIdBytes.tryPack(records, nextOffset());
+    }
+}
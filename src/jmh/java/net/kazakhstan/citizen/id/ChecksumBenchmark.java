@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark compares loops which were used by {@link PhysicalIdValidation} and {@link JuridicalIdValidation} with
+ * scalar and SWAR implementations of checksum.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChecksumBenchmark {
+
+    private static final int COUNT = 1024;
+
+    private final int[] firstWeights = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+    private final int[] secondWeights = {3, 4, 5, 6, 7, 8, 9, 10, 11, 1, 2};
+
+    private String[] values;
+    private byte[] records;
+    private long[] validBits;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        values = new String[COUNT];
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < COUNT; i++) {
+            long packed = (random.nextLong() >>> 1) % (PackedCitizenId.MAX_VALUE + 1);
+            values[i] = PackedCitizenId.unpack(packed);
+            builder.append(values[i]).append('\n');
+        }
+        records = builder.toString().getBytes("US-ASCII");
+        validBits = new long[COUNT / 64];
+    }
+
+    private boolean loop(String value) {
+        int sum = 0;
+        for (int i = 0; i < firstWeights.length; i++) {
+            sum += (value.charAt(i) - 0x30) * firstWeights[i];
+        }
+        if (sum % 11 == 10) {
+            sum = 0;
+            for (int i = 0; i < secondWeights.length; i++) {
+                sum += (value.charAt(i) - 0x30) * secondWeights[i];
+            }
+        }
+        return sum % 11 == value.charAt(value.length() - 1) - 0x30;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int previousLoops() {
+        int valid = 0;
+        for (String value : values) {
+            if (loop(value)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int scalar() {
+        int valid = 0;
+        for (String value : values) {
+            if (Checksum.isValid(value, 0)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int swarString() {
+        int valid = 0;
+        for (String value : values) {
+            if (ChecksumKernel.isValid(value, 0)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int swarBatch() {
+        return ChecksumKernel.validateAll(records, 0, 13, COUNT, validBits);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark measures binary encoding of citizen ids as fixed records and as delta blocks and compares decoding with
+ * parsing of text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CodecBenchmark {
+
+    private long[] sorted;
+    private long[] decoded;
+    private String[] texts;
+    private ByteBuffer records;
+    private ByteBuffer block;
+
+    @Setup
+    public void setUp() {
+        sorted = new long[BenchmarkData.SIZE];
+        CitizenIdGenerator.builder().seed(42).build().fill(sorted, 0);
+        Arrays.sort(sorted);
+        decoded = new long[sorted.length];
+        texts = new String[sorted.length];
+        records = ByteBuffer.allocate(sorted.length * CitizenIdCodec.RECORD_SIZE);
+        for (int i = 0; i < sorted.length; i++) {
+            texts[i] = PackedCitizenId.unpack(sorted[i]);
+            CitizenIdCodec.write(records, sorted[i]);
+        }
+        block = ByteBuffer.allocate(CitizenIdCodec.blockSize(sorted, 0, sorted.length));
+        CitizenIdCodec.writeBlock(block, sorted);
+    }
+
+    @Benchmark
+    public ByteBuffer writeRecords() {
+        records.clear();
+        for (long packed : sorted) {
+            CitizenIdCodec.write(records, packed);
+        }
+        return records;
+    }
+
+    @Benchmark
+    public long[] readRecords() {
+        records.clear();
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = CitizenIdCodec.readPacked(records);
+        }
+        return decoded;
+    }
+
+    @Benchmark
+    public int writeBlock() {
+        block.clear();
+        return CitizenIdCodec.writeBlock(block, sorted);
+    }
+
+    @Benchmark
+    public int readBlock() {
+        block.clear();
+        return CitizenIdCodec.readBlock(block, decoded, 0);
+    }
+
+    @Benchmark
+    public long[] parseTexts() {
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = PackedCitizenId.pack(texts[i]);
+        }
+        return decoded;
+    }
+}
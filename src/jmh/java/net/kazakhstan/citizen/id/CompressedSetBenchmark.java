@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark measures lookups in compressed set of citizen ids and compares them with hash set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompressedSetBenchmark {
+
+    private static final int REGISTRY_SIZE = 1 << 22;
+
+    private long[] queries;
+    private CompressedCitizenIdSet compressed;
+    private CitizenIdSet hashed;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        long[] registry = new long[REGISTRY_SIZE];
+        CitizenIdGenerator.builder().seed(42).build().fill(registry, 0);
+        compressed = CompressedCitizenIdSet.builder().addAllPacked(registry).build();
+        hashed = CitizenIdSet.builder().expectedSize(REGISTRY_SIZE).addAllPacked(registry).build();
+        queries = new long[BenchmarkData.SIZE];
+        CitizenIdGenerator.builder().seed(7).build().fill(queries, 0);
+        for (int i = 0; i < queries.length; i += 2) {
+            queries[i] = registry[i];
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (next + 1) & (BenchmarkData.SIZE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public boolean compressedContains() {
+        return compressed.contains(queries[nextIndex()]);
+    }
+
+    @Benchmark
+    public int compressedRank() {
+        return compressed.rank(queries[nextIndex()]);
+    }
+
+    @Benchmark
+    public long compressedSelect() {
+        return compressed.select(nextIndex());
+    }
+
+    @Benchmark
+    public boolean hashContains() {
+        return hashed.contains(queries[nextIndex()]);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark measures search of correction candidates for citizen ids with wrong control digit, with and without
+ * registry of known citizen ids.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CorrectorBenchmark {
+
+    private String[] mistyped;
+    private CitizenIdCorrector corrector;
+    private CitizenIdCorrector registryCorrector;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        CitizenIdGenerator generator = CitizenIdGenerator.builder().seed(42).invalidRatio(1).build();
+        mistyped = new String[BenchmarkData.SIZE];
+        CitizenIdSet.Builder registry = CitizenIdSet.builder().expectedSize(BenchmarkData.SIZE);
+        for (int i = 0; i < mistyped.length; i++) {
+            mistyped[i] = PackedCitizenId.unpack(generator.get(i));
+            long[] candidates = new CitizenIdCorrector().candidates(mistyped[i]);
+            if (candidates.length > 0) {
+                registry.addPacked(candidates[0]);
+            }
+        }
+        corrector = new CitizenIdCorrector();
+        registryCorrector = new CitizenIdCorrector(registry.build());
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (next + 1) & (BenchmarkData.SIZE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public long[] candidates() {
+        return corrector.candidates(mistyped[nextIndex()]);
+    }
+
+    @Benchmark
+    public long[] registryCandidates() {
+        return registryCorrector.candidates(mistyped[nextIndex()]);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark compares counting of citizen ids by attributes in dense cube with counting of decoded information in
+ * hash map.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CubeBenchmark {
+
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        ids = new long[BenchmarkData.SIZE];
+        CitizenIdGenerator.builder().seed(42).build().fill(ids, 0);
+    }
+
+    @Benchmark
+    public CitizenIdCube cube() {
+        return new CitizenIdCube().acceptAll(ids);
+    }
+
+    @Benchmark
+    public Map<String, Integer> decodedInformation() {
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (long packed : ids) {
+            String key;
+            CitizenId citizenId = PackedCitizenId.toCitizenId(packed);
+            if (citizenId.isJuridical()) {
+                JuridicalDataInformation information = new JuridicalDataInformation(citizenId);
+                key = information.getYear() + "-" + information.getMonth() + "-"
+                        + JuridicalInfo.organizationTypeOf(packed) + "-" + JuridicalInfo.departmentTypeOf(packed);
+            } else {
+                PhysicalDataInformation information = new PhysicalDataInformation(citizenId);
+                key = information.getYear() / 10 + "-" + information.isMale();
+            }
+            Integer count = counts.get(key);
+            counts.put(key, count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+}
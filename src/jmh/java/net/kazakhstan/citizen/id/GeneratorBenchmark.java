@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark compares generation of one valid citizen id by rejection sampling of random strings with direct
+ * calculation of control digit by {@link CitizenIdGenerator}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeneratorBenchmark {
+
+    private final char[] digits = new char[CitizenId.LENGTH];
+    private Random random;
+    private CitizenIdGenerator generator;
+    private long index;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        generator = CitizenIdGenerator.builder().seed(42).build();
+    }
+
+    @Benchmark
+    public CitizenId rejectionSampling() {
+        while (true) {
+            digits[0] = (char) ('0' + random.nextInt(10));
+            digits[1] = (char) ('0' + random.nextInt(10));
+            digits[2] = (char) ('0' + random.nextInt(2));
+            digits[3] = (char) ('1' + random.nextInt(9));
+            for (int i = 4; i < digits.length; i++) {
+                digits[i] = (char) ('0' + random.nextInt(10));
+            }
+            CitizenId citizenId = new CitizenId(new String(digits));
+            boolean valid = citizenId.isPhysical()
+                    ? new PhysicalIdValidation(citizenId).isValid()
+                    : new JuridicalIdValidation(citizenId).isValid();
+            if (valid) {
+                return citizenId;
+            }
+        }
+    }
+
+    @Benchmark
+    public long generator() {
+        return generator.get(index++);
+    }
+}
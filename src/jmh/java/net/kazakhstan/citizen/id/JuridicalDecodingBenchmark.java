@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark measures decoding of registration date and attributes of juridical citizen ids
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JuridicalDecodingBenchmark {
+
+    private JuridicalDataInformation[] information;
+    private long[] packed;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] values = BenchmarkData.valid(true);
+        information = new JuridicalDataInformation[values.length];
+        packed = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            information[i] = new JuridicalDataInformation(new CitizenId(values[i]));
+            packed[i] = PackedCitizenId.pack(values[i]);
+        }
+    }
+
+    private JuridicalDataInformation nextInformation() {
+        JuridicalDataInformation value = information[next];
+        next = (next + 1) & (BenchmarkData.SIZE - 1);
+        return value;
+    }
+
+    @Benchmark
+    public int year() {
+        return nextInformation().getYear();
+    }
+
+    @Benchmark
+    public int month() {
+        return nextInformation().getMonth();
+    }
+
+    @Benchmark
+    public boolean branch() {
+        return nextInformation().isBranch();
+    }
+
+    @Benchmark
+    public JuridicalInfo decodePacked() {
+        long value = packed[next];
+        next = (next + 1) & (BenchmarkData.SIZE - 1);
+        return JuridicalInfo.decode(value);
+    }
+
+    @Benchmark
+    public int yearOfPacked() {
+        long value = packed[next];
+        next = (next + 1) & (BenchmarkData.SIZE - 1);
+        return JuridicalInfo.yearOf(value);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark measures overhead of metrics on parsing and validation: without metrics, with counters only and with
+ * timing of every 64th operation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsBenchmark {
+
+    @Param({"off", "counters", "sampled"})
+    public String metrics;
+
+    private String[] values;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int nextIndex() {
+            int index = next;
+            next = (next + 1) & (BenchmarkData.SIZE - 1);
+            return index;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        values = BenchmarkData.values(0, 0.5);
+        if (metrics.equals("counters")) {
+            CitizenIds.setMetrics(new StripedCitizenIdMetrics(1 << 30));
+        } else if (metrics.equals("sampled")) {
+            CitizenIds.setMetrics(new StripedCitizenIdMetrics(64));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        CitizenIds.setMetrics(null);
+    }
+
+    @Benchmark
+    public CitizenId constructor(Cursor cursor) {
+        return new CitizenId(values[cursor.nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean validate(Cursor cursor) {
+        return Validators.auto().isValid(values[cursor.nextIndex()]);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark measures parsing of citizen id by constructor, which throws exception for rejected value, and by
+ * non throwing methods.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParsingBenchmark {
+
+    @Param({"0.0", "0.08", "0.5"})
+    public double invalidRatio;
+
+    @Param({"0.2"})
+    public double juridicalRatio;
+
+    private String[] values;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        values = BenchmarkData.values(invalidRatio, juridicalRatio);
+    }
+
+    private String nextValue() {
+        String value = values[next];
+        next = (next + 1) & (BenchmarkData.SIZE - 1);
+        return value;
+    }
+
+    @Benchmark
+    public Object constructor() {
+        try {
+            return new CitizenId(nextValue());
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ParseResult tryParse() {
+        return CitizenId.tryParse(nextValue());
+    }
+
+    @Benchmark
+    public CitizenIdStatus validate() {
+        return CitizenId.validate(nextValue());
+    }
+
+    @Benchmark
+    public long tryPack() {
+        return PackedCitizenId.tryPack(nextValue());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Benchmark measures validation of parsed citizen ids the way it is done by callers: validation object is created
+ * for every citizen id. Part of citizen ids has wrong control digit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+
+    @Param({"0.0", "0.08"})
+    public double invalidRatio;
+
+    private CitizenId[] physical;
+    private CitizenId[] juridical;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        physical = parse(BenchmarkData.values(invalidRatio, 0), true);
+        juridical = parse(BenchmarkData.values(invalidRatio, 1), false);
+    }
+
+    private static CitizenId[] parse(String[] values, boolean physical) {
+        CitizenId[] ids = new CitizenId[BenchmarkData.SIZE];
+        int count = 0;
+        for (int i = 0; count < ids.length; i = (i + 1) % values.length) {
+            ParseResult result = CitizenId.tryParse(values[i]);
+            if (result.isParsed() && result.getCitizenId().isPhysical() == physical) {
+                ids[count++] = result.getCitizenId();
+            }
+        }
+        return ids;
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (next + 1) & (BenchmarkData.SIZE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public boolean physical() {
+        return new PhysicalIdValidation(physical[nextIndex()]).isValid();
+    }
+
+    @Benchmark
+    public boolean juridical() {
+        return new JuridicalIdValidation(juridical[nextIndex()]).isValid();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class reads big endian values from byte arrays and buffers regardless of buffer order. Baseline implementation combines single bytes, multi-release jar
+ * replaces the class on newer JDKs with implementation which loads a whole value at once.
+ */
+final class BigEndian {
+
+    private BigEndian() {
+    }
+
+    static long getLong(byte[] src, int offset) {
+        return (long) src[offset] << 56
+                | (long) (src[offset + 1] & 0xFF) << 48
+                | (long) (src[offset + 2] & 0xFF) << 40
+                | (long) (src[offset + 3] & 0xFF) << 32
+                | (long) (src[offset + 4] & 0xFF) << 24
+                | (src[offset + 5] & 0xFF) << 16
+                | (src[offset + 6] & 0xFF) << 8
+                | (src[offset + 7] & 0xFF);
+    }
+
+    static int getInt(byte[] src, int offset) {
+        return src[offset] << 24
+                | (src[offset + 1] & 0xFF) << 16
+                | (src[offset + 2] & 0xFF) << 8
+                | (src[offset + 3] & 0xFF);
+    }
+
+    static long getLong(ByteBuffer buffer, int index) {
+        long value = buffer.getLong(index);
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    static int getInt(ByteBuffer buffer, int index) {
+        int value = buffer.getInt(index);
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+}
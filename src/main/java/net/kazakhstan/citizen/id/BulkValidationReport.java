@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class contains totals of validation of one file by {@link BulkValidator}: counters of {@link CitizenIdStatistics}
+ * and number of scanned bytes
+ */
+public class BulkValidationReport {
+
+    private final CitizenIdStatistics statistics = new CitizenIdStatistics();
+    private long bytes;
+
+    void add(CitizenIdStatistics statistics, long bytes) {
+        this.statistics.combine(statistics);
+        this.bytes += bytes;
+    }
+
+    /**
+     * Method return number of checked citizen ids
+     * @return number of checked lines
+     */
+    public long getLines() {
+        return statistics.getTotal();
+    }
+
+    /**
+     * Method return number of valid citizen ids
+     * @return number of valid citizen ids
+     */
+    public long getValid() {
+        return statistics.getValid();
+    }
+
+    /**
+     * Method return number of rejected citizen ids
+     * @return number of rejected citizen ids
+     */
+    public long getInvalid() {
+        return statistics.getInvalid();
+    }
+
+    /**
+     * Method return number of citizen ids with status
+     * @param status status of citizen id
+     * @return number of citizen ids
+     */
+    public long getCount(CitizenIdStatus status) {
+        return statistics.getCount(status);
+    }
+
+    /**
+     * Method return number of valid citizen ids of physical subjects
+     * @return number of valid physical citizen ids
+     */
+    public long getPhysical() {
+        return statistics.getPhysical();
+    }
+
+    /**
+     * Method return number of valid citizen ids of juridical subjects
+     * @return number of valid juridical citizen ids
+     */
+    public long getJuridical() {
+        return statistics.getJuridical();
+    }
+
+    /**
+     * Method return number of scanned bytes
+     * @return size of scanned data
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("lines: ").append(getLines()).append('\n');
+        builder.append("valid: ").append(getValid())
+                .append(" (physical: ").append(getPhysical())
+                .append(", juridical: ").append(getJuridical()).append(")\n");
+        builder.append("invalid: ").append(getInvalid()).append('\n');
+        for (CitizenIdStatus status : CitizenIdStatus.values()) {
+            if (status != CitizenIdStatus.VALID) {
+                builder.append("  ").append(status).append(": ").append(getCount(status)).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+}
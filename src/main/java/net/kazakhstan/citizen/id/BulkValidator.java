@@ -0,0 +1,362 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class validates citizen ids stored in text files, one record per line. File is mapped into memory by chunks which
+ * end at line boundaries and chunks are scanned in parallel without creating objects per line. Citizen id is taken
+ * from one column of delimited line, so both plain lists and CSV exports are supported. Length of value is measured
+ * in bytes, otherwise values are checked by the same rules as {@link CitizenId#validate(CharSequence)}.
+ */
+public class BulkValidator {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+    private byte delimiter = ',';
+    private int column;
+    private boolean skipHeader;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Method sets delimiter of columns, default is comma
+     * @param delimiter ASCII delimiter
+     * @return this validator
+     * @throws IllegalArgumentException if delimiter is not ASCII symbol or is line feed
+     */
+    public BulkValidator delimiter(char delimiter) {
+        if (delimiter > 0x7F || delimiter == '\n') {
+            throw new IllegalArgumentException("Delimiter must be ASCII symbol: " + delimiter);
+        }
+        this.delimiter = (byte) delimiter;
+        return this;
+    }
+
+    /**
+     * Method sets index of column which contains citizen id, default is 0
+     * @param column index of column
+     * @return this validator
+     * @throws IllegalArgumentException if column is negative
+     */
+    public BulkValidator column(int column) {
+        if (column < 0) {
+            throw new IllegalArgumentException("Column can not be negative: " + column);
+        }
+        this.column = column;
+        return this;
+    }
+
+    /**
+     * Method sets if the first line of file is header and should not be checked
+     * @param skipHeader true if the first line is header
+     * @return this validator
+     */
+    public BulkValidator skipHeader(boolean skipHeader) {
+        this.skipHeader = skipHeader;
+        return this;
+    }
+
+    /**
+     * Method sets number of threads which scan chunks, default is number of processors
+     * @param threads number of threads
+     * @return this validator
+     * @throws IllegalArgumentException if number of threads is not positive
+     */
+    public BulkValidator threads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Method sets approximate size of chunk which is scanned by one task, default is 64 megabytes
+     * @param chunkSize size of chunk in bytes
+     * @return this validator
+     * @throws IllegalArgumentException if size is not positive
+     */
+    public BulkValidator chunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Method validates all lines of file
+     * @param file file with citizen ids
+     * @return totals of validation
+     * @throws IOException if file can not be read
+     */
+    public BulkValidationReport validate(File file) throws IOException {
+        return validate(file, null);
+    }
+
+    /**
+     * Method validates all lines of file and writes rejected lines into reject file. Each line of reject file
+     * contains byte offset of rejected line and reason of rejection separated by tab.
+     * @param file file with citizen ids
+     * @param rejectFile file for rejected lines or null
+     * @return totals of validation
+     * @throws IOException if file can not be read or reject file can not be written
+     */
+    public BulkValidationReport validate(File file, File rejectFile) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long length = channel.size();
+            long start = skipHeader ? nextLineStart(channel, 0, length) : 0;
+            List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>();
+            while (start < length) {
+                long end = length - start <= chunkSize ? length : nextLineStart(channel, start + chunkSize - 1, length);
+                futures.add(executor.submit(new Chunk(channel, start, end, rejectFile != null)));
+                start = end;
+            }
+            BulkValidationReport report = new BulkValidationReport();
+            Writer rejects = rejectFile == null ? null
+                    : new BufferedWriter(new OutputStreamWriter(new FileOutputStream(rejectFile), "US-ASCII"), 1 << 16);
+            try {
+                for (Future<Chunk> future : futures) {
+                    Chunk chunk = await(future);
+                    report.add(chunk.statistics, chunk.end - chunk.start);
+                    if (rejects != null) {
+                        chunk.writeRejects(rejects);
+                    }
+                }
+            } finally {
+                if (rejects != null) {
+                    rejects.close();
+                }
+            }
+            return report;
+        } finally {
+            executor.shutdownNow();
+            randomAccessFile.close();
+        }
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Validation was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    static long nextLineStart(FileChannel channel, long from, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < length) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return length;
+    }
+
+    private final class Chunk implements Callable<Chunk> {
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final boolean collectRejects;
+
+        private final CitizenIdStatistics statistics = new CitizenIdStatistics();
+        private long[] rejectOffsets = new long[0];
+        private byte[] rejectStatuses = new byte[0];
+        private int rejectCount;
+
+        private Chunk(FileChannel channel, long start, long end, boolean collectRejects) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.collectRejects = collectRejects;
+        }
+
+        public Chunk call() throws IOException {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd;
+                if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                    contentEnd--;
+                }
+                checkLine(buffer, lineStart, contentEnd);
+                lineStart = lineEnd + 1;
+            }
+            return this;
+        }
+
+        private void checkLine(ByteBuffer buffer, int lineStart, int lineEnd) {
+            int fieldStart = lineStart;
+            for (int i = 0; i < column && fieldStart <= lineEnd; i++) {
+                while (fieldStart < lineEnd && buffer.get(fieldStart) != delimiter) {
+                    fieldStart++;
+                }
+                fieldStart++;
+            }
+            CitizenIdStatus status;
+            CitizenType type = null;
+            if (fieldStart > lineEnd) {
+                status = CitizenIdStatus.EMPTY;
+            } else {
+                int fieldEnd = fieldStart;
+                while (fieldEnd < lineEnd && buffer.get(fieldEnd) != delimiter) {
+                    fieldEnd++;
+                }
+                if (fieldEnd - fieldStart >= 2 && buffer.get(fieldStart) == '"' && buffer.get(fieldEnd - 1) == '"') {
+                    fieldStart++;
+                    fieldEnd--;
+                }
+                status = CitizenIdBytes.validateField(buffer, fieldStart, fieldEnd);
+                if (status == CitizenIdStatus.VALID) {
+                    type = buffer.get(fieldStart + 4) <= '3' ? CitizenType.PHYSICAL : CitizenType.JURIDICAL;
+                }
+            }
+            statistics.add(status, type);
+            if (collectRejects && status != CitizenIdStatus.VALID) {
+                if (rejectCount == rejectOffsets.length) {
+                    int capacity = Math.max(16, rejectCount * 2);
+                    rejectOffsets = Arrays.copyOf(rejectOffsets, capacity);
+                    rejectStatuses = Arrays.copyOf(rejectStatuses, capacity);
+                }
+                rejectOffsets[rejectCount] = start + lineStart;
+                rejectStatuses[rejectCount] = (byte) status.ordinal();
+                rejectCount++;
+            }
+        }
+
+        private void writeRejects(Writer writer) throws IOException {
+            CitizenIdStatus[] statuses = CitizenIdStatus.values();
+            for (int i = 0; i < rejectCount; i++) {
+                writer.write(Long.toString(rejectOffsets[i]));
+                writer.write('\t');
+                writer.write(statuses[rejectStatuses[i]].name());
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Command line entry point which validates files and prints totals
+     * @param args options and files
+     * @throws IOException if file can not be read
+     */
+    public static void main(String[] args) throws IOException {
+        BulkValidator validator = new BulkValidator();
+        File rejectDirectory = null;
+        List<File> files = new ArrayList<File>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--delimiter")) {
+                    String value = optionValue(args, ++i);
+                    validator.delimiter(value.equals("\\t") ? '\t' : value.charAt(0));
+                } else if (arg.equals("--column")) {
+                    validator.column(Integer.parseInt(optionValue(args, ++i)));
+                } else if (arg.equals("--threads")) {
+                    validator.threads(Integer.parseInt(optionValue(args, ++i)));
+                } else if (arg.equals("--chunk-size")) {
+                    validator.chunkSize(Integer.parseInt(optionValue(args, ++i)));
+                } else if (arg.equals("--skip-header")) {
+                    validator.skipHeader(true);
+                } else if (arg.equals("--rejects")) {
+                    rejectDirectory = new File(optionValue(args, ++i));
+                } else if (arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                } else {
+                    files.add(new File(arg));
+                }
+            }
+            if (files.isEmpty()) {
+                throw new IllegalArgumentException("No files to validate");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: BulkValidator [--delimiter C] [--column N] [--skip-header] [--threads N]"
+                    + " [--chunk-size BYTES] [--rejects DIR] FILE...");
+            System.exit(2);
+            return;
+        }
+        for (File file : files) {
+            File rejectFile = rejectDirectory == null ? null : new File(rejectDirectory, file.getName() + ".rejects");
+            long started = System.nanoTime();
+            BulkValidationReport report = validator.validate(file, rejectFile);
+            long millis = (System.nanoTime() - started) / 1000000;
+            System.out.println("file: " + file);
+            System.out.print(report);
+            System.out.println("time: " + millis + " ms");
+        }
+    }
+
+    private static String optionValue(String[] args, int index) {
+        if (index >= args.length || args[index].length() == 0) {
+            throw new IllegalArgumentException("Option " + args[index - 1] + " requires value");
+        }
+        return args[index];
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class contains checksum algorithm which is common for physical and juridical citizen ids and is published on
+ * page http://adilet.zan.kz/rus/docs/P1300000853
+ */
+final class Checksum {
+
+    static final int[] FIRST_WEIGHTS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+    static final int[] SECOND_WEIGHTS = {3, 4, 5, 6, 7, 8, 9, 10, 11, 1, 2};
+
+    /**
+     * Control digit which can not be represented by digit, citizen id with such checksum is never valid
+     */
+    static final int UNDEFINED = 10;
+
+    private Checksum() {
+    }
+
+    /**
+     * Method calculates control digit of 11 digits starting at offset
+     * @return control digit or {@link #UNDEFINED}
+     */
+    static int controlDigit(CharSequence value, int offset) {
+        int sum = 0;
+        for (int i = 0; i < FIRST_WEIGHTS.length; i++) {
+            sum += (value.charAt(offset + i) - '0') * FIRST_WEIGHTS[i];
+        }
+        int control = sum % 11;
+        if (control == UNDEFINED) {
+            sum = 0;
+            for (int i = 0; i < SECOND_WEIGHTS.length; i++) {
+                sum += (value.charAt(offset + i) - '0') * SECOND_WEIGHTS[i];
+            }
+            control = sum % 11;
+        }
+        return control;
+    }
+
+    /**
+     * Method checks control digit of 12 digits starting at offset
+     * @return true if calculated control digit is equal to the last digit
+     */
+    static boolean isValid(CharSequence value, int offset) {
+        return controlDigit(value, offset) == value.charAt(offset + 11) - '0';
+    }
+
+    /**
+     * Method calculates control digit of 11 digits packed into long value, for example citizen id without its last digit
+     * @return control digit or {@link #UNDEFINED}
+     */
+    static int controlDigit(long prefix) {
+        long rest = prefix;
+        int first = 0;
+        int second = 0;
+        for (int i = FIRST_WEIGHTS.length - 1; i >= 0; i--) {
+            int digit = (int) (rest % 10);
+            rest /= 10;
+            first += digit * FIRST_WEIGHTS[i];
+            second += digit * SECOND_WEIGHTS[i];
+        }
+        int control = first % 11;
+        if (control == UNDEFINED) {
+            control = second % 11;
+        }
+        return control;
+    }
+
+    /**
+     * Method checks control digit of packed citizen id
+     * @return true if calculated control digit is equal to the last digit
+     */
+    static boolean isValid(long packed) {
+        return controlDigit(packed / 10) == packed % 10;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class calculates control digit of citizen id using SWAR technique. Twelve ASCII digits are loaded as one long
+ * with the first eight digits and one int with the last four digits. Digits are split into 16 bit lanes and weighted
+ * sums of both weight tables are calculated by a few multiplications, each of them sums four products of digit and
+ * weight in the top lane. Results are identical to the algorithm implemented by {@link PhysicalIdValidation} and
+ * {@link JuridicalIdValidation}.
+ */
+public final class ChecksumKernel {
+
+    private static final long ZEROS = 0x3030303030303030L;
+    private static final long ABOVE_NINE = 0x4646464646464646L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LANES = 0x00FF00FF00FF00FFL;
+    private static final int INT_ZEROS = 0x30303030;
+    private static final int INT_ABOVE_NINE = 0x46464646;
+    private static final int INT_HIGH_BITS = 0x80808080;
+    private static final int INT_LANES = 0x00FF00FF;
+
+    private static final long FIRST_ODD = weights(Checksum.FIRST_WEIGHTS, 0);
+    private static final long FIRST_EVEN = weights(Checksum.FIRST_WEIGHTS, 1);
+    private static final int FIRST_TAIL_ODD = Checksum.FIRST_WEIGHTS[8] | Checksum.FIRST_WEIGHTS[10] << 16;
+    private static final int FIRST_TAIL_EVEN = Checksum.FIRST_WEIGHTS[9];
+    private static final long SECOND_ODD = weights(Checksum.SECOND_WEIGHTS, 0);
+    private static final long SECOND_EVEN = weights(Checksum.SECOND_WEIGHTS, 1);
+    private static final int SECOND_TAIL_ODD = Checksum.SECOND_WEIGHTS[8] | Checksum.SECOND_WEIGHTS[10] << 16;
+    private static final int SECOND_TAIL_EVEN = Checksum.SECOND_WEIGHTS[9];
+
+    private ChecksumKernel() {
+    }
+
+    /**
+     * Method builds multiplier which contains weights of every second digit of the first eight digits in reversed
+     * order of 16 bit lanes, so product of lanes and multiplier accumulates the weighted sum in the top lane
+     */
+    private static long weights(int[] weights, int first) {
+        long multiplier = 0;
+        for (int lane = 0; lane < 4; lane++) {
+            multiplier |= (long) weights[first + lane * 2] << (lane * 16);
+        }
+        return multiplier;
+    }
+
+    /**
+     * Method checks that all bytes of value are ASCII digits
+     * @param high the first eight bytes of citizen id, the first byte in the highest position
+     * @param low the last four bytes of citizen id, the first byte in the highest position
+     * @return true if all bytes are digits
+     */
+    static boolean isDigits(long high, int low) {
+        return ((high | (high + ABOVE_NINE) | (high - ZEROS)) & HIGH_BITS) == 0
+                && ((low | (low + INT_ABOVE_NINE) | (low - INT_ZEROS)) & INT_HIGH_BITS) == 0;
+    }
+
+    /**
+     * Method calculates control digit of citizen id which consists of ASCII digits. Both weighted sums are always
+     * calculated, so there is no branch which depends on data.
+     * @param high the first eight digits, the first digit in the highest byte
+     * @param low the last four digits, the last digit in the lowest byte
+     * @return control digit or 10 if control digit is undefined
+     */
+    static int controlDigit(long high, int low) {
+        long digits = high - ZEROS;
+        long odd = (digits >>> 8) & LANES;
+        long even = digits & LANES;
+        int tail = low - INT_ZEROS;
+        int tailOdd = (tail >>> 8) & INT_LANES;
+        int ninth = tail >>> 16 & 0xFF;
+        int first = (int) ((odd * FIRST_ODD) >>> 48) + (int) ((even * FIRST_EVEN) >>> 48)
+                + ((tailOdd * FIRST_TAIL_ODD) >>> 16) + ninth * FIRST_TAIL_EVEN;
+        int second = (int) ((odd * SECOND_ODD) >>> 48) + (int) ((even * SECOND_EVEN) >>> 48)
+                + ((tailOdd * SECOND_TAIL_ODD) >>> 16) + ninth * SECOND_TAIL_EVEN;
+        int control = first % 11;
+        return control == Checksum.UNDEFINED ? second % 11 : control;
+    }
+
+    /**
+     * Method checks digits and control digit of citizen id
+     * @param high the first eight bytes, the first byte in the highest position
+     * @param low the last four bytes, the last byte in the lowest position
+     * @return true if all bytes are digits and control digit is correct
+     */
+    static boolean isValid(long high, int low) {
+        return isDigits(high, low) && controlDigit(high, low) == (low & 0xFF) - '0';
+    }
+
+    /**
+     * Method converts ASCII digits into packed citizen id: pairs of digits, then groups of four and eight digits are
+     * combined inside of lanes without loop
+     * @param high the first eight digits, the first digit in the highest byte
+     * @param low the last four digits, the last digit in the lowest byte
+     * @return packed citizen id
+     */
+    static long pack(long high, int low) {
+        long digits = high - ZEROS;
+        digits = ((digits >>> 8) & LANES) * 10 + (digits & LANES);
+        digits = ((digits >>> 16) & 0x0000FFFF0000FFFFL) * 100 + (digits & 0x0000FFFF0000FFFFL);
+        digits = (digits >>> 32) * 10000 + (digits & 0xFFFFFFFFL);
+        int tail = low - INT_ZEROS;
+        tail = ((tail >>> 8) & INT_LANES) * 10 + (tail & INT_LANES);
+        tail = (tail >>> 16) * 100 + (tail & 0xFFFF);
+        return digits * 10000 + tail;
+    }
+
+    static long high(byte[] src, int offset) {
+        return BigEndian.getLong(src, offset);
+    }
+
+    static int low(byte[] src, int offset) {
+        return BigEndian.getInt(src, offset + 8);
+    }
+
+    static long high(ByteBuffer buffer, int offset) {
+        return BigEndian.getLong(buffer, offset);
+    }
+
+    static int low(ByteBuffer buffer, int offset) {
+        return BigEndian.getInt(buffer, offset + 8);
+    }
+
+    /**
+     * Method checks 12 ASCII digits of citizen id stored in byte array
+     * @param src array which contains citizen id
+     * @param offset index of the first digit
+     * @return true if all bytes are digits and control digit is correct
+     * @throws IndexOutOfBoundsException if array does not contain 12 bytes starting at offset
+     */
+    public static boolean isValid(byte[] src, int offset) {
+        return isValid(high(src, offset), low(src, offset));
+    }
+
+    /**
+     * Method checks 12 ASCII digits of citizen id stored in buffer at absolute position
+     * @param buffer buffer which contains citizen id
+     * @param offset absolute position of the first digit
+     * @return true if all bytes are digits and control digit is correct
+     * @throws IndexOutOfBoundsException if buffer does not contain 12 bytes starting at offset
+     */
+    public static boolean isValid(ByteBuffer buffer, int offset) {
+        return isValid(high(buffer, offset), low(buffer, offset));
+    }
+
+    /**
+     * Method checks 12 digits of citizen id which is a part of text
+     * @param value text which contains citizen id
+     * @param offset index of the first digit
+     * @return true if all symbols are digits and control digit is correct
+     * @throws IndexOutOfBoundsException if value does not contain 12 symbols starting at offset
+     */
+    public static boolean isValid(CharSequence value, int offset) {
+        long high = 0;
+        int low = 0;
+        int symbols = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            char c = value.charAt(i);
+            symbols |= c;
+            high = high << 8 | c;
+        }
+        for (int i = offset + 8; i < offset + 12; i++) {
+            char c = value.charAt(i);
+            symbols |= c;
+            low = low << 8 | c;
+        }
+        return symbols <= 0x7F && isValid(high, low);
+    }
+
+    /**
+     * Method checks citizen ids stored as fixed width records of ASCII digits, for example lines of equal length.
+     * Bit {@code i} of result bitset is set if citizen id of record {@code i} is valid.
+     * @param src array which contains records
+     * @param offset index of the first digit of the first record
+     * @param stride distance between the first digits of two neighbour records, not less than 12
+     * @param count number of records
+     * @param validBits bitset which receives results, must have at least {@code (count + 63) / 64} words
+     * @return number of valid citizen ids
+     * @throws IllegalArgumentException if stride is less than 12 or bitset is too small
+     * @throws IndexOutOfBoundsException if array does not contain all records
+     */
+    public static int validateAll(byte[] src, int offset, int stride, int count, long[] validBits) {
+        if (stride < CitizenId.LENGTH) {
+            throw new IllegalArgumentException("Stride must not be less than 12: " + stride);
+        }
+        if (validBits.length < (count + 63) >>> 6) {
+            throw new IllegalArgumentException("Bitset is too small for " + count + " records");
+        }
+        if (count > 0 && (offset < 0 || offset + (long) (count - 1) * stride + CitizenId.LENGTH > src.length)) {
+            throw new IndexOutOfBoundsException("Records do not fit array of length " + src.length);
+        }
+        int valid = 0;
+        int position = offset;
+        for (int word = 0; word < (count + 63) >>> 6; word++) {
+            int limit = Math.min(64, count - (word << 6));
+            long bits = 0;
+            for (int bit = 0; bit < limit; bit++) {
+                if (isValid(high(src, position), low(src, position))) {
+                    bits |= 1L << bit;
+                }
+                position += stride;
+            }
+            validBits[word] = bits;
+            valid += Long.bitCount(bits);
+        }
+        return valid;
+    }
+}
@@ -16,17 +16,27 @@
 
 package net.kazakhstan.citizen.id;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 
 /**
  * Created by Eugene Svalukhin.
  */
 
 /**
- * This class represents number that used in Kazakhstan for subject identification.
+ * This class represents number that used in Kazakhstan for subject identification. Serialized form of citizen id is
+ * its packed value in 5 bytes, see {@link CitizenIdCodec}; instances of subclasses are also written in this form and
+ * are read back as plain citizen ids.
  */
-public class CitizenId {
+public class CitizenId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of digits in citizen id
+     */
+    public static final int LENGTH = 12;
 
     private final String value;
     private final CitizenType type;
@@ -38,23 +48,130 @@ public class CitizenId {
      * nondigital symbols
      */
     public CitizenId(String value) {
-        if (value == null || value.equals("")) {
-            throw new IllegalArgumentException("Citizen value can not be a empty");
+        CitizenIdMetrics metrics = CitizenIds.metrics;
+        long started = metrics == null ? 0 : CitizenIds.start(metrics);
+        CitizenIdStatus status = checkFormat(value);
+        if (!status.isWellFormed()) {
+            if (metrics != null) {
+                metrics.parsed(status, null, CitizenIds.elapsed(started));
+            }
+            throw new IllegalArgumentException(status.message);
+        }
+        this.value = value;
+        this.type = verifyType(value, 0);
+        if (metrics != null) {
+            metrics.parsed(status, type, CitizenIds.elapsed(started));
+        }
+    }
+
+    CitizenId(String value, CitizenType type) {
+        this.value = value;
+        this.type = type;
+    }
+
+    /**
+     * Method parses citizen id without throwing exception for incorrect value. It accepts the same values as
+     * {@link #CitizenId(String)} and does not allocate anything if value is rejected.
+     * @param value citizen id
+     * @return result which contains citizen id or reason of rejection
+     */
+    public static ParseResult tryParse(CharSequence value) {
+        CitizenIdMetrics metrics = CitizenIds.metrics;
+        long started = metrics == null ? 0 : CitizenIds.start(metrics);
+        CitizenIdStatus status = checkFormat(value);
+        if (!status.isWellFormed()) {
+            if (metrics != null) {
+                metrics.parsed(status, null, CitizenIds.elapsed(started));
+            }
+            return ParseResult.failure(status);
+        }
+        String id = value.toString();
+        CitizenType type = verifyType(id, 0);
+        ParseResult result = ParseResult.success(new CitizenId(id, type), checksumStatus(id, 0));
+        if (metrics != null) {
+            metrics.parsed(status, type, CitizenIds.elapsed(started));
+        }
+        return result;
+    }
+
+    /**
+     * Method checks format and control digit of citizen id
+     * @param value citizen id
+     * @return {@link CitizenIdStatus#VALID} or reason of rejection
+     */
+    public static CitizenIdStatus validate(CharSequence value) {
+        CitizenIdStatus status = checkFormat(value);
+        if (!status.isWellFormed()) {
+            return status;
+        }
+        return checksumStatus(value, 0);
+    }
+
+    /**
+     * Method checks format and control digit of 12 symbols starting at offset, rest of value is ignored. It allows to
+     * check citizen id which is a part of bigger text without extracting it.
+     * @param value text which contains citizen id
+     * @param offset index of first symbol of citizen id
+     * @return {@link CitizenIdStatus#VALID} or reason of rejection
+     * @throws IndexOutOfBoundsException if offset is negative
+     */
+    public static CitizenIdStatus validate(CharSequence value, int offset) {
+        if (offset < 0) {
+            throw new IndexOutOfBoundsException("Offset can not be negative: " + offset);
+        }
+        if (value == null || value.length() <= offset) {
+            return CitizenIdStatus.EMPTY;
+        }
+        if (value.length() - offset < LENGTH) {
+            return CitizenIdStatus.WRONG_LENGTH;
+        }
+        if (!isDigits(value, offset)) {
+            return CitizenIdStatus.NON_DIGIT;
+        }
+        return checksumStatus(value, offset);
+    }
+
+    static CitizenIdStatus checkFormat(CharSequence value) {
+        if (value == null || value.length() == 0) {
+            return CitizenIdStatus.EMPTY;
         }
-        if (value.trim().length() != 12) {
-            throw new IllegalArgumentException("Citizen value must have length 12 symbols");
+        if (trimmedLength(value) != LENGTH) {
+            return CitizenIdStatus.WRONG_LENGTH;
         }
-        Pattern pattern = Pattern.compile("\\d{12}");
-        Matcher matcher = pattern.matcher(value);
-        if (!matcher.matches()) {
-            throw new IllegalArgumentException("Citizen value must have 12 digital symbols");
+        if (value.length() != LENGTH || !isDigits(value, 0)) {
+            return CitizenIdStatus.NON_DIGIT;
         }
-        this.value = value.trim();
-        this.type = verifyType(this.value);
+        return CitizenIdStatus.VALID;
+    }
+
+    private static CitizenIdStatus checksumStatus(CharSequence value, int offset) {
+        return ChecksumKernel.isValid(value, offset) ? CitizenIdStatus.VALID : CitizenIdStatus.BAD_CHECKSUM;
     }
 
-    private CitizenType verifyType(String id) {
-        if (id.charAt(4) <= '3') {
+    private static int trimmedLength(CharSequence value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (start < end && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end - start;
+    }
+
+    private static boolean isDigits(CharSequence value, int offset) {
+        for (int i = offset; i < offset + LENGTH; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static CitizenType verifyType(CharSequence id, int offset) {
+        if (id.charAt(offset + 4) <= '3') {
             return CitizenType.PHYSICAL;
         } else {
             return CitizenType.JURIDICAL;
@@ -108,4 +225,16 @@ public class CitizenId {
     public int hashCode() {
         return value.hashCode();
     }
+
+    /**
+     * Method replaces citizen id by its serialized form, it is final so subclasses can not write their fields
+     * @return serialized form
+     */
+    protected final Object writeReplace() {
+        return new SerializedCitizenId(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Citizen id is read through its serialized form");
+    }
 }
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class represents Bloom filter of citizen ids which answers if citizen id may belong to set. All bits which represent
+ * one citizen id are located in one block of 512 bits, so check touches one cache line. Block and bits are selected by
+ * hash of packed citizen id. Filter is immutable, it is created by {@link Builder} and may be read by many threads.
+ */
+public final class CitizenIdBloomFilter {
+
+    static final int MAGIC = 0x4B5A4246;
+    static final int VERSION = 1;
+
+    private static final int BLOCK_LONGS = 8;
+    private static final int BLOCK_BITS = BLOCK_LONGS * 64;
+    private static final int BITS_PER_POSITION = 9;
+    private static final int POSITIONS_PER_HASH = 7;
+    private static final int MAX_HASH_COUNT = 16;
+    private static final int HEADER_SIZE = 24;
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final long[] bits;
+    private final int blocks;
+    private final int hashCount;
+    private final long count;
+
+    private CitizenIdBloomFilter(long[] bits, int hashCount, long count) {
+        this.bits = bits;
+        this.blocks = bits.length / BLOCK_LONGS;
+        this.hashCount = hashCount;
+        this.count = count;
+    }
+
+    /**
+     * Method creates builder of filter
+     * @return new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Method checks if packed citizen id may belong to set
+     * @param packed packed citizen id
+     * @return false if citizen id was not added, true if it was added or in case of false positive
+     */
+    public boolean mightContain(long packed) {
+        if (packed < 0 || packed > PackedCitizenId.MAX_VALUE) {
+            return false;
+        }
+        return probe(bits, blocks, hashCount, packed, false);
+    }
+
+    /**
+     * Method checks if citizen id may belong to set
+     * @param value citizen id
+     * @return false if value is not citizen id or was not added, true if it was added or in case of false positive
+     */
+    public boolean mightContain(CharSequence value) {
+        long packed = PackedCitizenId.tryPack(value);
+        return packed != PackedCitizenId.INVALID && mightContain(packed);
+    }
+
+    /**
+     * Method checks if citizen id may belong to set
+     * @param citizenId citizen id
+     * @return false if citizen id is null or was not added, true if it was added or in case of false positive
+     */
+    public boolean mightContain(CitizenId citizenId) {
+        return citizenId != null && mightContain(PackedCitizenId.pack(citizenId));
+    }
+
+    /**
+     * Method return number of hash functions
+     * @return number of bits which are set for every citizen id
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Method return size of filter
+     * @return number of bits
+     */
+    public long getBitSize() {
+        return (long) bits.length * 64;
+    }
+
+    /**
+     * Method return number of added citizen ids, duplicates are counted every time
+     * @return number of added citizen ids
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Method writes filter into file
+     * @param file file which is created or overwritten
+     * @throws IOException if file can not be written
+     */
+    public void writeTo(File file) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            FileChannel channel = out.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(hashCount).putInt(blocks).putLong(count);
+            for (long word : bits) {
+                if (!buffer.hasRemaining()) {
+                    write(channel, buffer);
+                }
+                buffer.putLong(word);
+            }
+            write(channel, buffer);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Method reads filter which was written by {@link #writeTo(File)}
+     * @param file file of filter
+     * @return filter
+     * @throws IOException if file can not be read or does not contain filter
+     */
+    public static CitizenIdBloomFilter readFrom(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+            buffer.limit(HEADER_SIZE);
+            read(channel, buffer, file);
+            int hashCount = buffer.getInt(8);
+            int blocks = buffer.getInt(12);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || hashCount < 1 || hashCount > MAX_HASH_COUNT
+                    || blocks < 1 || blocks > Integer.MAX_VALUE / BLOCK_LONGS
+                    || channel.size() != HEADER_SIZE + (long) blocks * BLOCK_LONGS * 8) {
+                throw new IOException("File is not Bloom filter of citizen ids: " + file);
+            }
+            long count = buffer.getLong(16);
+            long[] bits = new long[blocks * BLOCK_LONGS];
+            int index = 0;
+            while (index < bits.length) {
+                buffer.clear();
+                buffer.limit(Math.min(buffer.capacity(), (bits.length - index) * 8));
+                read(channel, buffer, file);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    bits[index++] = buffer.getLong();
+                }
+            }
+            return new CitizenIdBloomFilter(bits, hashCount, count);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer, File file) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("File is not Bloom filter of citizen ids: " + file);
+            }
+        }
+    }
+
+    /**
+     * Method visits bits of packed citizen id, so lookups and additions always use the same positions
+     * @param add true to set bits, false to stop on the first clear bit
+     * @return true if all bits were already set
+     */
+    private static boolean probe(long[] bits, int blocks, int hashCount, long packed, boolean add) {
+        long hash = PackedCitizenId.mix(packed);
+        int base = blockIndex(hash, blocks) * BLOCK_LONGS;
+        long positions = hash * 0x9e3779b97f4a7c15L;
+        boolean present = true;
+        for (int i = 0; i < hashCount; i++) {
+            int slot = i % POSITIONS_PER_HASH;
+            if (slot == 0 && i != 0) {
+                positions = PackedCitizenId.mix(positions);
+            }
+            int bit = bitOf(positions, slot);
+            int word = base + (bit >>> 6);
+            if ((bits[word] & (1L << bit)) == 0) {
+                if (!add) {
+                    return false;
+                }
+                present = false;
+                bits[word] |= 1L << bit;
+            }
+        }
+        return present;
+    }
+
+    private static int blockIndex(long hash, int blocks) {
+        return (int) (((hash >>> 32) * blocks) >>> 32);
+    }
+
+    /**
+     * Method takes position of bit inside of block from 9 bit chunk of hash, one hash provides seven positions
+     */
+    private static int bitOf(long positions, int slot) {
+        return (int) (positions >>> (64 - BITS_PER_POSITION * (slot + 1))) & (BLOCK_BITS - 1);
+    }
+
+    /**
+     * Builder of Bloom filter. Bits are allocated on the first added citizen id, so size and false positive rate can
+     * not be changed after that.
+     */
+    public static final class Builder {
+
+        private long expectedSize = 1024;
+        private double falsePositiveRate = 0.01;
+        private long[] bits;
+        private int blocks;
+        private int hashCount;
+        private long count;
+        private boolean built;
+
+        private Builder() {
+        }
+
+        /**
+         * Method sets expected number of citizen ids, default is 1024
+         * @param expectedSize expected number of citizen ids
+         * @return this builder
+         */
+        public Builder expectedSize(long expectedSize) {
+            if (expectedSize <= 0) {
+                throw new IllegalArgumentException("Expected size must be positive: " + expectedSize);
+            }
+            checkNotStarted();
+            this.expectedSize = expectedSize;
+            return this;
+        }
+
+        /**
+         * Method sets desired rate of false positive answers for expected number of citizen ids, default is 0.01
+         * @param falsePositiveRate rate between 0 and 1 exclusively
+         * @return this builder
+         */
+        public Builder falsePositiveRate(double falsePositiveRate) {
+            if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+                throw new IllegalArgumentException("False positive rate must be between 0 and 1: "
+                        + falsePositiveRate);
+            }
+            checkNotStarted();
+            this.falsePositiveRate = falsePositiveRate;
+            return this;
+        }
+
+        /**
+         * Method adds citizen id
+         * @param value citizen id
+         * @return this builder
+         * @throws IllegalArgumentException if value is not accepted by {@link CitizenId#CitizenId(String)}
+         */
+        public Builder add(CharSequence value) {
+            return addPacked(PackedCitizenId.pack(value));
+        }
+
+        /**
+         * Method adds citizen id
+         * @param citizenId citizen id
+         * @return this builder
+         * @throws IllegalArgumentException if citizen id is null
+         */
+        public Builder add(CitizenId citizenId) {
+            return addPacked(PackedCitizenId.pack(citizenId));
+        }
+
+        /**
+         * Method adds packed citizen id
+         * @param packed packed citizen id
+         * @return this builder
+         * @throws IllegalArgumentException if value is negative or has more than 12 digits
+         */
+        public Builder addPacked(long packed) {
+            if (packed < 0 || packed > PackedCitizenId.MAX_VALUE) {
+                throw new IllegalArgumentException("Packed citizen id must have up to 12 digits: " + packed);
+            }
+            if (built) {
+                throw new IllegalStateException("Filter is already built");
+            }
+            if (bits == null) {
+                allocate();
+            }
+            probe(bits, blocks, hashCount, packed, true);
+            count++;
+            return this;
+        }
+
+        /**
+         * Method adds packed citizen ids
+         * @param packed packed citizen ids
+         * @return this builder
+         * @throws IllegalArgumentException if any value is negative or has more than 12 digits
+         */
+        public Builder addAllPacked(long[] packed) {
+            for (long value : packed) {
+                addPacked(value);
+            }
+            return this;
+        }
+
+        /**
+         * Method creates filter from added citizen ids, builder can not be used after that
+         * @return immutable filter
+         */
+        public CitizenIdBloomFilter build() {
+            if (built) {
+                throw new IllegalStateException("Filter is already built");
+            }
+            if (bits == null) {
+                allocate();
+            }
+            built = true;
+            return new CitizenIdBloomFilter(bits, hashCount, count);
+        }
+
+        private void allocate() {
+            double ln2 = Math.log(2);
+            double bitCount = Math.ceil(-expectedSize * Math.log(falsePositiveRate) / (ln2 * ln2));
+            long blockCount = Math.max(1, (long) Math.ceil(bitCount / BLOCK_BITS));
+            if (blockCount > Integer.MAX_VALUE / BLOCK_LONGS) {
+                throw new IllegalArgumentException("Filter for " + expectedSize + " citizen ids is too large");
+            }
+            blocks = (int) blockCount;
+            hashCount = (int) Math.max(1, Math.min(MAX_HASH_COUNT, Math.round(-Math.log(falsePositiveRate) / ln2)));
+            bits = new long[blocks * BLOCK_LONGS];
+        }
+
+        private void checkNotStarted() {
+            if (bits != null) {
+                throw new IllegalStateException("Size of filter can not be changed after citizen ids were added");
+            }
+        }
+    }
+}
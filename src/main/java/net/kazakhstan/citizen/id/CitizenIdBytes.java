@@ -0,0 +1,375 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class works with citizen ids stored as ASCII digits in byte arrays and byte buffers, for example inside of binary
+ * messages or fixed width records. Twelve bytes are read in place as two words, no string or char array is created.
+ * Buffers are accessed by absolute indexes, their position is not changed; heap and direct buffers of any byte order
+ * are supported.
+ */
+public final class CitizenIdBytes {
+
+    private CitizenIdBytes() {
+    }
+
+    /**
+     * Method checks format and control digit of 12 bytes starting at offset, rest of array is ignored
+     * @param src array which contains citizen id
+     * @param offset index of first digit
+     * @return {@link CitizenIdStatus#VALID} or reason of rejection
+     * @throws IndexOutOfBoundsException if offset is negative
+     */
+    public static CitizenIdStatus validate(byte[] src, int offset) {
+        CitizenIdStatus status = checkBounds(src.length, offset);
+        if (status != null) {
+            return status;
+        }
+        return status(ChecksumKernel.high(src, offset), ChecksumKernel.low(src, offset));
+    }
+
+    /**
+     * Method checks format and control digit of 12 bytes starting at index, rest of buffer is ignored
+     * @param buffer buffer which contains citizen id
+     * @param index absolute index of first digit
+     * @return {@link CitizenIdStatus#VALID} or reason of rejection
+     * @throws IndexOutOfBoundsException if index is negative
+     */
+    public static CitizenIdStatus validate(ByteBuffer buffer, int index) {
+        CitizenIdStatus status = checkBounds(buffer.limit(), index);
+        if (status != null) {
+            return status;
+        }
+        return status(ChecksumKernel.high(buffer, index), ChecksumKernel.low(buffer, index));
+    }
+
+    /**
+     * Method packs 12 digits starting at offset, control digit is not checked
+     * @param src array which contains citizen id
+     * @param offset index of first digit
+     * @return packed citizen id or {@link PackedCitizenId#INVALID} if there are no 12 digits at offset
+     * @throws IndexOutOfBoundsException if offset is negative
+     */
+    public static long tryPack(byte[] src, int offset) {
+        if (checkBounds(src.length, offset) != null) {
+            return PackedCitizenId.INVALID;
+        }
+        return pack(ChecksumKernel.high(src, offset), ChecksumKernel.low(src, offset));
+    }
+
+    /**
+     * Method packs 12 digits starting at index, control digit is not checked
+     * @param buffer buffer which contains citizen id
+     * @param index absolute index of first digit
+     * @return packed citizen id or {@link PackedCitizenId#INVALID} if there are no 12 digits at index
+     * @throws IndexOutOfBoundsException if index is negative
+     */
+    public static long tryPack(ByteBuffer buffer, int index) {
+        if (checkBounds(buffer.limit(), index) != null) {
+            return PackedCitizenId.INVALID;
+        }
+        return pack(ChecksumKernel.high(buffer, index), ChecksumKernel.low(buffer, index));
+    }
+
+    /**
+     * Method return type of citizen id stored at offset
+     * @param src array which contains citizen id
+     * @param offset index of first digit
+     * @return type of citizen id or null if there are no 12 digits at offset
+     * @throws IndexOutOfBoundsException if offset is negative
+     */
+    public static CitizenType typeOf(byte[] src, int offset) {
+        long packed = tryPack(src, offset);
+        return packed == PackedCitizenId.INVALID ? null : PackedCitizenId.typeOf(packed);
+    }
+
+    /**
+     * Method return type of citizen id stored at index
+     * @param buffer buffer which contains citizen id
+     * @param index absolute index of first digit
+     * @return type of citizen id or null if there are no 12 digits at index
+     * @throws IndexOutOfBoundsException if index is negative
+     */
+    public static CitizenType typeOf(ByteBuffer buffer, int index) {
+        long packed = tryPack(buffer, index);
+        return packed == PackedCitizenId.INVALID ? null : PackedCitizenId.typeOf(packed);
+    }
+
+    /**
+     * Method creates citizen id from 12 digits starting at offset, it accepts the same values as
+     * {@link CitizenId#CitizenId(String)}
+     * @param src array which contains citizen id
+     * @param offset index of first digit
+     * @return citizen id
+     * @throws IllegalArgumentException if there are no 12 digits at offset
+     * @throws IndexOutOfBoundsException if offset is negative
+     */
+    public static CitizenId toCitizenId(byte[] src, int offset) {
+        return PackedCitizenId.toCitizenId(pack(src, offset));
+    }
+
+    /**
+     * Method creates citizen id from 12 digits starting at index, it accepts the same values as
+     * {@link CitizenId#CitizenId(String)}
+     * @param buffer buffer which contains citizen id
+     * @param index absolute index of first digit
+     * @return citizen id
+     * @throws IllegalArgumentException if there are no 12 digits at index
+     * @throws IndexOutOfBoundsException if index is negative
+     */
+    public static CitizenId toCitizenId(ByteBuffer buffer, int index) {
+        return PackedCitizenId.toCitizenId(pack(buffer, index));
+    }
+
+    /**
+     * Method decodes information about juridical subject from 12 digits starting at offset
+     * @param src array which contains citizen id
+     * @param offset index of first digit
+     * @return decoded information
+     * @throws IllegalArgumentException if there are no 12 digits at offset or citizen id is not juridical
+     * @throws IndexOutOfBoundsException if offset is negative
+     */
+    public static JuridicalInfo decodeJuridical(byte[] src, int offset) {
+        return JuridicalInfo.decode(pack(src, offset));
+    }
+
+    /**
+     * Method decodes information about juridical subject from 12 digits starting at index
+     * @param buffer buffer which contains citizen id
+     * @param index absolute index of first digit
+     * @return decoded information
+     * @throws IllegalArgumentException if there are no 12 digits at index or citizen id is not juridical
+     * @throws IndexOutOfBoundsException if index is negative
+     */
+    public static JuridicalInfo decodeJuridical(ByteBuffer buffer, int index) {
+        return JuridicalInfo.decode(pack(buffer, index));
+    }
+
+    /**
+     * Method decodes birth date and gender of physical subject from 12 digits starting at offset
+     * @param src array which contains citizen id
+     * @param offset index of first digit
+     * @return decoded information
+     * @throws IllegalArgumentException if there are no 12 digits at offset, citizen id is not physical or does not
+     * contain correct birth date
+     * @throws IndexOutOfBoundsException if offset is negative
+     */
+    public static PhysicalInfo decodePhysical(byte[] src, int offset) {
+        return PhysicalInfo.decode(pack(src, offset));
+    }
+
+    /**
+     * Method decodes birth date and gender of physical subject from 12 digits starting at index
+     * @param buffer buffer which contains citizen id
+     * @param index absolute index of first digit
+     * @return decoded information
+     * @throws IllegalArgumentException if there are no 12 digits at index, citizen id is not physical or does not
+     * contain correct birth date
+     * @throws IndexOutOfBoundsException if index is negative
+     */
+    public static PhysicalInfo decodePhysical(ByteBuffer buffer, int index) {
+        return PhysicalInfo.decode(pack(buffer, index));
+    }
+
+    /**
+     * Method checks field of delimited record. Field is checked by the same rules as {@link CitizenId#validate}: it
+     * must consist of exactly 12 digits, field with surrounding spaces is rejected as {@link CitizenIdStatus#NON_DIGIT}.
+     * @param src array which contains record
+     * @param start index of first byte of field
+     * @param end index after last byte of field
+     * @return {@link CitizenIdStatus#VALID} or reason of rejection
+     * @throws IndexOutOfBoundsException if field is outside of array
+     */
+    public static CitizenIdStatus validateField(byte[] src, int start, int end) {
+        CitizenIdStatus status = fieldFormat(src, start, end);
+        if (status != null) {
+            return status;
+        }
+        return status(ChecksumKernel.high(src, start), ChecksumKernel.low(src, start));
+    }
+
+    /**
+     * Method checks field of delimited record by the same rules as {@link #validateField(byte[], int, int)}
+     * @param buffer buffer which contains record
+     * @param start absolute index of first byte of field
+     * @param end absolute index after last byte of field
+     * @return {@link CitizenIdStatus#VALID} or reason of rejection
+     * @throws IndexOutOfBoundsException if field is outside of buffer
+     */
+    public static CitizenIdStatus validateField(ByteBuffer buffer, int start, int end) {
+        CitizenIdStatus status = fieldFormat(buffer, start, end);
+        if (status != null) {
+            return status;
+        }
+        return status(ChecksumKernel.high(buffer, start), ChecksumKernel.low(buffer, start));
+    }
+
+    /**
+     * Method packs field of delimited record, control digit is not checked
+     * @param src array which contains record
+     * @param start index of first byte of field
+     * @param end index after last byte of field
+     * @return packed citizen id or negative code of rejection which is described by {@link CitizenIdStreams}
+     * @throws IndexOutOfBoundsException if field is outside of array
+     */
+    public static long parseField(byte[] src, int start, int end) {
+        CitizenIdStatus status = fieldFormat(src, start, end);
+        if (status != null) {
+            return CitizenIdStreams.malformed(status);
+        }
+        return element(ChecksumKernel.high(src, start), ChecksumKernel.low(src, start));
+    }
+
+    /**
+     * Method packs field of delimited record, control digit is not checked
+     * @param buffer buffer which contains record
+     * @param start absolute index of first byte of field
+     * @param end absolute index after last byte of field
+     * @return packed citizen id or negative code of rejection which is described by {@link CitizenIdStreams}
+     * @throws IndexOutOfBoundsException if field is outside of buffer
+     */
+    public static long parseField(ByteBuffer buffer, int start, int end) {
+        CitizenIdStatus status = fieldFormat(buffer, start, end);
+        if (status != null) {
+            return CitizenIdStreams.malformed(status);
+        }
+        return element(ChecksumKernel.high(buffer, start), ChecksumKernel.low(buffer, start));
+    }
+
+    private static long pack(byte[] src, int offset) {
+        CitizenIdStatus status = checkBounds(src.length, offset);
+        long high = 0;
+        int low = 0;
+        if (status == null) {
+            high = ChecksumKernel.high(src, offset);
+            low = ChecksumKernel.low(src, offset);
+            if (!ChecksumKernel.isDigits(high, low)) {
+                status = CitizenIdStatus.NON_DIGIT;
+            }
+        }
+        if (status != null) {
+            throw new IllegalArgumentException(status.message);
+        }
+        return ChecksumKernel.pack(high, low);
+    }
+
+    private static long pack(ByteBuffer buffer, int index) {
+        CitizenIdStatus status = checkBounds(buffer.limit(), index);
+        long high = 0;
+        int low = 0;
+        if (status == null) {
+            high = ChecksumKernel.high(buffer, index);
+            low = ChecksumKernel.low(buffer, index);
+            if (!ChecksumKernel.isDigits(high, low)) {
+                status = CitizenIdStatus.NON_DIGIT;
+            }
+        }
+        if (status != null) {
+            throw new IllegalArgumentException(status.message);
+        }
+        return ChecksumKernel.pack(high, low);
+    }
+
+    private static long pack(long high, int low) {
+        return ChecksumKernel.isDigits(high, low) ? ChecksumKernel.pack(high, low) : PackedCitizenId.INVALID;
+    }
+
+    private static long element(long high, int low) {
+        return ChecksumKernel.isDigits(high, low)
+                ? ChecksumKernel.pack(high, low) : CitizenIdStreams.malformed(CitizenIdStatus.NON_DIGIT);
+    }
+
+    private static CitizenIdStatus status(long high, int low) {
+        if (!ChecksumKernel.isDigits(high, low)) {
+            return CitizenIdStatus.NON_DIGIT;
+        }
+        return ChecksumKernel.controlDigit(high, low) == (low & 0xFF) - '0'
+                ? CitizenIdStatus.VALID : CitizenIdStatus.BAD_CHECKSUM;
+    }
+
+    /**
+     * Method checks that 12 bytes are available at offset
+     * @return reason of rejection or null if 12 bytes are available
+     */
+    private static CitizenIdStatus checkBounds(int limit, int offset) {
+        if (offset < 0) {
+            throw new IndexOutOfBoundsException("Offset can not be negative: " + offset);
+        }
+        if (limit <= offset) {
+            return CitizenIdStatus.EMPTY;
+        }
+        if (limit - offset < CitizenId.LENGTH) {
+            return CitizenIdStatus.WRONG_LENGTH;
+        }
+        return null;
+    }
+
+    /**
+     * Method checks length of field
+     * @return reason of rejection or null if field has 12 bytes
+     */
+    private static CitizenIdStatus fieldFormat(byte[] src, int start, int end) {
+        if (start < 0 || start > end || end > src.length) {
+            throw new IndexOutOfBoundsException("Field [" + start + ", " + end + ") is outside of array with length "
+                    + src.length);
+        }
+        if (end == start) {
+            return CitizenIdStatus.EMPTY;
+        }
+        int trimmedStart = start;
+        int trimmedEnd = end;
+        while (trimmedStart < trimmedEnd && (src[trimmedStart] & 0xFF) <= ' ') {
+            trimmedStart++;
+        }
+        while (trimmedStart < trimmedEnd && (src[trimmedEnd - 1] & 0xFF) <= ' ') {
+            trimmedEnd--;
+        }
+        if (trimmedEnd - trimmedStart != CitizenId.LENGTH) {
+            return CitizenIdStatus.WRONG_LENGTH;
+        }
+        return end - start == CitizenId.LENGTH ? null : CitizenIdStatus.NON_DIGIT;
+    }
+
+    private static CitizenIdStatus fieldFormat(ByteBuffer buffer, int start, int end) {
+        if (start < 0 || start > end || end > buffer.limit()) {
+            throw new IndexOutOfBoundsException("Field [" + start + ", " + end + ") is outside of buffer with limit "
+                    + buffer.limit());
+        }
+        if (end == start) {
+            return CitizenIdStatus.EMPTY;
+        }
+        int trimmedStart = start;
+        int trimmedEnd = end;
+        while (trimmedStart < trimmedEnd && (buffer.get(trimmedStart) & 0xFF) <= ' ') {
+            trimmedStart++;
+        }
+        while (trimmedStart < trimmedEnd && (buffer.get(trimmedEnd - 1) & 0xFF) <= ' ') {
+            trimmedEnd--;
+        }
+        if (trimmedEnd - trimmedStart != CitizenId.LENGTH) {
+            return CitizenIdStatus.WRONG_LENGTH;
+        }
+        return end - start == CitizenId.LENGTH ? null : CitizenIdStatus.NON_DIGIT;
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.Arrays;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Bounded concurrent cache which canonicalizes citizen ids. Each citizen id is resolved once into
+ * {@link ResolvedCitizenId} and the same instance is returned while it stays in cache. Cache is split into segments
+ * which are locked independently, every segment keeps its entries in a ring which is swept by CLOCK eviction policy:
+ * entry which was used since the last sweep gets a second chance, otherwise it is evicted. Entries are found by
+ * packed citizen id through open addressing index of ring positions.
+ */
+public class CitizenIdCache {
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int maximumSize;
+
+    /**
+     * Creates cache with default number of segments
+     * @param maximumSize maximal number of cached citizen ids
+     * @throws IllegalArgumentException if size is not positive
+     */
+    public CitizenIdCache(int maximumSize) {
+        this(maximumSize, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Creates cache
+     * @param maximumSize maximal number of cached citizen ids
+     * @param concurrencyLevel expected number of threads which use cache at the same time
+     * @throws IllegalArgumentException if size or concurrency level is not positive
+     */
+    public CitizenIdCache(int maximumSize, int concurrencyLevel) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be positive: " + concurrencyLevel);
+        }
+        int segmentCount = 1;
+        int shift = 64;
+        while (segmentCount < concurrencyLevel && segmentCount * 2 <= maximumSize && segmentCount < (1 << 16)) {
+            segmentCount <<= 1;
+            shift--;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(capacity);
+        }
+        this.segmentShift = shift;
+        this.maximumSize = maximumSize;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segmentShift == 64 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    /**
+     * Method return canonical instance of citizen id
+     * @param value citizen id
+     * @return shared resolved citizen id or null if value is not accepted by {@link CitizenId#CitizenId(String)}
+     */
+    public ResolvedCitizenId get(CharSequence value) {
+        long packed = PackedCitizenId.tryPack(value);
+        return packed == PackedCitizenId.INVALID ? null : get(packed);
+    }
+
+    /**
+     * Method return canonical instance of packed citizen id
+     * @param packed packed citizen id
+     * @return shared resolved citizen id
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public ResolvedCitizenId get(long packed) {
+        long hash = PackedCitizenId.mix(packed);
+        Segment segment = segmentFor(hash);
+        ResolvedCitizenId cached = segment.get(packed, (int) hash);
+        if (cached != null) {
+            return cached;
+        }
+        return segment.put(ResolvedCitizenId.resolve(packed), (int) hash);
+    }
+
+    /**
+     * Method return maximal number of cached citizen ids
+     * @return size budget
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Method return number of cached citizen ids
+     * @return number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Method return number of requests which were served from cache
+     * @return number of hits
+     */
+    public long getHits() {
+        long hits = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                hits += segment.hits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Method return number of requests which resolved citizen id
+     * @return number of misses
+     */
+    public long getMisses() {
+        long misses = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                misses += segment.misses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * Method return number of entries which were evicted to keep size budget
+     * @return number of evictions
+     */
+    public long getEvictions() {
+        long evictions = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                evictions += segment.evictions;
+            }
+        }
+        return evictions;
+    }
+
+    /**
+     * Method removes all entries, counters are kept
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private static final class Segment {
+
+        private static final int FREE = -1;
+
+        private final ResolvedCitizenId[] ring;
+        private final boolean[] referenced;
+        private final int[] index;
+        private final int mask;
+        private int size;
+        private int hand;
+
+        private long hits;
+        private long misses;
+        private long evictions;
+
+        private Segment(int capacity) {
+            ring = new ResolvedCitizenId[capacity];
+            referenced = new boolean[capacity];
+            int indexSize = 2;
+            while (indexSize < capacity * 2) {
+                indexSize <<= 1;
+            }
+            index = new int[indexSize];
+            mask = indexSize - 1;
+            clear();
+        }
+
+        private void clear() {
+            Arrays.fill(ring, null);
+            Arrays.fill(referenced, false);
+            Arrays.fill(index, FREE);
+            size = 0;
+            hand = 0;
+        }
+
+        private synchronized ResolvedCitizenId get(long packed, int hash) {
+            int position = find(packed, hash);
+            if (position == FREE) {
+                misses++;
+                return null;
+            }
+            hits++;
+            referenced[position] = true;
+            return ring[position];
+        }
+
+        private synchronized ResolvedCitizenId put(ResolvedCitizenId resolved, int hash) {
+            int existing = find(resolved.longValue(), hash);
+            if (existing != FREE) {
+                referenced[existing] = true;
+                return ring[existing];
+            }
+            int position;
+            if (size < ring.length) {
+                position = size++;
+            } else {
+                position = evict();
+            }
+            ring[position] = resolved;
+            referenced[position] = false;
+            int slot = hash & mask;
+            while (index[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = position;
+            return resolved;
+        }
+
+        private int find(long packed, int hash) {
+            int slot = hash & mask;
+            int position;
+            while ((position = index[slot]) != FREE) {
+                if (ring[position].longValue() == packed) {
+                    return position;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return FREE;
+        }
+
+        private int evict() {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = hand + 1 == ring.length ? 0 : hand + 1;
+            }
+            int victim = hand;
+            hand = hand + 1 == ring.length ? 0 : hand + 1;
+            removeFromIndex(ring[victim].longValue());
+            ring[victim] = null;
+            evictions++;
+            return victim;
+        }
+
+        private void removeFromIndex(long packed) {
+            int slot = (int) PackedCitizenId.mix(packed) & mask;
+            while (ring[index[slot]].longValue() != packed) {
+                slot = (slot + 1) & mask;
+            }
+            int free = slot;
+            int next = (free + 1) & mask;
+            while (index[next] != FREE) {
+                int home = (int) PackedCitizenId.mix(ring[index[next]].longValue()) & mask;
+                if (((next - home) & mask) >= ((next - free) & mask)) {
+                    index[free] = index[next];
+                    free = next;
+                }
+                next = (next + 1) & mask;
+            }
+            index[free] = FREE;
+        }
+    }
+}
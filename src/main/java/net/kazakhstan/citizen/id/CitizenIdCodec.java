@@ -0,0 +1,321 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class encodes citizen ids into compact binary form. Single citizen id is written as its packed value in 5 bytes in
+ * big endian order, packed values are less than 2^40, so unsigned comparison of encoded bytes gives the same order as
+ * comparison of citizen ids and encoded records can be used as sorted keys. Batches are written as blocks: number of
+ * citizen ids followed by differences between neighbour values, every number is a variable length integer with seven
+ * bits per byte, differences are zigzag encoded, so sorted citizen ids take two or three bytes each while unsorted
+ * ones are still accepted. Decoding checks range of packed values and restores type from digits, text is not parsed.
+ */
+public final class CitizenIdCodec {
+
+    /**
+     * Number of bytes of one encoded citizen id
+     */
+    public static final int RECORD_SIZE = 5;
+
+    private static final int MAX_VARINT_SIZE = 10;
+
+    private CitizenIdCodec() {
+    }
+
+    /**
+     * Method writes packed citizen id into array
+     * @param packed packed citizen id
+     * @param dst destination array
+     * @param offset index of the first byte
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     * @throws IndexOutOfBoundsException if array does not have 5 bytes starting at offset
+     */
+    public static void write(long packed, byte[] dst, int offset) {
+        checkRange(packed);
+        if (offset < 0 || offset > dst.length - RECORD_SIZE) {
+            throw new IndexOutOfBoundsException("Record does not fit array of length " + dst.length + " at offset "
+                    + offset);
+        }
+        dst[offset] = (byte) (packed >>> 32);
+        dst[offset + 1] = (byte) (packed >>> 24);
+        dst[offset + 2] = (byte) (packed >>> 16);
+        dst[offset + 3] = (byte) (packed >>> 8);
+        dst[offset + 4] = (byte) packed;
+    }
+
+    /**
+     * Method writes packed citizen id at current position of buffer
+     * @param buffer destination buffer
+     * @param packed packed citizen id
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     * @throws BufferOverflowException if buffer has less than 5 remaining bytes
+     */
+    public static void write(ByteBuffer buffer, long packed) {
+        checkRange(packed);
+        if (buffer.remaining() < RECORD_SIZE) {
+            throw new BufferOverflowException();
+        }
+        buffer.put((byte) (packed >>> 32)).putInt((int) packed);
+    }
+
+    /**
+     * Method writes citizen id at current position of buffer
+     * @param buffer destination buffer
+     * @param citizenId citizen id
+     * @throws IllegalArgumentException if citizen id is null
+     * @throws BufferOverflowException if buffer has less than 5 remaining bytes
+     */
+    public static void write(ByteBuffer buffer, CitizenId citizenId) {
+        write(buffer, PackedCitizenId.pack(citizenId));
+    }
+
+    /**
+     * Method reads packed citizen id from array
+     * @param src source array
+     * @param offset index of the first byte
+     * @return packed citizen id
+     * @throws IllegalArgumentException if bytes do not encode packed citizen id
+     * @throws IndexOutOfBoundsException if array does not have 5 bytes starting at offset
+     */
+    public static long readPacked(byte[] src, int offset) {
+        if (offset < 0 || offset > src.length - RECORD_SIZE) {
+            throw new IndexOutOfBoundsException("Record does not fit array of length " + src.length + " at offset "
+                    + offset);
+        }
+        long packed = (long) (src[offset] & 0xFF) << 32
+                | (long) (src[offset + 1] & 0xFF) << 24
+                | (src[offset + 2] & 0xFF) << 16
+                | (src[offset + 3] & 0xFF) << 8
+                | (src[offset + 4] & 0xFF);
+        return checkRange(packed);
+    }
+
+    /**
+     * Method reads packed citizen id at current position of buffer
+     * @param buffer source buffer
+     * @return packed citizen id
+     * @throws IllegalArgumentException if bytes do not encode packed citizen id
+     * @throws BufferUnderflowException if buffer has less than 5 remaining bytes
+     */
+    public static long readPacked(ByteBuffer buffer) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            throw new BufferUnderflowException();
+        }
+        long packed = (long) (buffer.get() & 0xFF) << 32 | (buffer.getInt() & 0xFFFFFFFFL);
+        return checkRange(packed);
+    }
+
+    /**
+     * Method reads citizen id at current position of buffer
+     * @param buffer source buffer
+     * @return citizen id
+     * @throws IllegalArgumentException if bytes do not encode packed citizen id
+     * @throws BufferUnderflowException if buffer has less than 5 remaining bytes
+     */
+    public static CitizenId read(ByteBuffer buffer) {
+        return PackedCitizenId.toCitizenId(readPacked(buffer));
+    }
+
+    /**
+     * Method return number of bytes which block of citizen ids takes
+     * @param packed packed citizen ids
+     * @param offset index of the first citizen id
+     * @param length number of citizen ids
+     * @return size of encoded block
+     * @throws IllegalArgumentException if any value is negative or has more than 12 digits
+     * @throws IndexOutOfBoundsException if range is outside of array
+     */
+    public static int blockSize(long[] packed, int offset, int length) {
+        checkRange(packed.length, offset, length);
+        int size = varintSize(length);
+        long previous = 0;
+        for (int i = offset; i < offset + length; i++) {
+            long value = checkRange(packed[i]);
+            size += varintSize(zigzag(value - previous));
+            previous = value;
+        }
+        return size;
+    }
+
+    /**
+     * Method writes block of citizen ids at current position of buffer. Buffer is not changed if block does not fit.
+     * @param buffer destination buffer
+     * @param packed packed citizen ids
+     * @param offset index of the first citizen id
+     * @param length number of citizen ids
+     * @return number of written bytes
+     * @throws IllegalArgumentException if any value is negative or has more than 12 digits
+     * @throws IndexOutOfBoundsException if range is outside of array
+     * @throws BufferOverflowException if buffer does not have enough remaining bytes
+     */
+    public static int writeBlock(ByteBuffer buffer, long[] packed, int offset, int length) {
+        int size = blockSize(packed, offset, length);
+        if (buffer.remaining() < size) {
+            throw new BufferOverflowException();
+        }
+        writeVarint(buffer, length);
+        long previous = 0;
+        for (int i = offset; i < offset + length; i++) {
+            writeVarint(buffer, zigzag(packed[i] - previous));
+            previous = packed[i];
+        }
+        return size;
+    }
+
+    /**
+     * Method writes block of citizen ids at current position of buffer
+     * @param buffer destination buffer
+     * @param packed packed citizen ids
+     * @return number of written bytes
+     * @throws IllegalArgumentException if any value is negative or has more than 12 digits
+     * @throws BufferOverflowException if buffer does not have enough remaining bytes
+     */
+    public static int writeBlock(ByteBuffer buffer, long[] packed) {
+        return writeBlock(buffer, packed, 0, packed.length);
+    }
+
+    /**
+     * Method reads number of citizen ids in block at current position of buffer without changing position
+     * @param buffer source buffer
+     * @return number of citizen ids in block
+     * @throws IllegalArgumentException if block is corrupted
+     * @throws BufferUnderflowException if buffer ends inside of block header
+     */
+    public static int blockLength(ByteBuffer buffer) {
+        int position = buffer.position();
+        try {
+            return readLength(buffer);
+        } finally {
+            buffer.position(position);
+        }
+    }
+
+    /**
+     * Method reads block of citizen ids at current position of buffer. Buffer is not changed if block can not be read.
+     * @param buffer source buffer
+     * @param dst array which receives packed citizen ids
+     * @param offset index of the first received citizen id
+     * @return number of read citizen ids
+     * @throws IllegalArgumentException if block is corrupted
+     * @throws IndexOutOfBoundsException if array does not have place for all citizen ids of block
+     * @throws BufferUnderflowException if buffer ends inside of block
+     */
+    public static int readBlock(ByteBuffer buffer, long[] dst, int offset) {
+        int position = buffer.position();
+        boolean read = false;
+        try {
+            int length = readLength(buffer);
+            checkRange(dst.length, offset, length);
+            long previous = 0;
+            for (int i = offset; i < offset + length; i++) {
+                long value = previous + unzigzag(readVarint(buffer));
+                if (value < 0 || value > PackedCitizenId.MAX_VALUE) {
+                    throw new IllegalArgumentException("Block contains value out of range: " + value);
+                }
+                dst[i] = value;
+                previous = value;
+            }
+            read = true;
+            return length;
+        } finally {
+            if (!read) {
+                buffer.position(position);
+            }
+        }
+    }
+
+    /**
+     * Method reads block of citizen ids at current position of buffer
+     * @param buffer source buffer
+     * @return packed citizen ids
+     * @throws IllegalArgumentException if block is corrupted
+     * @throws BufferUnderflowException if buffer ends inside of block
+     */
+    public static long[] readBlock(ByteBuffer buffer) {
+        long[] packed = new long[blockLength(buffer)];
+        readBlock(buffer, packed, 0);
+        return packed;
+    }
+
+    private static int readLength(ByteBuffer buffer) {
+        long length = readVarint(buffer);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Block has wrong number of citizen ids: " + length);
+        }
+        return (int) length;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int i = 0; i < MAX_VARINT_SIZE; i++) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << (i * 7);
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Variable length integer is longer than " + MAX_VARINT_SIZE + " bytes");
+    }
+
+    private static long checkRange(long packed) {
+        if (packed < 0 || packed > PackedCitizenId.MAX_VALUE) {
+            throw new IllegalArgumentException("Packed citizen id must have up to 12 digits: " + packed);
+        }
+        return packed;
+    }
+
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("Range of " + length + " elements at offset " + offset
+                    + " is outside of array with length " + arrayLength);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.Arrays;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class represents batch of citizen ids stored as column of packed values. Attributes of citizen ids are calculated
+ * for the whole column at once into bitsets where bit {@code i} describes citizen id at position {@code i}. Bitsets
+ * are combined by static methods of this class and converted into index vectors which select rows of column.
+ * Citizen ids are classified by the same rules as {@link CitizenId}, {@link PhysicalIdValidation},
+ * {@link JuridicalIdValidation} and {@link JuridicalDataInformation}.
+ */
+public final class CitizenIdColumn {
+
+    private static final long TYPE_DIVISOR = PackedCitizenId.POWERS_OF_TEN[7];
+    private static final long DEPARTMENT_DIVISOR = PackedCitizenId.POWERS_OF_TEN[6];
+
+    private final long[] values;
+    private final int size;
+
+    private CitizenIdColumn(long[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Method creates column which uses array of packed citizen ids without copying. Rows which contain
+     * {@link PackedCitizenId#INVALID} represent values which were not parsed.
+     * @param packed packed citizen ids
+     * @param size number of rows
+     * @return column
+     * @throws IllegalArgumentException if size is negative or greater than length of array
+     */
+    public static CitizenIdColumn wrap(long[] packed, int size) {
+        if (size < 0 || size > packed.length) {
+            throw new IllegalArgumentException("Size must be between 0 and " + packed.length + ": " + size);
+        }
+        return new CitizenIdColumn(packed, size);
+    }
+
+    /**
+     * Method creates column from values of citizen ids. Values which are not accepted by
+     * {@link CitizenId#CitizenId(String)} are stored as {@link PackedCitizenId#INVALID}.
+     * @param values citizen ids
+     * @return column
+     */
+    public static CitizenIdColumn parse(CharSequence[] values) {
+        long[] packed = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            packed[i] = PackedCitizenId.tryPack(values[i]);
+        }
+        return new CitizenIdColumn(packed, packed.length);
+    }
+
+    /**
+     * Method return number of rows
+     * @return number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method return packed citizen id of row
+     * @param index index of row
+     * @return packed citizen id or {@link PackedCitizenId#INVALID}
+     * @throws IndexOutOfBoundsException if index is negative or not less than size
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return values[index];
+    }
+
+    private long[] newBitset() {
+        return new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Method marks rows which contain parsed citizen ids
+     * @return bitset of rows
+     */
+    public long[] presentMask() {
+        long[] mask = newBitset();
+        for (int i = 0; i < size; i++) {
+            if (values[i] >= 0) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Method marks rows which contain citizen ids with correct control digit
+     * @return bitset of rows
+     */
+    public long[] validMask() {
+        long[] mask = newBitset();
+        for (int i = 0; i < size; i++) {
+            if (PackedCitizenId.isValid(values[i])) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Method marks rows which contain citizen ids of physical subjects
+     * @return bitset of rows
+     */
+    public long[] physicalMask() {
+        long[] mask = newBitset();
+        for (int i = 0; i < size; i++) {
+            long value = values[i];
+            if (value >= 0 && value / TYPE_DIVISOR % 10 <= 3) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Method marks rows which contain citizen ids of juridical subjects
+     * @return bitset of rows
+     */
+    public long[] juridicalMask() {
+        long[] mask = newBitset();
+        for (int i = 0; i < size; i++) {
+            long value = values[i];
+            if (value >= 0 && value / TYPE_DIVISOR % 10 > 3) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Method marks rows which contain citizen ids of juridical subjects with organization type
+     * @param type organization type
+     * @return bitset of rows
+     */
+    public long[] organizationMask(OrganizationType type) {
+        return digitMask(TYPE_DIVISOR, type.digit());
+    }
+
+    /**
+     * Method marks rows which contain citizen ids of juridical subjects with department type
+     * @param type department type
+     * @return bitset of rows
+     */
+    public long[] departmentMask(DepartmentType type) {
+        return and(digitMask(DEPARTMENT_DIVISOR, type.digit()), juridicalMask());
+    }
+
+    private long[] digitMask(long divisor, int digit) {
+        long[] mask = newBitset();
+        for (int i = 0; i < size; i++) {
+            long value = values[i];
+            if (value >= 0 && value / divisor % 10 == digit) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Method return positions of rows which are marked in bitset
+     * @param mask bitset of rows
+     * @return ascending index vector
+     */
+    public int[] indexes(long[] mask) {
+        int[] indexes = new int[cardinality(mask)];
+        int count = 0;
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            while (bits != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                if (index >= size) {
+                    return Arrays.copyOf(indexes, count);
+                }
+                indexes[count++] = index;
+                bits &= bits - 1;
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Method creates column which contains rows at positions of index vector
+     * @param indexes positions of rows
+     * @return new column
+     * @throws IndexOutOfBoundsException if any position is outside of column
+     */
+    public CitizenIdColumn select(int[] indexes) {
+        long[] selected = new long[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            selected[i] = get(indexes[i]);
+        }
+        return new CitizenIdColumn(selected, selected.length);
+    }
+
+    /**
+     * Method creates column which contains rows marked in bitset
+     * @param mask bitset of rows
+     * @return new column
+     */
+    public CitizenIdColumn filter(long[] mask) {
+        return select(indexes(mask));
+    }
+
+    /**
+     * Method copies packed citizen ids of column into new array
+     * @return packed citizen ids
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Method intersects two bitsets
+     * @return new bitset which contains bits set in both bitsets
+     */
+    public static long[] and(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = first[i] & second[i];
+        }
+        return result;
+    }
+
+    /**
+     * Method unites two bitsets
+     * @return new bitset which contains bits set in any bitset
+     */
+    public static long[] or(long[] first, long[] second) {
+        long[] result = Arrays.copyOf(first, Math.max(first.length, second.length));
+        for (int i = 0; i < second.length; i++) {
+            result[i] |= second[i];
+        }
+        return result;
+    }
+
+    /**
+     * Method subtracts one bitset from another
+     * @return new bitset which contains bits set in the first bitset and not set in the second one
+     */
+    public static long[] andNot(long[] first, long[] second) {
+        long[] result = Arrays.copyOf(first, first.length);
+        for (int i = 0; i < Math.min(first.length, second.length); i++) {
+            result[i] &= ~second[i];
+        }
+        return result;
+    }
+
+    /**
+     * Method counts bits which are set in bitset
+     * @return number of set bits
+     */
+    public static int cardinality(long[] mask) {
+        int count = 0;
+        for (long bits : mask) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+}
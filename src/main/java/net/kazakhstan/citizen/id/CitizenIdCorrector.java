@@ -0,0 +1,212 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class finds citizen ids with correct control digit which differ from mistyped value by one substituted digit or by
+ * two swapped adjacent digits. Candidates are not searched by trying every digit: weighted sums of checksum algorithm
+ * are linear modulo 11, so the digit which makes control digit correct is solved for every position. Candidates can
+ * be restricted to known citizen ids.
+ */
+public final class CitizenIdCorrector {
+
+    private static final int MODULUS = 11;
+    private static final int[] INVERSES = {0, 1, 6, 4, 3, 9, 2, 8, 7, 5, 10};
+    private static final int PREFIX_LENGTH = CitizenId.LENGTH - 1;
+
+    private final PackedIdLookup registry;
+
+    /**
+     * Constructor creates corrector which returns all candidates with correct control digit
+     */
+    public CitizenIdCorrector() {
+        this.registry = null;
+    }
+
+    /**
+     * Constructor creates corrector which returns only candidates contained in registry
+     * @param registry known citizen ids, for example {@link CitizenIdSet} or {@link MappedCitizenIdIndex}
+     * @throws IllegalArgumentException if registry is null
+     */
+    public CitizenIdCorrector(PackedIdLookup registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry can not be empty");
+        }
+        this.registry = registry;
+    }
+
+    /**
+     * Method finds packed candidates for mistyped citizen id, value itself is never included
+     * @param value 12 digits of citizen id
+     * @return packed citizen ids in ascending order
+     * @throws IllegalArgumentException if value does not consist of 12 digits
+     */
+    public long[] candidates(CharSequence value) {
+        CitizenIdStatus status = CitizenId.checkFormat(value);
+        if (!status.isWellFormed()) {
+            throw new IllegalArgumentException(status.message);
+        }
+        int[] digits = new int[CitizenId.LENGTH];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = value.charAt(i) - '0';
+        }
+        long prefix = PackedCitizenId.packDigits(value, 0) / 10;
+        int check = digits[PREFIX_LENGTH];
+        int first = 0;
+        int second = 0;
+        for (int i = 0; i < PREFIX_LENGTH; i++) {
+            first += digits[i] * Checksum.FIRST_WEIGHTS[i];
+            second += digits[i] * Checksum.SECOND_WEIGHTS[i];
+        }
+        first %= MODULUS;
+        second %= MODULUS;
+
+        long[] found = new long[4 * CitizenId.LENGTH];
+        int count = 0;
+        for (int position = 0; position < PREFIX_LENGTH; position++) {
+            count = substitute(digits, prefix, position, first, second, found, count);
+        }
+        int control = Checksum.controlDigit(prefix);
+        if (control != Checksum.UNDEFINED && control != check) {
+            count = add(prefix * 10 + control, found, count);
+        }
+        for (int position = 0; position < PREFIX_LENGTH - 1; position++) {
+            count = transpose(digits, prefix, position, first, second, found, count);
+        }
+        if (digits[PREFIX_LENGTH - 1] != check) {
+            long swapped = prefix - digits[PREFIX_LENGTH - 1] + check;
+            if (Checksum.controlDigit(swapped) == digits[PREFIX_LENGTH - 1]) {
+                count = add(swapped * 10 + digits[PREFIX_LENGTH - 1], found, count);
+            }
+        }
+        long[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Method finds candidates for mistyped citizen id, value itself is never included
+     * @param value 12 digits of citizen id
+     * @return citizen ids in ascending order
+     * @throws IllegalArgumentException if value does not consist of 12 digits
+     */
+    public List<CitizenId> suggest(CharSequence value) {
+        long[] candidates = candidates(value);
+        List<CitizenId> result = new ArrayList<CitizenId>(candidates.length);
+        for (long candidate : candidates) {
+            result.add(PackedCitizenId.toCitizenId(candidate));
+        }
+        return result;
+    }
+
+    /**
+     * Method adds candidates which differ from value by digit at position, there are at most two of them: one where
+     * the first sum gives control digit and one where the first sum is undefined and the second sum gives it
+     */
+    private int substitute(int[] digits, long prefix, int position, int first, int second, long[] found, int count) {
+        int digit = digits[position];
+        int check = digits[PREFIX_LENGTH];
+        int firstWeight = Checksum.FIRST_WEIGHTS[position] % MODULUS;
+        int secondWeight = Checksum.SECOND_WEIGHTS[position] % MODULUS;
+        long scale = PackedCitizenId.POWERS_OF_TEN[PREFIX_LENGTH - 1 - position];
+        if (firstWeight == 0) {
+            if (first != Checksum.UNDEFINED) {
+                if (first == check) {
+                    for (int replacement = 0; replacement < 10; replacement++) {
+                        if (replacement != digit) {
+                            count = add(candidate(prefix, scale, replacement - digit, check), found, count);
+                        }
+                    }
+                }
+                return count;
+            }
+            int replacement = solve(digit, second, check, secondWeight);
+            if (replacement < 10 && replacement != digit) {
+                count = add(candidate(prefix, scale, replacement - digit, check), found, count);
+            }
+            return count;
+        }
+        int replacement = solve(digit, first, check, firstWeight);
+        if (replacement < 10 && replacement != digit) {
+            count = add(candidate(prefix, scale, replacement - digit, check), found, count);
+        }
+        replacement = solve(digit, first, Checksum.UNDEFINED, firstWeight);
+        if (replacement < 10 && replacement != digit
+                && mod(second + secondWeight * (replacement - digit)) == check) {
+            count = add(candidate(prefix, scale, replacement - digit, check), found, count);
+        }
+        return count;
+    }
+
+    /**
+     * Method adds candidate with swapped digits at position and position + 1 of prefix if control digit is correct
+     */
+    private int transpose(int[] digits, long prefix, int position, int first, int second, long[] found, int count) {
+        int left = digits[position];
+        int right = digits[position + 1];
+        if (left == right) {
+            return count;
+        }
+        int difference = right - left;
+        int control = mod(first + (Checksum.FIRST_WEIGHTS[position] - Checksum.FIRST_WEIGHTS[position + 1])
+                * difference);
+        if (control == Checksum.UNDEFINED) {
+            control = mod(second + (Checksum.SECOND_WEIGHTS[position] - Checksum.SECOND_WEIGHTS[position + 1])
+                    * difference);
+        }
+        if (control == digits[PREFIX_LENGTH]) {
+            long scale = PackedCitizenId.POWERS_OF_TEN[PREFIX_LENGTH - 2 - position];
+            long swapped = prefix + (long) difference * scale * 10 - (long) difference * scale;
+            count = add(swapped * 10 + control, found, count);
+        }
+        return count;
+    }
+
+    /**
+     * Method solves equation sum + weight * (replacement - digit) = target modulo 11
+     * @return replacement between 0 and 10
+     */
+    private static int solve(int digit, int sum, int target, int weight) {
+        return mod(digit + (target - sum) * INVERSES[weight]);
+    }
+
+    private static long candidate(long prefix, long scale, int difference, int control) {
+        return (prefix + difference * scale) * 10 + control;
+    }
+
+    private int add(long candidate, long[] found, int count) {
+        if (registry != null && !registry.contains(candidate)) {
+            return count;
+        }
+        found[count] = candidate;
+        return count + 1;
+    }
+
+    private static int mod(int value) {
+        int result = value % MODULUS;
+        return result < 0 ? result + MODULUS : result;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class counts valid citizen ids by attributes which are encoded in their digits. Juridical subjects are grouped by
+ * registration year, month, organization type and department type, physical subjects are grouped by birth decade
+ * and gender. Digits are decoded straight into index of a dense int array, so counting does not allocate. Instances
+ * are not thread safe: every task counts into its own cube and cubes are merged by {@link #combine(CitizenIdCube)},
+ * see {@link CitizenIdStreams#cube(PackedIdSpliterator, java.util.concurrent.ExecutorService, int)}.
+ */
+public final class CitizenIdCube implements PackedIdConsumer {
+
+    /**
+     * Value of year, month or decade which matches any of them in count methods
+     */
+    public static final int ANY = -1;
+
+    private static final int MONTHS = 13;
+    private static final int ORGANIZATIONS = 4;
+    private static final int DEPARTMENTS = 5;
+    private static final int JURIDICAL_CELLS = 100 * MONTHS * ORGANIZATIONS * DEPARTMENTS;
+    private static final int FIRST_DECADE = 1800;
+    private static final int DECADES = 30;
+    private static final int INVALID_BIRTH_DATE = JURIDICAL_CELLS + DECADES * 2;
+    private static final int REJECTED = INVALID_BIRTH_DATE + 1;
+    private static final int CELLS = REJECTED + 1;
+
+    private static final OrganizationType[] ORGANIZATION_TYPES = {
+            OrganizationType.RESIDENT, OrganizationType.NONRESIDENT, OrganizationType.JOINT_ENTREPRENEUR, null
+    };
+    private static final DepartmentType[] DEPARTMENT_TYPES = {
+            DepartmentType.HEAD, DepartmentType.BRANCH, DepartmentType.AGENCY, DepartmentType.FARM_HOLDING, null
+    };
+
+    private final int[] cells = new int[CELLS];
+
+    /**
+     * Visitor of juridical cells of cube
+     */
+    public interface JuridicalCellVisitor {
+
+        /**
+         * Method is called for every cell which contains citizen ids
+         * @param year year of registration or reregistration
+         * @param month month which is represented by month constants of {@link Calendar} class or -1 if citizen ids
+         * do not contain correct month
+         * @param organizationType organization type or null if citizen ids contain other organization digit
+         * @param departmentType department type or null if citizen ids contain other department digit
+         * @param count number of citizen ids
+         */
+        void visit(int year, int month, OrganizationType organizationType, DepartmentType departmentType, int count);
+    }
+
+    /**
+     * Visitor of physical cells of cube
+     */
+    public interface PhysicalCellVisitor {
+
+        /**
+         * Method is called for every cell which contains citizen ids
+         * @param decade the first year of decade of birth, for example 1990
+         * @param gender gender
+         * @param count number of citizen ids
+         */
+        void visit(int decade, Gender gender, int count);
+    }
+
+    /**
+     * Method adds element of {@link CitizenIdStreams} source. Elements which are not valid citizen ids are counted as
+     * rejected.
+     * @param element element of source, see {@link CitizenIdStreams#statusOf(long)}
+     */
+    public void accept(long element) {
+        cells[cellOf(element)]++;
+    }
+
+    /**
+     * Method adds text value of citizen id
+     * @param value text value
+     */
+    public void accept(CharSequence value) {
+        long packed = PackedCitizenId.tryPack(value);
+        cells[packed == PackedCitizenId.INVALID ? REJECTED : cellOf(packed)]++;
+    }
+
+    /**
+     * Method adds packed citizen ids
+     * @param packed packed citizen ids
+     * @return this cube
+     */
+    public CitizenIdCube acceptAll(long[] packed) {
+        for (long element : packed) {
+            cells[cellOf(element)]++;
+        }
+        return this;
+    }
+
+    private static int cellOf(long element) {
+        if (element < 0 || element > PackedCitizenId.MAX_VALUE || !PackedCitizenId.isValid(element)) {
+            return REJECTED;
+        }
+        int prefix = (int) (element / 100000);
+        int centuryDigit = prefix % 10;
+        int departmentDigit = prefix / 10 % 10;
+        int organizationDigit = prefix / 100 % 10;
+        int month = prefix / 1000 % 100;
+        int twoDigits = prefix / 100000;
+        if (organizationDigit <= 3) {
+            if (PhysicalInfo.epochDayOf(element) == PhysicalInfo.INVALID_EPOCH_DAY) {
+                return INVALID_BIRTH_DATE;
+            }
+            int decade = ((centuryDigit - 1) / 2 * 100 + twoDigits) / 10;
+            return JURIDICAL_CELLS + decade * 2 + (~centuryDigit & 1);
+        }
+        int monthIndex = month >= 1 && month <= 12 ? month - 1 : MONTHS - 1;
+        int organization = organizationDigit <= 6 ? organizationDigit - 4 : ORGANIZATIONS - 1;
+        int department = departmentDigit <= 3 ? departmentDigit : DEPARTMENTS - 1;
+        return ((twoDigits * MONTHS + monthIndex) * ORGANIZATIONS + organization) * DEPARTMENTS + department;
+    }
+
+    /**
+     * Method adds counters of other cube to this one
+     * @param other cube which is merged, it is not changed
+     * @return this cube
+     */
+    public CitizenIdCube combine(CitizenIdCube other) {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] += other.cells[i];
+        }
+        return this;
+    }
+
+    /**
+     * Method counts juridical subjects with given attributes
+     * @param year year of registration or reregistration or {@link #ANY}
+     * @param month month which is represented by month constants of {@link Calendar} class or {@link #ANY}
+     * @param organizationType organization type or null to match any organization digit
+     * @param departmentType department type or null to match any department digit
+     * @return number of citizen ids
+     * @throws IllegalArgumentException if month is not correct
+     */
+    public long countJuridical(int year, int month, OrganizationType organizationType,
+                               DepartmentType departmentType) {
+        if (month != ANY && (month < Calendar.JANUARY || month > Calendar.DECEMBER)) {
+            throw new IllegalArgumentException("Month must be between January and December: " + month);
+        }
+        long count = 0;
+        for (int twoDigits = 0; twoDigits < 100; twoDigits++) {
+            if (year != ANY && JuridicalInfo.year(twoDigits) != year) {
+                continue;
+            }
+            for (int monthIndex = 0; monthIndex < MONTHS; monthIndex++) {
+                if (month != ANY && monthIndex != month - Calendar.JANUARY) {
+                    continue;
+                }
+                for (int organization = 0; organization < ORGANIZATIONS; organization++) {
+                    if (organizationType != null && ORGANIZATION_TYPES[organization] != organizationType) {
+                        continue;
+                    }
+                    int base = ((twoDigits * MONTHS + monthIndex) * ORGANIZATIONS + organization) * DEPARTMENTS;
+                    for (int department = 0; department < DEPARTMENTS; department++) {
+                        if (departmentType == null || DEPARTMENT_TYPES[department] == departmentType) {
+                            count += cells[base + department];
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method counts physical subjects with correct birth date and given attributes
+     * @param decade any year of decade of birth or {@link #ANY}
+     * @param gender gender or null to match both genders
+     * @return number of citizen ids
+     */
+    public long countPhysical(int decade, Gender gender) {
+        long count = 0;
+        for (int index = 0; index < DECADES; index++) {
+            if (decade != ANY && (decade < FIRST_DECADE || (decade - FIRST_DECADE) / 10 != index)) {
+                continue;
+            }
+            if (gender != Gender.FEMALE) {
+                count += cells[JURIDICAL_CELLS + index * 2];
+            }
+            if (gender != Gender.MALE) {
+                count += cells[JURIDICAL_CELLS + index * 2 + 1];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method passes every juridical cell which contains citizen ids to visitor
+     * @param visitor visitor of cells
+     */
+    public void forEachJuridical(JuridicalCellVisitor visitor) {
+        for (int cell = 0; cell < JURIDICAL_CELLS; cell++) {
+            int count = cells[cell];
+            if (count == 0) {
+                continue;
+            }
+            int department = cell % DEPARTMENTS;
+            int organization = cell / DEPARTMENTS % ORGANIZATIONS;
+            int monthIndex = cell / (DEPARTMENTS * ORGANIZATIONS) % MONTHS;
+            int twoDigits = cell / (DEPARTMENTS * ORGANIZATIONS * MONTHS);
+            visitor.visit(JuridicalInfo.year(twoDigits), monthIndex < 12 ? Calendar.JANUARY + monthIndex : -1,
+                    ORGANIZATION_TYPES[organization], DEPARTMENT_TYPES[department], count);
+        }
+    }
+
+    /**
+     * Method passes every physical cell which contains citizen ids to visitor
+     * @param visitor visitor of cells
+     */
+    public void forEachPhysical(PhysicalCellVisitor visitor) {
+        for (int index = 0; index < DECADES * 2; index++) {
+            int count = cells[JURIDICAL_CELLS + index];
+            if (count != 0) {
+                visitor.visit(FIRST_DECADE + index / 2 * 10, (index & 1) == 0 ? Gender.MALE : Gender.FEMALE, count);
+            }
+        }
+    }
+
+    /**
+     * Method return number of counted valid citizen ids
+     * @return number of citizen ids
+     */
+    public long getTotal() {
+        long total = 0;
+        for (int i = 0; i < REJECTED; i++) {
+            total += cells[i];
+        }
+        return total;
+    }
+
+    /**
+     * Method return number of valid citizen ids of juridical subjects
+     * @return number of citizen ids
+     */
+    public long getJuridical() {
+        return countJuridical(ANY, ANY, null, null);
+    }
+
+    /**
+     * Method return number of valid citizen ids of physical subjects, including ones without correct birth date
+     * @return number of citizen ids
+     */
+    public long getPhysical() {
+        return countPhysical(ANY, null) + cells[INVALID_BIRTH_DATE];
+    }
+
+    /**
+     * Method return number of valid citizen ids of physical subjects which do not contain correct birth date
+     * @return number of citizen ids
+     */
+    public long getInvalidBirthDates() {
+        return cells[INVALID_BIRTH_DATE];
+    }
+
+    /**
+     * Method return number of elements which are not valid citizen ids
+     * @return number of rejected elements
+     */
+    public long getRejected() {
+        return cells[REJECTED];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CitizenIdCube that = (CitizenIdCube) o;
+
+        return Arrays.equals(cells, that.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cells);
+    }
+
+    @Override
+    public String toString() {
+        return "CitizenIdCube{total=" + getTotal() + ", juridical=" + getJuridical() + ", physical=" + getPhysical()
+                + ", rejected=" + getRejected() + "}";
+    }
+}
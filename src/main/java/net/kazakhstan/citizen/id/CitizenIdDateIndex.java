@@ -0,0 +1,448 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Secondary index of packed citizen ids by encoded dates and attributes. Citizen ids are bucketed by their first six
+ * digits: registration year, month, organization and department digits of juridical subjects or birth date of physical
+ * subjects. Every bucket is an immutable sorted array which is replaced on update, so queries are answered without
+ * locks while citizen ids are added, and they touch only buckets which match the query. Inside of a birth date bucket
+ * citizen ids are ordered by the century digit, so century and gender are selected by binary search.
+ */
+public final class CitizenIdDateIndex {
+
+    private static final int BUCKETS = 1000000;
+    private static final long BUCKET_WIDTH = 1000000;
+    private static final long CENTURY_WIDTH = 100000;
+    private static final int BATCH_SIZE = 1 << 16;
+    private static final int FIRST_BIRTH_YEAR = 1800;
+    private static final int LAST_BIRTH_YEAR = 2099;
+
+    private final AtomicReferenceArray<long[]> buckets = new AtomicReferenceArray<long[]>(BUCKETS);
+    private final Object lock = new Object();
+    private volatile long size;
+
+    private static int latestRegistrationYear() {
+        int latest = 0;
+        for (int twoDigits = 0; twoDigits < 100; twoDigits++) {
+            latest = Math.max(latest, JuridicalInfo.year(twoDigits));
+        }
+        return latest;
+    }
+
+    /**
+     * Method adds citizen id
+     * @param value citizen id
+     * @throws IllegalArgumentException if value is not accepted by {@link CitizenId#CitizenId(String)}
+     */
+    public void add(CharSequence value) {
+        addPacked(PackedCitizenId.pack(value));
+    }
+
+    /**
+     * Method adds citizen id
+     * @param citizenId citizen id
+     * @throws IllegalArgumentException if citizen id is null
+     */
+    public void add(CitizenId citizenId) {
+        addPacked(PackedCitizenId.pack(citizenId));
+    }
+
+    /**
+     * Method adds packed citizen id
+     * @param packed packed citizen id
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public void addPacked(long packed) {
+        addAllPacked(new long[]{packed});
+    }
+
+    /**
+     * Method adds packed citizen ids. Buckets are updated once per call, so adding of large batches is cheaper than
+     * adding of citizen ids one by one. Citizen ids which are already indexed are stored once.
+     * @param packed packed citizen ids
+     * @throws IllegalArgumentException if any value is negative or has more than 12 digits
+     */
+    public void addAllPacked(long[] packed) {
+        for (long value : packed) {
+            if (value < 0 || value > PackedCitizenId.MAX_VALUE) {
+                throw new IllegalArgumentException("Packed citizen id must have up to 12 digits: " + value);
+            }
+        }
+        long[] sorted = packed.clone();
+        Arrays.sort(sorted);
+        merge(sorted, sorted.length);
+    }
+
+    /**
+     * Method adds citizen ids passed by spliterator, for example by sources of {@link CitizenIdStreams}. Malformed
+     * elements are skipped.
+     * @param source source of packed citizen ids
+     */
+    public void addAll(PackedIdSpliterator source) {
+        final long[][] batch = {new long[BATCH_SIZE]};
+        final int[] count = {0};
+        source.forEachRemaining(new PackedIdConsumer() {
+            public void accept(long packed) {
+                if (packed < 0 || packed > PackedCitizenId.MAX_VALUE) {
+                    return;
+                }
+                batch[0][count[0]++] = packed;
+                if (count[0] == BATCH_SIZE) {
+                    Arrays.sort(batch[0]);
+                    merge(batch[0], BATCH_SIZE);
+                    count[0] = 0;
+                }
+            }
+        });
+        Arrays.sort(batch[0], 0, count[0]);
+        merge(batch[0], count[0]);
+    }
+
+    /**
+     * Method merges sorted citizen ids into buckets, every touched bucket is replaced by new array
+     */
+    private void merge(long[] sorted, int length) {
+        synchronized (lock) {
+            long added = 0;
+            int start = 0;
+            while (start < length) {
+                int bucket = (int) (sorted[start] / BUCKET_WIDTH);
+                int end = start + 1;
+                while (end < length && sorted[end] / BUCKET_WIDTH == bucket) {
+                    end++;
+                }
+                long[] current = buckets.get(bucket);
+                int currentLength = current == null ? 0 : current.length;
+                long[] merged = new long[currentLength + end - start];
+                int i = 0;
+                int j = start;
+                int k = 0;
+                while (i < currentLength || j < end) {
+                    long value;
+                    if (j == end || i < currentLength && current[i] <= sorted[j]) {
+                        value = current[i++];
+                    } else {
+                        value = sorted[j++];
+                    }
+                    if (k == 0 || merged[k - 1] != value) {
+                        merged[k++] = value;
+                    }
+                }
+                added += k - currentLength;
+                buckets.set(bucket, k == merged.length ? merged : Arrays.copyOf(merged, k));
+                start = end;
+            }
+            size += added;
+        }
+    }
+
+    /**
+     * Method return number of indexed citizen ids
+     * @return number of distinct citizen ids
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Method checks if packed citizen id is indexed
+     * @param packed packed citizen id
+     * @return true if index contains citizen id
+     */
+    public boolean contains(long packed) {
+        if (packed < 0 || packed > PackedCitizenId.MAX_VALUE) {
+            return false;
+        }
+        long[] bucket = buckets.get((int) (packed / BUCKET_WIDTH));
+        return bucket != null && Arrays.binarySearch(bucket, packed) >= 0;
+    }
+
+    /**
+     * Method creates query of juridical subjects, by default it matches all of them
+     * @return new query
+     */
+    public JuridicalQuery juridical() {
+        return new JuridicalQuery();
+    }
+
+    /**
+     * Method creates query of physical subjects, by default it matches all of them with correct birth date
+     * @return new query
+     */
+    public PhysicalQuery physical() {
+        return new PhysicalQuery();
+    }
+
+    /**
+     * Method visits citizen ids of bucket which are in range [from, to)
+     * @return number of visited citizen ids
+     */
+    private int visit(int bucket, long from, long to, PackedIdConsumer action) {
+        long[] values = buckets.get(bucket);
+        if (values == null) {
+            return 0;
+        }
+        int start = from <= values[0] ? 0 : insertionPoint(values, from);
+        int end = to > values[values.length - 1] ? values.length : insertionPoint(values, to);
+        if (action != null) {
+            for (int i = start; i < end; i++) {
+                action.accept(values[i]);
+            }
+        }
+        return end - start;
+    }
+
+    private static int insertionPoint(long[] values, long value) {
+        int index = Arrays.binarySearch(values, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static long[] collect(Query query) {
+        final long[][] values = {new long[16]};
+        final int[] count = {0};
+        query.forEach(new PackedIdConsumer() {
+            public void accept(long packed) {
+                if (count[0] == values[0].length) {
+                    values[0] = Arrays.copyOf(values[0], count[0] * 2);
+                }
+                values[0][count[0]++] = packed;
+            }
+        });
+        long[] result = Arrays.copyOf(values[0], count[0]);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Base class of queries, they see citizen ids which were added before or during traversal of a bucket
+     */
+    public abstract static class Query {
+
+        Query() {
+        }
+
+        /**
+         * Method passes matching citizen ids to consumer, they are grouped by bucket and sorted inside of bucket
+         * @param action consumer of packed citizen ids
+         * @return number of matching citizen ids
+         */
+        public int forEach(PackedIdConsumer action) {
+            if (action == null) {
+                throw new IllegalArgumentException("Consumer can not be empty");
+            }
+            return run(action);
+        }
+
+        /**
+         * Method counts matching citizen ids without visiting them
+         * @return number of matching citizen ids
+         */
+        public int count() {
+            return run(null);
+        }
+
+        /**
+         * Method collects matching citizen ids
+         * @return packed citizen ids in ascending order
+         */
+        public long[] toArray() {
+            return collect(this);
+        }
+
+        abstract int run(PackedIdConsumer action);
+    }
+
+    /**
+     * Query of juridical subjects by registration month, organization type and department type
+     */
+    public final class JuridicalQuery extends Query {
+
+        private final int latestYear = latestRegistrationYear();
+        private int fromMonth = (latestYear - 99) * 12;
+        private int toMonth = latestYear * 12 + 11;
+        private OrganizationType organizationType;
+        private DepartmentType departmentType;
+
+        private JuridicalQuery() {
+        }
+
+        /**
+         * Method limits query by month of registration or reregistration
+         * @param year year of operation
+         * @param month month which is represented by month constants of {@link Calendar} class
+         * @return this query
+         * @throws IllegalArgumentException if month is not correct
+         */
+        public JuridicalQuery registeredIn(int year, int month) {
+            return registeredBetween(year, month, year, month);
+        }
+
+        /**
+         * Method limits query by range of months of registration or reregistration, both bounds are inclusive
+         * @param fromYear year of the first month
+         * @param fromMonth the first month which is represented by month constants of {@link Calendar} class
+         * @param toYear year of the last month
+         * @param toMonth the last month which is represented by month constants of {@link Calendar} class
+         * @return this query
+         * @throws IllegalArgumentException if any month is not correct
+         */
+        public JuridicalQuery registeredBetween(int fromYear, int fromMonth, int toYear, int toMonth) {
+            checkMonth(fromMonth);
+            checkMonth(toMonth);
+            this.fromMonth = Math.max(fromYear * 12 + fromMonth - Calendar.JANUARY,
+                    (latestYear - 99) * 12);
+            this.toMonth = Math.min(toYear * 12 + toMonth - Calendar.JANUARY, latestYear * 12 + 11);
+            return this;
+        }
+
+        /**
+         * Method limits query by organization type
+         * @param organizationType organization type or null to match any organization digit
+         * @return this query
+         */
+        public JuridicalQuery organizationType(OrganizationType organizationType) {
+            this.organizationType = organizationType;
+            return this;
+        }
+
+        /**
+         * Method limits query by department type
+         * @param departmentType department type or null to match any department digit
+         * @return this query
+         */
+        public JuridicalQuery departmentType(DepartmentType departmentType) {
+            this.departmentType = departmentType;
+            return this;
+        }
+
+        @Override
+        int run(PackedIdConsumer action) {
+            int firstOrganization = organizationType == null ? 4 : organizationType.digit();
+            int lastOrganization = organizationType == null ? 9 : organizationType.digit();
+            int firstDepartment = departmentType == null ? 0 : departmentType.digit();
+            int lastDepartment = departmentType == null ? 9 : departmentType.digit();
+            int count = 0;
+            for (int month = fromMonth; month <= toMonth; month++) {
+                int prefix = (month / 12 % 100) * 100 + month % 12 + 1;
+                for (int organization = firstOrganization; organization <= lastOrganization; organization++) {
+                    for (int department = firstDepartment; department <= lastDepartment; department++) {
+                        int bucket = prefix * 100 + organization * 10 + department;
+                        count += visit(bucket, 0, Long.MAX_VALUE, action);
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Query of physical subjects by birth date and gender
+     */
+    public final class PhysicalQuery extends Query {
+
+        private int fromDay = PhysicalInfo.epochDay(FIRST_BIRTH_YEAR, 1, 1);
+        private int toDay = PhysicalInfo.epochDay(LAST_BIRTH_YEAR, 12, 31);
+        private Gender gender;
+
+        private PhysicalQuery() {
+        }
+
+        /**
+         * Method limits query by range of birth dates, both bounds are inclusive
+         * @param fromEpochDay the first birth date as number of days since 1970-01-01
+         * @param toEpochDay the last birth date as number of days since 1970-01-01
+         * @return this query
+         */
+        public PhysicalQuery bornBetween(int fromEpochDay, int toEpochDay) {
+            this.fromDay = Math.max(fromEpochDay, PhysicalInfo.epochDay(FIRST_BIRTH_YEAR, 1, 1));
+            this.toDay = Math.min(toEpochDay, PhysicalInfo.epochDay(LAST_BIRTH_YEAR, 12, 31));
+            return this;
+        }
+
+        /**
+         * Method limits query by range of birth years, both bounds are inclusive
+         * @param fromYear the first year of birth
+         * @param toYear the last year of birth
+         * @return this query
+         */
+        public PhysicalQuery bornInYears(int fromYear, int toYear) {
+            int first = Math.max(fromYear, FIRST_BIRTH_YEAR);
+            int last = Math.min(toYear, LAST_BIRTH_YEAR);
+            if (first > last) {
+                this.fromDay = 1;
+                this.toDay = 0;
+                return this;
+            }
+            return bornBetween(PhysicalInfo.epochDay(first, 1, 1), PhysicalInfo.epochDay(last, 12, 31));
+        }
+
+        /**
+         * Method limits query by gender
+         * @param gender gender or null to match both genders
+         * @return this query
+         */
+        public PhysicalQuery gender(Gender gender) {
+            this.gender = gender;
+            return this;
+        }
+
+        @Override
+        int run(PackedIdConsumer action) {
+            if (fromDay > toDay) {
+                return 0;
+            }
+            int count = 0;
+            for (int year = FIRST_BIRTH_YEAR; year <= LAST_BIRTH_YEAR; year++) {
+                if (PhysicalInfo.epochDay(year, 12, 31) < fromDay || PhysicalInfo.epochDay(year, 1, 1) > toDay) {
+                    continue;
+                }
+                int century = (year - FIRST_BIRTH_YEAR) / 100 * 2 + 1;
+                long firstDigit = gender == Gender.FEMALE ? century + 1 : century;
+                long lastDigit = gender == Gender.MALE ? century : century + 1;
+                int[] monthStarts = PhysicalInfo.monthStarts(year);
+                for (int month = 1; month <= 12; month++) {
+                    int monthStart = PhysicalInfo.epochDay(year, month, 1);
+                    int days = monthStarts[month] - monthStarts[month - 1];
+                    for (int day = Math.max(1, fromDay - monthStart + 1);
+                         day <= Math.min(days, toDay - monthStart + 1); day++) {
+                        int bucket = (year % 100) * 10000 + month * 100 + day;
+                        long base = bucket * BUCKET_WIDTH;
+                        count += visit(bucket, base + firstDigit * CENTURY_WIDTH,
+                                base + (lastDigit + 1) * CENTURY_WIDTH, action);
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    private static void checkMonth(int month) {
+        if (month < Calendar.JANUARY || month > Calendar.DECEMBER) {
+            throw new IllegalArgumentException("Month must be between January and December: " + month);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class generates packed citizen ids for load tests. Citizen id with given index is computed from seed and index only,
+ * so generation is deterministic and any range of indexes can be produced by independent threads. Control digit is
+ * calculated directly, ids which can not have control digit get next order number instead of being rejected.
+ */
+public final class CitizenIdGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double TWO_POW_53 = 1L << 53;
+    private static final int SPLIT_THRESHOLD = 1024;
+    private static final int LINES_PER_BUFFER = 4096;
+
+    private final long seed;
+    private final long physicalThreshold;
+    private final long invalidThreshold;
+    private final int birthFrom;
+    private final int birthYears;
+    private final int registrationFrom;
+    private final int registrationYears;
+
+    private CitizenIdGenerator(Builder builder) {
+        seed = builder.seed;
+        physicalThreshold = (long) (builder.physicalRatio * TWO_POW_53);
+        invalidThreshold = (long) (builder.invalidRatio * TWO_POW_53);
+        birthFrom = builder.birthFrom;
+        birthYears = builder.birthTo - builder.birthFrom + 1;
+        registrationFrom = builder.registrationFrom;
+        registrationYears = builder.registrationTo - builder.registrationFrom + 1;
+    }
+
+    /**
+     * Method creates builder of generator
+     * @return new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Method return packed citizen id with given index
+     * @param index index of citizen id in generated sequence
+     * @return packed citizen id
+     * @throws IllegalArgumentException if index is negative
+     */
+    public long get(long index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Index can not be negative: " + index);
+        }
+        return generate(index);
+    }
+
+    /**
+     * Method fills array with citizen ids of consecutive indexes
+     * @param out array which receives packed citizen ids
+     * @param fromIndex index of citizen id which is written to the first element
+     * @throws IllegalArgumentException if index is negative
+     */
+    public void fill(long[] out, long fromIndex) {
+        fill(out, 0, out.length, fromIndex);
+    }
+
+    /**
+     * Method fills part of array with citizen ids of consecutive indexes
+     * @param out array which receives packed citizen ids
+     * @param offset first element of array to fill
+     * @param length number of elements to fill
+     * @param fromIndex index of citizen id which is written to element at offset
+     * @throws IllegalArgumentException if index is negative
+     * @throws IndexOutOfBoundsException if range is outside of array
+     */
+    public void fill(long[] out, int offset, int length, long fromIndex) {
+        if (offset < 0 || length < 0 || offset + length > out.length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length)
+                    + ") is outside of array with length " + out.length);
+        }
+        checkRange(fromIndex, fromIndex + length);
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = generate(fromIndex + i);
+        }
+    }
+
+    /**
+     * Method creates spliterator over citizen ids with indexes from range, it is split into halves until parts have
+     * less than 1024 citizen ids
+     * @param fromIndex first index, inclusive
+     * @param toIndex last index, exclusive
+     * @return spliterator of packed citizen ids
+     * @throws IllegalArgumentException if range is incorrect
+     */
+    public PackedIdSpliterator spliterator(long fromIndex, long toIndex) {
+        checkRange(fromIndex, toIndex);
+        return new RangeSpliterator(fromIndex, toIndex);
+    }
+
+    /**
+     * Method writes citizen ids with indexes from range as text lines
+     * @param out stream which receives lines, it is not closed
+     * @param fromIndex first index, inclusive
+     * @param toIndex last index, exclusive
+     * @throws IOException if stream can not be written
+     * @throws IllegalArgumentException if range is incorrect
+     */
+    public void write(OutputStream out, long fromIndex, long toIndex) throws IOException {
+        checkRange(fromIndex, toIndex);
+        byte[] buffer = new byte[LINES_PER_BUFFER * (CitizenId.LENGTH + 1)];
+        long index = fromIndex;
+        while (index < toIndex) {
+            int lines = (int) Math.min(LINES_PER_BUFFER, toIndex - index);
+            int position = 0;
+            for (int i = 0; i < lines; i++) {
+                long packed = generate(index++);
+                for (int digit = CitizenId.LENGTH - 1; digit >= 0; digit--) {
+                    buffer[position + digit] = (byte) ('0' + packed % 10);
+                    packed /= 10;
+                }
+                buffer[position + CitizenId.LENGTH] = '\n';
+                position += CitizenId.LENGTH + 1;
+            }
+            out.write(buffer, 0, position);
+        }
+    }
+
+    /**
+     * Method writes first citizen ids of sequence to file as text lines
+     * @param file file which is created or overwritten
+     * @param count number of citizen ids
+     * @throws IOException if file can not be written
+     * @throws IllegalArgumentException if count is negative
+     */
+    public void write(File file, long count) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+        try {
+            write(out, 0, count);
+        } finally {
+            out.close();
+        }
+    }
+
+    private long generate(long index) {
+        long state = seed + index * GOLDEN_GAMMA;
+        long typeBits = mix(state += GOLDEN_GAMMA);
+        long invalidBits = mix(state += GOLDEN_GAMMA);
+        long fields = mix(state + GOLDEN_GAMMA) >>> 1;
+
+        long prefix;
+        if (typeBits >>> 11 < physicalThreshold) {
+            int year = birthFrom + (int) (fields % birthYears);
+            fields /= birthYears;
+            int[] starts = PhysicalInfo.monthStarts(year);
+            int dayOfYear = (int) (fields % starts[12]);
+            fields /= starts[12];
+            int month = 1;
+            while (starts[month] <= dayOfYear) {
+                month++;
+            }
+            int day = dayOfYear - starts[month - 1] + 1;
+            int century = (year / 100 - 18) * 2 + 1 + (int) (fields & 1);
+            fields >>>= 1;
+            prefix = nextIssuable(((year % 100 * 100L + month) * 100 + day) * 10 + century, 10000, fields);
+        } else {
+            int year = registrationFrom + (int) (fields % registrationYears);
+            fields /= registrationYears;
+            int month = 1 + (int) (fields % 12);
+            fields /= 12;
+            int organization = 4 + (int) (fields % 3);
+            fields /= 3;
+            int department = (int) (fields & 3);
+            fields >>>= 2;
+            prefix = nextIssuable(((year % 100 * 100L + month) * 10 + organization) * 10 + department, 100000, fields);
+        }
+        int control = Checksum.controlDigit(prefix);
+        if (invalidBits >>> 11 < invalidThreshold) {
+            control = (control + 1 + (int) ((invalidBits & 0x7ff) % 9)) % 10;
+        }
+        return prefix * 10 + control;
+    }
+
+    /**
+     * Method appends order number to head of citizen id, order number is incremented while control digit is undefined
+     */
+    private static long nextIssuable(long head, int limit, long random) {
+        int number = (int) (random % limit);
+        long prefix = head * limit + number;
+        while (Checksum.controlDigit(prefix) == Checksum.UNDEFINED) {
+            number = (number + 1) % limit;
+            prefix = head * limit + number;
+        }
+        return prefix;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void checkRange(long fromIndex, long toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex) {
+            throw new IllegalArgumentException("Incorrect range of indexes [" + fromIndex + ", " + toIndex + ")");
+        }
+    }
+
+    private final class RangeSpliterator implements PackedIdSpliterator {
+        private long index;
+        private final long end;
+
+        private RangeSpliterator(long index, long end) {
+            this.index = index;
+            this.end = end;
+        }
+
+        public boolean tryAdvance(PackedIdConsumer action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(generate(index++));
+            return true;
+        }
+
+        public void forEachRemaining(PackedIdConsumer action) {
+            long current = index;
+            index = end;
+            for (; current < end; current++) {
+                action.accept(generate(current));
+            }
+        }
+
+        public PackedIdSpliterator trySplit() {
+            long size = end - index;
+            if (size < SPLIT_THRESHOLD) {
+                return null;
+            }
+            long middle = index + size / 2;
+            PackedIdSpliterator prefix = new RangeSpliterator(index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return end - index;
+        }
+    }
+
+    /**
+     * Builder of citizen id generator
+     */
+    public static final class Builder {
+
+        private long seed;
+        private double physicalRatio = 0.5;
+        private double invalidRatio;
+        private int birthFrom = 1940;
+        private int birthTo = 2010;
+        private int registrationFrom = 1995;
+        private int registrationTo = 2015;
+
+        private Builder() {
+        }
+
+        /**
+         * Method sets seed of generator, generators with the same settings and seed produce the same citizen ids
+         * @param seed seed
+         * @return this builder
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Method sets share of physical subjects, default is 0.5
+         * @param physicalRatio share between 0 and 1
+         * @return this builder
+         */
+        public Builder physicalRatio(double physicalRatio) {
+            checkRatio(physicalRatio);
+            this.physicalRatio = physicalRatio;
+            return this;
+        }
+
+        /**
+         * Method sets share of citizen ids with wrong control digit, default is 0
+         * @param invalidRatio share between 0 and 1
+         * @return this builder
+         */
+        public Builder invalidRatio(double invalidRatio) {
+            checkRatio(invalidRatio);
+            this.invalidRatio = invalidRatio;
+            return this;
+        }
+
+        /**
+         * Method sets range of birth years of physical subjects, dates are distributed uniformly, default is 1940-2010
+         * @param from first year, inclusive
+         * @param to last year, inclusive
+         * @return this builder
+         */
+        public Builder birthYears(int from, int to) {
+            if (from < 1800 || to > 2099 || from > to) {
+                throw new IllegalArgumentException("Birth years must be between 1800 and 2099: " + from + "-" + to);
+            }
+            birthFrom = from;
+            birthTo = to;
+            return this;
+        }
+
+        /**
+         * Method sets range of registration years of juridical subjects, months are distributed uniformly, default is
+         * 1995-2015
+         * @param from first year, inclusive
+         * @param to last year, inclusive
+         * @return this builder
+         */
+        public Builder registrationYears(int from, int to) {
+            if (from < 0 || from > to || to - from >= 100) {
+                throw new IllegalArgumentException("Registration years must cover less than 100 years: "
+                        + from + "-" + to);
+            }
+            registrationFrom = from;
+            registrationTo = to;
+            return this;
+        }
+
+        /**
+         * Method creates generator
+         * @return new generator
+         */
+        public CitizenIdGenerator build() {
+            return new CitizenIdGenerator(this);
+        }
+
+        private static void checkRatio(double ratio) {
+            if (!(ratio >= 0 && ratio <= 1)) {
+                throw new IllegalArgumentException("Ratio must be between 0 and 1: " + ratio);
+            }
+        }
+    }
+}
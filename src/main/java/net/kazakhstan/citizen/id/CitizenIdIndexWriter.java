@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class writes sorted index file of citizen ids which is read by {@link MappedCitizenIdIndex}. Only citizen ids with
+ * correct control digit are accepted. File consists of header, sparse fence index which contains every n-th citizen id
+ * and sorted unique citizen ids stored as 5 bytes big endian packed values.
+ */
+public class CitizenIdIndexWriter {
+
+    private long[] values = new long[16];
+    private int count;
+    private int fenceStride = MappedCitizenIdIndex.DEFAULT_FENCE_STRIDE;
+
+    /**
+     * Method sets number of citizen ids between two entries of fence index, default is 256
+     * @param fenceStride distance between fences
+     * @return this writer
+     * @throws IllegalArgumentException if stride is not positive
+     */
+    public CitizenIdIndexWriter fenceStride(int fenceStride) {
+        if (fenceStride <= 0) {
+            throw new IllegalArgumentException("Fence stride must be positive: " + fenceStride);
+        }
+        this.fenceStride = fenceStride;
+        return this;
+    }
+
+    /**
+     * Method adds citizen id to index
+     * @param value citizen id
+     * @return this writer
+     * @throws IllegalArgumentException if value is not valid citizen id
+     */
+    public CitizenIdIndexWriter add(CharSequence value) {
+        CitizenIdStatus status = CitizenId.validate(value);
+        if (status != CitizenIdStatus.VALID) {
+            throw new IllegalArgumentException(status.message);
+        }
+        return addPacked(PackedCitizenId.packDigits(value, 0));
+    }
+
+    /**
+     * Method adds citizen id to index
+     * @param citizenId citizen id
+     * @return this writer
+     * @throws IllegalArgumentException if citizen id is null or has wrong control digit
+     */
+    public CitizenIdIndexWriter add(CitizenId citizenId) {
+        return addPacked(PackedCitizenId.pack(citizenId));
+    }
+
+    /**
+     * Method adds packed citizen id to index
+     * @param packed packed citizen id
+     * @return this writer
+     * @throws IllegalArgumentException if value is not packed citizen id with correct control digit
+     */
+    public CitizenIdIndexWriter addPacked(long packed) {
+        if (!PackedCitizenId.isValid(packed)) {
+            throw new IllegalArgumentException("Citizen id is not valid: " + packed);
+        }
+        if (count == values.length) {
+            values = Arrays.copyOf(values, values.length + (values.length >> 1));
+        }
+        values[count++] = packed;
+        return this;
+    }
+
+    /**
+     * Method sorts added citizen ids, removes duplicates and writes index file
+     * @param file destination file, existing file is overwritten
+     * @return number of citizen ids in written index
+     * @throws IOException if file can not be written
+     * @throws IllegalArgumentException if index file would be longer than {@link Integer#MAX_VALUE} bytes, so it
+     * could not be mapped by {@link MappedCitizenIdIndex#open(File)}
+     */
+    public int write(File file) throws IOException {
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (unique == 0 || sorted[unique - 1] != sorted[i]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        int fenceCount = (int) (((long) unique + fenceStride - 1) / fenceStride);
+        long length = MappedCitizenIdIndex.HEADER_SIZE + fenceCount * 8L
+                + (long) unique * MappedCitizenIdIndex.ENTRY_WIDTH;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many citizen ids for one index file: " + unique);
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MappedCitizenIdIndex.MAGIC);
+            out.writeInt(MappedCitizenIdIndex.VERSION);
+            out.writeInt(fenceStride);
+            out.writeInt(fenceCount);
+            out.writeLong(unique);
+            out.writeLong(0);
+            for (int i = 0; i < unique; i += fenceStride) {
+                out.writeLong(sorted[i]);
+            }
+            for (int i = 0; i < unique; i++) {
+                out.writeByte((int) (sorted[i] >>> 32));
+                out.writeInt((int) sorted[i]);
+            }
+        } finally {
+            out.close();
+        }
+        return unique;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * This interface receives outcomes of parsing, validation and decoding of citizen ids. Implementation is installed by
+ * {@link CitizenIds#setMetrics(CitizenIdMetrics)}, when nothing is installed call sites only check a static field.
+ * Methods are called by many threads and must be cheap, {@link StripedCitizenIdMetrics} is the default implementation.
+ */
+public interface CitizenIdMetrics {
+
+    /**
+     * Method decides if duration of next operation of calling thread should be measured
+     * @return true if operation should be timed
+     */
+    boolean sample();
+
+    /**
+     * Method receives outcome of parsing by {@link CitizenId#CitizenId(String)} or {@link CitizenId#tryParse}
+     * @param status {@link CitizenIdStatus#VALID} for well formed value or reason of rejection, control digit is not
+     * checked by parsing
+     * @param type type of parsed citizen id or null if value was rejected
+     * @param nanos duration of parsing or -1 if it was not sampled
+     */
+    void parsed(CitizenIdStatus status, CitizenType type, long nanos);
+
+    /**
+     * Method receives outcome of validation by {@link Validators} and {@link IdValidation} implementations
+     * @param type type of citizen id or null if value was not well formed
+     * @param valid result of validation
+     * @param nanos duration of validation or -1 if it was not sampled
+     */
+    void validated(CitizenType type, boolean valid, long nanos);
+
+    /**
+     * Method receives outcome of creation of {@link JuridicalDataInformation} or {@link PhysicalDataInformation}
+     * @param type type of subject which information was requested for
+     * @param success false if citizen id was rejected
+     * @param nanos duration of decoding or -1 if it was not sampled
+     */
+    void decoded(CitizenType type, boolean success, long nanos);
+}
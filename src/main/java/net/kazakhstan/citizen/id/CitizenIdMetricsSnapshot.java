@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class contains counters of {@link StripedCitizenIdMetrics} at some moment
+ */
+public final class CitizenIdMetricsSnapshot {
+
+    private final long[] counters;
+
+    CitizenIdMetricsSnapshot(long[] counters) {
+        this.counters = counters;
+    }
+
+    /**
+     * Method return number of parsed values with status
+     * @param status {@link CitizenIdStatus#VALID} for well formed values or reason of rejection
+     * @return number of values
+     */
+    public long getParsed(CitizenIdStatus status) {
+        return counters[StripedCitizenIdMetrics.PARSED + status.ordinal()];
+    }
+
+    /**
+     * Method return number of well formed parsed values of type
+     * @param type type of citizen id
+     * @return number of values
+     */
+    public long getParsed(CitizenType type) {
+        return counters[StripedCitizenIdMetrics.PARSED_TYPES + type.ordinal()];
+    }
+
+    /**
+     * Method return number of validations with result
+     * @param type type of citizen id or null for values which were not well formed
+     * @param valid result of validation
+     * @return number of validations
+     */
+    public long getValidated(CitizenType type, boolean valid) {
+        return counters[StripedCitizenIdMetrics.validatedIndex(type, valid)];
+    }
+
+    /**
+     * Method return number of requests for decoding information
+     * @param type type of subject which information was requested for
+     * @param success false for rejected citizen ids
+     * @return number of requests
+     */
+    public long getDecoded(CitizenType type, boolean success) {
+        return counters[StripedCitizenIdMetrics.decodedIndex(type, success)];
+    }
+
+    /**
+     * Method return histogram of sampled durations of parsing
+     * @return histogram
+     */
+    public LatencyHistogram getParseLatency() {
+        return new LatencyHistogram(counters, StripedCitizenIdMetrics.PARSE_LATENCY);
+    }
+
+    /**
+     * Method return histogram of sampled durations of validation
+     * @return histogram
+     */
+    public LatencyHistogram getValidationLatency() {
+        return new LatencyHistogram(counters, StripedCitizenIdMetrics.VALIDATION_LATENCY);
+    }
+
+    /**
+     * Method return histogram of sampled durations of decoding
+     * @return histogram
+     */
+    public LatencyHistogram getDecodeLatency() {
+        return new LatencyHistogram(counters, StripedCitizenIdMetrics.DECODE_LATENCY);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("parsed:");
+        for (CitizenIdStatus status : CitizenIdStatus.values()) {
+            builder.append(' ').append(status).append('=').append(getParsed(status));
+        }
+        for (CitizenType type : CitizenType.values()) {
+            builder.append(' ').append(type).append('=').append(getParsed(type));
+        }
+        builder.append("\nvalidated:");
+        for (CitizenType type : new CitizenType[]{CitizenType.PHYSICAL, CitizenType.JURIDICAL, null}) {
+            builder.append(' ').append(type == null ? "MALFORMED" : type)
+                    .append(" valid=").append(getValidated(type, true))
+                    .append(" invalid=").append(getValidated(type, false));
+        }
+        builder.append("\ndecoded:");
+        for (CitizenType type : CitizenType.values()) {
+            builder.append(' ').append(type)
+                    .append(" success=").append(getDecoded(type, true))
+                    .append(" rejected=").append(getDecoded(type, false));
+        }
+        builder.append("\nparse latency: ").append(getParseLatency())
+                .append("\nvalidation latency: ").append(getValidationLatency())
+                .append("\ndecode latency: ").append(getDecodeLatency()).append('\n');
+        return builder.toString();
+    }
+}
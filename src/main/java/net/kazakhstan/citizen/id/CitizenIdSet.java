@@ -0,0 +1,307 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Immutable set of citizen ids which is optimized for membership checks. Citizen ids are stored as packed values in
+ * open addressing hash table with linear probing. Table can be placed either in heap {@code long[]} or in direct
+ * {@link ByteBuffer} outside of heap. Lookups do not allocate and set can be shared between threads without
+ * synchronization.
+ */
+public final class CitizenIdSet implements PackedIdLookup {
+
+    private static final long EMPTY = -1L;
+    private static final int MAX_HEAP_CAPACITY = 1 << 30;
+    private static final int MAX_OFF_HEAP_CAPACITY = 1 << 27;
+
+    private final long[] heapTable;
+    private final ByteBuffer offHeapTable;
+    private final int mask;
+    private final int size;
+
+    private CitizenIdSet(long[] values, int count, double loadFactor, boolean offHeap) {
+        int capacity = capacityFor(count, loadFactor, offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_HEAP_CAPACITY);
+        this.mask = capacity - 1;
+        if (offHeap) {
+            ByteBuffer table = ByteBuffer.allocateDirect(capacity << 3).order(ByteOrder.nativeOrder());
+            this.size = insert(table, mask, values, count);
+            this.offHeapTable = table;
+            this.heapTable = null;
+        } else {
+            long[] table = new long[capacity];
+            this.size = insert(table, mask, values, count);
+            this.offHeapTable = null;
+            this.heapTable = table;
+        }
+    }
+
+    private static int insert(long[] table, int mask, long[] values, int count) {
+        Arrays.fill(table, EMPTY);
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            long packed = values[i];
+            int slot = (int) PackedCitizenId.mix(packed) & mask;
+            while (table[slot] != EMPTY && table[slot] != packed) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == EMPTY) {
+                table[slot] = packed;
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Method fills direct table by the same probing as {@link #insert(long[], int, long[], int)}, so off heap set
+     * does not need a temporary table in heap
+     */
+    private static int insert(ByteBuffer table, int mask, long[] values, int count) {
+        for (int slot = 0; slot <= mask; slot++) {
+            table.putLong(slot << 3, EMPTY);
+        }
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            long packed = values[i];
+            int slot = (int) PackedCitizenId.mix(packed) & mask;
+            long current;
+            while ((current = table.getLong(slot << 3)) != EMPTY && current != packed) {
+                slot = (slot + 1) & mask;
+            }
+            if (current == EMPTY) {
+                table.putLong(slot << 3, packed);
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private static int capacityFor(int count, double loadFactor, int maxCapacity) {
+        long required = (long) Math.ceil(count / loadFactor) + 1;
+        int capacity = 2;
+        while (capacity < required) {
+            if (capacity >= maxCapacity) {
+                throw new IllegalArgumentException("Too many citizen ids for load factor " + loadFactor + ": " + count);
+            }
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Method creates builder of citizen id set
+     * @return new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Method checks if set contains packed citizen id
+     * @param packed packed citizen id
+     * @return true if citizen id is in set
+     */
+    public boolean contains(long packed) {
+        if (packed < 0) {
+            return false;
+        }
+        int slot = (int) PackedCitizenId.mix(packed) & mask;
+        if (heapTable != null) {
+            long current;
+            while ((current = heapTable[slot]) != EMPTY) {
+                if (current == packed) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+        } else {
+            long current;
+            while ((current = offHeapTable.getLong(slot << 3)) != EMPTY) {
+                if (current == packed) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method checks if set contains citizen id
+     * @param value citizen id
+     * @return true if value is correct citizen id and it is in set
+     */
+    public boolean contains(CharSequence value) {
+        return contains(PackedCitizenId.tryPack(value));
+    }
+
+    /**
+     * Method checks if set contains citizen id
+     * @param citizenId citizen id
+     * @return true if citizen id is in set
+     */
+    public boolean contains(CitizenId citizenId) {
+        return citizenId != null && contains(PackedCitizenId.pack(citizenId));
+    }
+
+    /**
+     * Method return number of citizen ids in set
+     * @return number of citizen ids
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method return number of slots in hash table
+     * @return capacity of hash table
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Method checks if hash table is stored outside of heap
+     * @return true if table is stored in direct buffer
+     */
+    public boolean isOffHeap() {
+        return offHeapTable != null;
+    }
+
+    /**
+     * Builder collects citizen ids and creates {@link CitizenIdSet} with hash table sized to target load factor.
+     * Builder is not thread safe.
+     */
+    public static final class Builder {
+
+        private long[] values = new long[16];
+        private int count;
+        private double loadFactor = 0.5;
+        private boolean offHeap;
+
+        private Builder() {
+        }
+
+        /**
+         * Method sets expected number of citizen ids to avoid growing of internal buffer
+         * @param expectedSize expected number of citizen ids
+         * @return this builder
+         */
+        public Builder expectedSize(int expectedSize) {
+            if (expectedSize < 0) {
+                throw new IllegalArgumentException("Expected size can not be negative");
+            }
+            ensureCapacity(expectedSize);
+            return this;
+        }
+
+        /**
+         * Method sets ratio of citizen ids to slots of hash table, default is 0.5
+         * @param loadFactor load factor between 0 and 1 exclusively
+         * @return this builder
+         */
+        public Builder loadFactor(double loadFactor) {
+            if (!(loadFactor > 0 && loadFactor < 1)) {
+                throw new IllegalArgumentException("Load factor must be between 0 and 1: " + loadFactor);
+            }
+            this.loadFactor = loadFactor;
+            return this;
+        }
+
+        /**
+         * Method sets placement of hash table
+         * @param offHeap true if hash table should be stored in direct buffer
+         * @return this builder
+         */
+        public Builder offHeap(boolean offHeap) {
+            this.offHeap = offHeap;
+            return this;
+        }
+
+        /**
+         * Method adds citizen id
+         * @param value citizen id
+         * @return this builder
+         * @throws IllegalArgumentException if value is not accepted by {@link CitizenId#CitizenId(String)}
+         */
+        public Builder add(CharSequence value) {
+            return addPacked(PackedCitizenId.pack(value));
+        }
+
+        /**
+         * Method adds citizen id
+         * @param citizenId citizen id
+         * @return this builder
+         * @throws IllegalArgumentException if citizen id is null
+         */
+        public Builder add(CitizenId citizenId) {
+            return addPacked(PackedCitizenId.pack(citizenId));
+        }
+
+        /**
+         * Method adds packed citizen id
+         * @param packed packed citizen id
+         * @return this builder
+         * @throws IllegalArgumentException if value is negative or has more than 12 digits
+         */
+        public Builder addPacked(long packed) {
+            if (packed < 0 || packed > PackedCitizenId.MAX_VALUE) {
+                throw new IllegalArgumentException("Packed citizen id must have up to 12 digits: " + packed);
+            }
+            ensureCapacity(count + 1);
+            values[count++] = packed;
+            return this;
+        }
+
+        /**
+         * Method adds packed citizen ids
+         * @param packed packed citizen ids
+         * @return this builder
+         * @throws IllegalArgumentException if any value is negative or has more than 12 digits
+         */
+        public Builder addAllPacked(long[] packed) {
+            ensureCapacity(count + packed.length);
+            for (long value : packed) {
+                addPacked(value);
+            }
+            return this;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1)));
+            }
+        }
+
+        /**
+         * Method creates set from collected citizen ids. Duplicates are stored once.
+         * @return immutable set
+         */
+        public CitizenIdSet build() {
+            return new CitizenIdSet(values, count, loadFactor, offHeap);
+        }
+    }
+}
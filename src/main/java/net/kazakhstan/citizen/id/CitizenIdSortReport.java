@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class contains totals of external sort by {@link CitizenIdSorter}
+ */
+public class CitizenIdSortReport {
+
+    private long lines;
+    private long malformed;
+    private long invalid;
+    private long written;
+    private int runs;
+    private int mergePasses;
+    private long spilledBytes;
+    private long sortNanos;
+    private long mergeNanos;
+
+    void addLines(long lines, long malformed, long invalid) {
+        this.lines += lines;
+        this.malformed += malformed;
+        this.invalid += invalid;
+    }
+
+    void addRun(long bytes) {
+        runs++;
+        spilledBytes += bytes;
+    }
+
+    void finish(long written, int mergePasses, long sortNanos, long mergeNanos) {
+        this.written = written;
+        this.mergePasses = mergePasses;
+        this.sortNanos = sortNanos;
+        this.mergeNanos = mergeNanos;
+    }
+
+    /**
+     * Method return number of read lines
+     * @return number of lines of all input files
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * Method return number of lines which do not contain well formed citizen id
+     * @return number of skipped lines
+     */
+    public long getMalformed() {
+        return malformed;
+    }
+
+    /**
+     * Method return number of citizen ids which were skipped because of wrong control digit
+     * @return number of skipped citizen ids, always 0 unless {@link CitizenIdSorter#validOnly(boolean)} is set
+     */
+    public long getInvalid() {
+        return invalid;
+    }
+
+    /**
+     * Method return number of citizen ids in output file
+     * @return number of distinct citizen ids
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Method return number of removed duplicates
+     * @return number of accepted citizen ids which are not written
+     */
+    public long getDuplicates() {
+        return lines - malformed - invalid - written;
+    }
+
+    /**
+     * Method return number of sorted runs which were spilled into temporary files
+     * @return number of runs
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Method return number of merge passes, it is more than one if number of runs exceeds merge fan-in
+     * @return number of merge passes
+     */
+    public int getMergePasses() {
+        return mergePasses;
+    }
+
+    /**
+     * Method return size of sorted runs
+     * @return number of bytes written into temporary files by sort phase
+     */
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * Method return duration of parsing and sorting of runs
+     * @return duration in nanoseconds
+     */
+    public long getSortNanos() {
+        return sortNanos;
+    }
+
+    /**
+     * Method return duration of merging of runs
+     * @return duration in nanoseconds
+     */
+    public long getMergeNanos() {
+        return mergeNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("lines: ").append(lines).append('\n');
+        builder.append("malformed: ").append(malformed).append('\n');
+        builder.append("invalid: ").append(invalid).append('\n');
+        builder.append("duplicates: ").append(getDuplicates()).append('\n');
+        builder.append("written: ").append(written).append('\n');
+        builder.append("runs: ").append(runs).append(" (").append(spilledBytes).append(" bytes)\n");
+        builder.append("merge passes: ").append(mergePasses).append('\n');
+        builder.append("sort: ").append(sortNanos / 1000000).append(" ms, merge: ").append(mergeNanos / 1000000)
+                .append(" ms\n");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,738 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class sorts and deduplicates citizen ids of text files which do not fit into memory. Input files are split on
+ * line boundaries and parts are parsed in parallel into packed citizen ids; every thread fills its own run, sorts it,
+ * removes duplicates and spills it into temporary file as 5 byte records of {@link CitizenIdCodec}. Runs are merged
+ * by k-way merge which removes duplicates between runs; if there are more runs than merge fan-in, groups of runs are
+ * merged into bigger runs first. Memory budget is shared by runs of all threads during sort and by read buffers
+ * during merge.
+ */
+public class CitizenIdSorter {
+
+    /**
+     * Format of output file
+     */
+    public enum Format {
+        /**
+         * One citizen id of 12 digits per line
+         */
+        TEXT,
+        /**
+         * Fixed 5 byte records written by {@link CitizenIdCodec#write(ByteBuffer, long)}
+         */
+        RECORDS,
+        /**
+         * Blocks of up to 4096 citizen ids written by {@link CitizenIdCodec#writeBlock(ByteBuffer, long[])}
+         */
+        BLOCKS
+    }
+
+    /**
+     * Phase of sort which is reported to {@link ProgressListener}
+     */
+    public enum Phase {
+        /**
+         * Parsing of input lines and spilling of sorted runs, progress is measured in lines
+         */
+        SORT,
+        /**
+         * Merging of runs, progress is measured in citizen ids read from runs
+         */
+        MERGE
+    }
+
+    /**
+     * Listener of progress of sort. It is called by one thread at a time: after every spilled run during sort phase
+     * and after every million of merged citizen ids.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Method is called when part of work is done
+         * @param phase current phase
+         * @param done amount of done work
+         * @param total amount of all work of phase, it is estimated from file sizes during sort phase
+         */
+        void progress(Phase phase, long done, long total);
+    }
+
+    private static final long DEFAULT_MEMORY_BUDGET = 256L << 20;
+    private static final long MIN_MEMORY_BUDGET = 1 << 20;
+    private static final int DEFAULT_FAN_IN = 128;
+    private static final int MIN_RUN_LENGTH = 1024;
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    private static final int MIN_READ_BUFFER_SIZE = 4096;
+    private static final int BLOCK_LENGTH = 4096;
+    private static final int MERGE_REPORT_INTERVAL = 1000000;
+    private static final int CANCEL_CHECK_MASK = (1 << 12) - 1;
+
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private File tempDirectory;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int fanIn = DEFAULT_FAN_IN;
+    private Format format = Format.TEXT;
+    private boolean validOnly;
+    private ProgressListener listener;
+
+    /**
+     * Method sets memory which may be taken by runs and buffers, default is 256 megabytes
+     * @param memoryBudget number of bytes, at least one megabyte
+     * @return this sorter
+     * @throws IllegalArgumentException if budget is less than one megabyte
+     */
+    public CitizenIdSorter memoryBudget(long memoryBudget) {
+        if (memoryBudget < MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("Memory budget must be at least " + MIN_MEMORY_BUDGET + " bytes: "
+                    + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    /**
+     * Method sets directory of temporary files
+     * @param tempDirectory directory or null for default temporary directory
+     * @return this sorter
+     */
+    public CitizenIdSorter tempDirectory(File tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    /**
+     * Method sets number of threads which parse and sort runs, default is number of processors
+     * @param threads number of threads
+     * @return this sorter
+     * @throws IllegalArgumentException if number of threads is not positive
+     */
+    public CitizenIdSorter threads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Method sets maximal number of runs which are merged at once, default is 128
+     * @param fanIn number of runs, at least 2
+     * @return this sorter
+     * @throws IllegalArgumentException if fan-in is less than 2
+     */
+    public CitizenIdSorter fanIn(int fanIn) {
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("Merge fan-in must be at least 2: " + fanIn);
+        }
+        this.fanIn = fanIn;
+        return this;
+    }
+
+    /**
+     * Method sets format of output file, default is text
+     * @param format format of output file
+     * @return this sorter
+     * @throws IllegalArgumentException if format is null
+     */
+    public CitizenIdSorter format(Format format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format can not be empty");
+        }
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * Method sets if citizen ids with wrong control digit should be skipped, by default all well formed citizen ids
+     * are sorted
+     * @param validOnly true to skip citizen ids with wrong control digit
+     * @return this sorter
+     */
+    public CitizenIdSorter validOnly(boolean validOnly) {
+        this.validOnly = validOnly;
+        return this;
+    }
+
+    /**
+     * Method sets listener of progress
+     * @param listener listener or null
+     * @return this sorter
+     */
+    public CitizenIdSorter listener(ProgressListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Method sorts citizen ids of input files, removes duplicates and writes them into output file. Lines which do not
+     * contain well formed citizen id are skipped. Temporary files are deleted before the method returns.
+     * @param inputs text files with one citizen id per line
+     * @param output output file, existing file is overwritten
+     * @return totals of sort
+     * @throws IOException if files can not be read or written
+     * @throws IllegalArgumentException if there are no input files
+     */
+    public CitizenIdSortReport sort(List<File> inputs, File output) throws IOException {
+        if (inputs == null || inputs.isEmpty()) {
+            throw new IllegalArgumentException("Input files can not be empty");
+        }
+        CitizenIdSortReport report = new CitizenIdSortReport();
+        List<File> temporary = new ArrayList<File>();
+        try {
+            long started = System.nanoTime();
+            List<File> runs = new ArrayList<File>();
+            long spilled = spillRuns(inputs, runs, temporary, report);
+            long sorted = System.nanoTime();
+            int passes = 1;
+            Merge merge = new Merge(spilled);
+            while (runs.size() > fanIn) {
+                List<File> merged = new ArrayList<File>();
+                for (int from = 0; from < runs.size(); from += fanIn) {
+                    List<File> group = runs.subList(from, Math.min(from + fanIn, runs.size()));
+                    File run = createRun(temporary);
+                    merged.add(run);
+                    merge.run(group, new Output(run, Format.RECORDS));
+                    delete(group);
+                }
+                runs = merged;
+                merge.restart(spilled);
+                passes++;
+            }
+            long written = merge.run(runs, new Output(output, format));
+            report.finish(written, passes, sorted - started, System.nanoTime() - sorted);
+            return report;
+        } finally {
+            synchronized (temporary) {
+                delete(temporary);
+            }
+        }
+    }
+
+    /**
+     * Method parses inputs into sorted runs. Tasks are cancelled and awaited before the method returns, so no task
+     * creates temporary files after that even if another task failed.
+     */
+    private long spillRuns(List<File> inputs, List<File> runs, List<File> temporary, CitizenIdSortReport report)
+            throws IOException {
+        List<PackedIdSpliterator> parts = new ArrayList<PackedIdSpliterator>();
+        long estimated = 0;
+        for (File input : inputs) {
+            PackedIdSpliterator source = CitizenIdStreams.of(input);
+            estimated += source.estimateSize();
+            parts.addAll(CitizenIdStreams.split(source, threads));
+        }
+        int runLength = (int) Math.max(MIN_RUN_LENGTH, Math.min(Integer.MAX_VALUE - 8, memoryBudget / 8 / threads));
+        Spill spill = new Spill(runs, temporary, report, estimated);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (PackedIdSpliterator part : parts) {
+                futures.add(executor.submit(new RunTask(part, runLength, spill)));
+            }
+            for (Future<Void> future : futures) {
+                await(future);
+            }
+        } finally {
+            spill.cancelled = true;
+            executor.shutdownNow();
+            awaitTermination(executor);
+        }
+        return spill.values;
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(Future<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Sort was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Method creates temporary file and registers it for deletion, list of temporary files is also the lock which
+     * guards it
+     */
+    private File createRun(List<File> temporary) throws IOException {
+        synchronized (temporary) {
+            File file = File.createTempFile("citizen-ids", ".run", tempDirectory);
+            temporary.add(file);
+            return file;
+        }
+    }
+
+    private static void delete(List<File> files) {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Shared state of sort phase, runs are registered by worker threads
+     */
+    private final class Spill {
+        private final List<File> runs;
+        private final List<File> temporary;
+        private final CitizenIdSortReport report;
+        private final long estimated;
+        private volatile boolean cancelled;
+        private long lines;
+        private long values;
+
+        private Spill(List<File> runs, List<File> temporary, CitizenIdSortReport report, long estimated) {
+            this.runs = runs;
+            this.temporary = temporary;
+            this.report = report;
+            this.estimated = estimated;
+        }
+
+        synchronized void add(File run, int count, long lines, long malformed, long invalid) {
+            if (run != null) {
+                runs.add(run);
+                report.addRun((long) count * CitizenIdCodec.RECORD_SIZE);
+                values += count;
+            }
+            report.addLines(lines, malformed, invalid);
+            this.lines += lines;
+            if (listener != null) {
+                listener.progress(Phase.SORT, this.lines, Math.max(this.lines, estimated));
+            }
+        }
+    }
+
+    /**
+     * Task parses part of input into runs, IOException of spill is passed through consumer as unchecked exception.
+     * Task stops without spilling its last run when sort is cancelled or its thread is interrupted.
+     */
+    private final class RunTask implements Callable<Void>, PackedIdConsumer {
+        private final PackedIdSpliterator part;
+        private final int runLength;
+        private final Spill spill;
+        private long[] run;
+        private int count;
+        private long lines;
+        private long malformed;
+        private long invalid;
+
+        private RunTask(PackedIdSpliterator part, int runLength, Spill spill) {
+            this.part = part;
+            this.runLength = runLength;
+            this.spill = spill;
+        }
+
+        public Void call() throws IOException {
+            try {
+                part.forEachRemaining(this);
+            } catch (SpillException e) {
+                throw e.getCause();
+            } catch (CancellationException e) {
+                return null;
+            }
+            flush();
+            return null;
+        }
+
+        public void accept(long element) {
+            if ((++lines & CANCEL_CHECK_MASK) == 0
+                    && (spill.cancelled || Thread.currentThread().isInterrupted())) {
+                throw new CancellationException("Sort was cancelled");
+            }
+            if (element < 0) {
+                malformed++;
+                return;
+            }
+            if (validOnly && !PackedCitizenId.isValid(element)) {
+                invalid++;
+                return;
+            }
+            if (run == null) {
+                run = new long[runLength];
+            }
+            run[count++] = element;
+            if (count == run.length) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new SpillException(e);
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            File file = null;
+            int unique = 0;
+            if (count > 0) {
+                Arrays.sort(run, 0, count);
+                for (int i = 0; i < count; i++) {
+                    if (unique == 0 || run[unique - 1] != run[i]) {
+                        run[unique++] = run[i];
+                    }
+                }
+                file = createRun(spill.temporary);
+                Output output = new Output(file, Format.RECORDS);
+                try {
+                    for (int i = 0; i < unique; i++) {
+                        output.write(run[i]);
+                    }
+                } finally {
+                    output.close();
+                }
+                count = 0;
+            }
+            spill.add(file, unique, lines, malformed, invalid);
+            lines = 0;
+            malformed = 0;
+            invalid = 0;
+        }
+    }
+
+    private static final class SpillException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private SpillException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * K-way merge of runs with min heap of run readers
+     */
+    private final class Merge {
+        private long total;
+        private long done;
+
+        private Merge(long total) {
+            this.total = total;
+        }
+
+        void restart(long total) {
+            this.total = total;
+            this.done = 0;
+        }
+
+        long run(List<File> runs, Output output) throws IOException {
+            int bufferSize = (int) Math.max(MIN_READ_BUFFER_SIZE,
+                    Math.min(IO_BUFFER_SIZE * 16, memoryBudget / (runs.size() + 1)));
+            bufferSize -= bufferSize % CitizenIdCodec.RECORD_SIZE;
+            RunReader[] heap = new RunReader[runs.size()];
+            int size = 0;
+            long written = 0;
+            try {
+                for (File run : runs) {
+                    RunReader reader = new RunReader(run, bufferSize);
+                    heap[size++] = reader;
+                    if (!reader.next()) {
+                        heap[--size] = null;
+                        reader.close();
+                    }
+                }
+                for (int i = size / 2 - 1; i >= 0; i--) {
+                    siftDown(heap, size, i);
+                }
+                long last = -1;
+                while (size > 0) {
+                    RunReader top = heap[0];
+                    if (top.current != last) {
+                        output.write(top.current);
+                        last = top.current;
+                        written++;
+                    }
+                    if (top.next()) {
+                        siftDown(heap, size, 0);
+                    } else {
+                        top.close();
+                        heap[0] = heap[--size];
+                        heap[size] = null;
+                        siftDown(heap, size, 0);
+                    }
+                    if (++done % MERGE_REPORT_INTERVAL == 0 && listener != null) {
+                        listener.progress(Phase.MERGE, done, total);
+                    }
+                }
+                if (listener != null) {
+                    listener.progress(Phase.MERGE, done, total);
+                }
+            } finally {
+                for (int i = 0; i < size; i++) {
+                    heap[i].close();
+                }
+                output.close();
+            }
+            return written;
+        }
+    }
+
+    private static void siftDown(RunReader[] heap, int size, int index) {
+        if (size == 0) {
+            return;
+        }
+        RunReader reader = heap[index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].current < heap[child].current) {
+                child++;
+            }
+            if (heap[child].current >= reader.current) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = reader;
+    }
+
+    private static final class RunReader {
+        private final FileInputStream in;
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long current;
+
+        private RunReader(File file, int bufferSize) throws IOException {
+            this.in = new FileInputStream(file);
+            this.channel = in.getChannel();
+            this.buffer = ByteBuffer.allocate(bufferSize);
+            buffer.flip();
+        }
+
+        boolean next() throws IOException {
+            if (buffer.remaining() < CitizenIdCodec.RECORD_SIZE) {
+                buffer.compact();
+                while (buffer.position() < CitizenIdCodec.RECORD_SIZE && channel.read(buffer) >= 0) {
+                    if (!buffer.hasRemaining()) {
+                        break;
+                    }
+                }
+                buffer.flip();
+                if (buffer.remaining() < CitizenIdCodec.RECORD_SIZE) {
+                    return false;
+                }
+            }
+            current = CitizenIdCodec.readPacked(buffer);
+            return true;
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // run is only read, nothing is lost
+            }
+        }
+    }
+
+    /**
+     * Buffered writer of sorted citizen ids in one of formats
+     */
+    private static final class Output {
+        private final FileOutputStream out;
+        private final FileChannel channel;
+        private final Format format;
+        private final ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+        private final long[] block;
+        private int blockCount;
+
+        private Output(File file, Format format) throws IOException {
+            this.out = new FileOutputStream(file);
+            this.channel = out.getChannel();
+            this.format = format;
+            this.block = format == Format.BLOCKS ? new long[BLOCK_LENGTH] : null;
+        }
+
+        void write(long packed) throws IOException {
+            switch (format) {
+                case TEXT:
+                    ensureRemaining(CitizenId.LENGTH + 1);
+                    int position = buffer.position();
+                    for (int i = CitizenId.LENGTH - 1; i >= 0; i--) {
+                        buffer.put(position + i, (byte) ('0' + packed % 10));
+                        packed /= 10;
+                    }
+                    buffer.position(position + CitizenId.LENGTH);
+                    buffer.put((byte) '\n');
+                    break;
+                case RECORDS:
+                    ensureRemaining(CitizenIdCodec.RECORD_SIZE);
+                    CitizenIdCodec.write(buffer, packed);
+                    break;
+                default:
+                    block[blockCount++] = packed;
+                    if (blockCount == BLOCK_LENGTH) {
+                        writeBlock();
+                    }
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            ensureRemaining(CitizenIdCodec.blockSize(block, 0, blockCount));
+            CitizenIdCodec.writeBlock(buffer, block, 0, blockCount);
+            blockCount = 0;
+        }
+
+        private void ensureRemaining(int size) throws IOException {
+            if (buffer.remaining() < size) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void close() throws IOException {
+            try {
+                if (blockCount > 0) {
+                    writeBlock();
+                }
+                flush();
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Command line entry point which sorts and deduplicates files and prints totals
+     * @param args options and files
+     * @throws IOException if files can not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        CitizenIdSorter sorter = new CitizenIdSorter();
+        File output = null;
+        List<File> inputs = new ArrayList<File>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--output")) {
+                    output = new File(optionValue(args, ++i));
+                } else if (arg.equals("--memory")) {
+                    sorter.memoryBudget(Long.parseLong(optionValue(args, ++i)));
+                } else if (arg.equals("--temp")) {
+                    sorter.tempDirectory(new File(optionValue(args, ++i)));
+                } else if (arg.equals("--threads")) {
+                    sorter.threads(Integer.parseInt(optionValue(args, ++i)));
+                } else if (arg.equals("--fan-in")) {
+                    sorter.fanIn(Integer.parseInt(optionValue(args, ++i)));
+                } else if (arg.equals("--format")) {
+                    sorter.format(Format.valueOf(optionValue(args, ++i).toUpperCase()));
+                } else if (arg.equals("--valid-only")) {
+                    sorter.validOnly(true);
+                } else if (arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                } else {
+                    inputs.add(new File(arg));
+                }
+            }
+            if (output == null) {
+                throw new IllegalArgumentException("No output file");
+            }
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException("No files to sort");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: CitizenIdSorter --output FILE [--format text|records|blocks] [--valid-only]"
+                    + " [--memory BYTES] [--temp DIR] [--threads N] [--fan-in N] FILE...");
+            System.exit(2);
+            return;
+        }
+        sorter.listener(new ProgressListener() {
+            private Phase lastPhase;
+            private long lastPercent = -1;
+
+            public void progress(Phase phase, long done, long total) {
+                long percent = total == 0 ? 100 : done * 100 / total;
+                if (phase != lastPhase || percent != lastPercent) {
+                    System.err.println(phase.name().toLowerCase() + ": " + percent + "%");
+                    lastPhase = phase;
+                    lastPercent = percent;
+                }
+            }
+        });
+        CitizenIdSortReport report = sorter.sort(inputs, output);
+        System.out.println("output: " + output);
+        System.out.print(report);
+    }
+
+    private static String optionValue(String[] args, int index) {
+        if (index >= args.length || args[index].length() == 0) {
+            throw new IllegalArgumentException("Option " + args[index - 1] + " requires value");
+        }
+        return args[index];
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.Arrays;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class accumulates validation statistics of citizen ids: count of every {@link CitizenIdStatus} and number of valid
+ * physical and juridical citizen ids. Counters are primitive, instances are not thread safe: every task accumulates
+ * its own statistics and results are merged by {@link #combine(CitizenIdStatistics)}. On Java 8 the methods fit
+ * LongStream.collect(CitizenIdStatistics::new, CitizenIdStatistics::accept, CitizenIdStatistics::combine).
+ */
+public final class CitizenIdStatistics implements PackedIdConsumer {
+
+    private final long[] statusCounts = new long[CitizenIdStatus.values().length];
+    private long physical;
+    private long juridical;
+
+    /**
+     * Method adds element of {@link CitizenIdStreams} source, it is packed citizen id or code of malformed value
+     * @param element element of source, see {@link CitizenIdStreams#statusOf(long)}
+     */
+    public void accept(long element) {
+        CitizenIdStatus status = CitizenIdStreams.statusOf(element);
+        add(status, status == CitizenIdStatus.VALID ? PackedCitizenId.typeOf(element) : null);
+    }
+
+    /**
+     * Method adds text value of citizen id
+     * @param value text value
+     */
+    public void accept(CharSequence value) {
+        CitizenIdStatus status = CitizenId.validate(value);
+        add(status, status == CitizenIdStatus.VALID ? CitizenId.verifyType(value, 0) : null);
+    }
+
+    /**
+     * Method counts value which is already validated, type is counted only for valid citizen ids
+     */
+    void add(CitizenIdStatus status, CitizenType type) {
+        statusCounts[status.ordinal()]++;
+        if (status == CitizenIdStatus.VALID) {
+            if (type == CitizenType.PHYSICAL) {
+                physical++;
+            } else {
+                juridical++;
+            }
+        }
+    }
+
+    /**
+     * Method adds counters of other statistics to this one
+     * @param other statistics which is merged, it is not changed
+     * @return this statistics
+     */
+    public CitizenIdStatistics combine(CitizenIdStatistics other) {
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] += other.statusCounts[i];
+        }
+        physical += other.physical;
+        juridical += other.juridical;
+        return this;
+    }
+
+    /**
+     * Method return number of accepted values
+     * @return number of values
+     */
+    public long getTotal() {
+        long total = 0;
+        for (long count : statusCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Method return number of valid citizen ids
+     * @return number of values with status {@link CitizenIdStatus#VALID}
+     */
+    public long getValid() {
+        return statusCounts[CitizenIdStatus.VALID.ordinal()];
+    }
+
+    /**
+     * Method return number of rejected values
+     * @return number of values with any status except {@link CitizenIdStatus#VALID}
+     */
+    public long getInvalid() {
+        return getTotal() - getValid();
+    }
+
+    /**
+     * Method return number of values with status
+     * @param status status of validation
+     * @return number of values
+     */
+    public long getCount(CitizenIdStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /**
+     * Method return number of valid citizen ids of physical subjects
+     * @return number of citizen ids
+     */
+    public long getPhysical() {
+        return physical;
+    }
+
+    /**
+     * Method return number of valid citizen ids of juridical subjects
+     * @return number of citizen ids
+     */
+    public long getJuridical() {
+        return juridical;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CitizenIdStatistics that = (CitizenIdStatistics) o;
+
+        return physical == that.physical && juridical == that.juridical
+                && Arrays.equals(statusCounts, that.statusCounts);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(statusCounts);
+        result = 31 * result + (int) (physical ^ (physical >>> 32));
+        result = 31 * result + (int) (juridical ^ (juridical >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("total=").append(getTotal());
+        for (CitizenIdStatus status : CitizenIdStatus.values()) {
+            builder.append(", ").append(status).append('=').append(statusCounts[status.ordinal()]);
+        }
+        builder.append(", physical=").append(physical).append(", juridical=").append(juridical);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Enumeration represents outcome of citizen id check. Every value except {@link #VALID} describes the reason why
+ * citizen id was rejected.
+ */
+public enum CitizenIdStatus {
+    VALID("Citizen value is valid"),
+    EMPTY("Citizen value can not be a empty"),
+    WRONG_LENGTH("Citizen value must have length 12 symbols"),
+    NON_DIGIT("Citizen value must have 12 digital symbols"),
+    BAD_CHECKSUM("Citizen value has wrong control digit");
+
+    final String message;
+
+    CitizenIdStatus(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Method checks if citizen id has correct format, i.e. consists of 12 digits. Checksum is not taken into account.
+     * @return true if status is {@link #VALID} or {@link #BAD_CHECKSUM}
+     */
+    public boolean isWellFormed() {
+        return this == VALID || this == BAD_CHECKSUM;
+    }
+}
@@ -0,0 +1,504 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class creates splittable sources of citizen ids and processes them in parallel. Elements of sources are packed
+ * citizen ids, values which can not be packed are passed as negative codes, so statistics keeps reason of rejection:
+ * <ul>
+ *     <li>-2 for empty value</li>
+ *     <li>-3 for value with wrong length</li>
+ *     <li>any other negative number, including {@link PackedCitizenId#INVALID}, for value with non digit symbols</li>
+ * </ul>
+ */
+public final class CitizenIdStreams {
+
+    static final long EMPTY_ELEMENT = -2L;
+    static final long WRONG_LENGTH_ELEMENT = -3L;
+
+    private static final int MIN_ARRAY_SPLIT = 1024;
+    private static final int MIN_FILE_SPLIT = 1 << 16;
+    private static final int MAX_WINDOW = 1 << 30;
+    private static final int LINE_LENGTH = CitizenId.LENGTH + 1;
+
+    private CitizenIdStreams() {
+    }
+
+    /**
+     * Method return status of element of source
+     * @param element packed citizen id or code of malformed value
+     * @return status of validation
+     */
+    public static CitizenIdStatus statusOf(long element) {
+        if (element >= 0) {
+            if (element > PackedCitizenId.MAX_VALUE) {
+                return CitizenIdStatus.WRONG_LENGTH;
+            }
+            return Checksum.isValid(element) ? CitizenIdStatus.VALID : CitizenIdStatus.BAD_CHECKSUM;
+        }
+        if (element == EMPTY_ELEMENT) {
+            return CitizenIdStatus.EMPTY;
+        }
+        if (element == WRONG_LENGTH_ELEMENT) {
+            return CitizenIdStatus.WRONG_LENGTH;
+        }
+        return CitizenIdStatus.NON_DIGIT;
+    }
+
+    static long malformed(CitizenIdStatus status) {
+        if (status == CitizenIdStatus.EMPTY) {
+            return EMPTY_ELEMENT;
+        }
+        if (status == CitizenIdStatus.WRONG_LENGTH) {
+            return WRONG_LENGTH_ELEMENT;
+        }
+        return PackedCitizenId.INVALID;
+    }
+
+    /**
+     * Method creates source over array of packed citizen ids, array is not copied
+     * @param values packed citizen ids
+     * @return splittable source
+     */
+    public static PackedIdSpliterator of(long[] values) {
+        return of(values, 0, values.length);
+    }
+
+    /**
+     * Method creates source over part of array of packed citizen ids, array is not copied
+     * @param values packed citizen ids
+     * @param from first index, inclusive
+     * @param to last index, exclusive
+     * @return splittable source
+     * @throws IndexOutOfBoundsException if range is outside of array
+     */
+    public static PackedIdSpliterator of(long[] values, int from, int to) {
+        checkRange(values.length, from, to);
+        return new LongArraySpliterator(values, from, to);
+    }
+
+    /**
+     * Method creates source over array of text values, they are packed during traversal
+     * @param values text values of citizen ids, null elements are empty values
+     * @return splittable source
+     */
+    public static PackedIdSpliterator of(CharSequence[] values) {
+        return of(values, 0, values.length);
+    }
+
+    /**
+     * Method creates source over part of array of text values, they are packed during traversal
+     * @param values text values of citizen ids, null elements are empty values
+     * @param from first index, inclusive
+     * @param to last index, exclusive
+     * @return splittable source
+     * @throws IndexOutOfBoundsException if range is outside of array
+     */
+    public static PackedIdSpliterator of(CharSequence[] values, int from, int to) {
+        checkRange(values.length, from, to);
+        return new TextArraySpliterator(values, from, to);
+    }
+
+    /**
+     * Method creates source over text file with one citizen id per line. File is mapped into memory, source is split
+     * on line boundaries and its size is estimated from number of bytes.
+     * @param file text file, lines are separated by \n or \r\n
+     * @return splittable source
+     * @throws IOException if file can not be mapped
+     */
+    public static PackedIdSpliterator of(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long length = channel.size();
+            List<ByteBuffer> windows = new ArrayList<ByteBuffer>();
+            List<Long> starts = new ArrayList<Long>();
+            long start = 0;
+            while (start < length) {
+                long end = length - start <= MAX_WINDOW
+                        ? length : BulkValidator.nextLineStart(channel, start + MAX_WINDOW - LINE_LENGTH, length);
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException("Line is too long at offset " + start);
+                }
+                windows.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                starts.add(start);
+                start = end;
+            }
+            starts.add(length);
+            long[] offsets = new long[starts.size()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = starts.get(i);
+            }
+            return new FileSpliterator(windows.toArray(new ByteBuffer[windows.size()]), offsets, 0, length);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Method splits source into at least given number of parts if it is possible, source is split into halves while
+     * it has fewer parts
+     * @param source source which is split, after the call it is the last part
+     * @param parts desired number of parts
+     * @return parts in encounter order
+     * @throws IllegalArgumentException if number of parts is not positive
+     */
+    public static List<PackedIdSpliterator> split(PackedIdSpliterator source, int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("Number of parts must be positive: " + parts);
+        }
+        List<PackedIdSpliterator> result = new ArrayList<PackedIdSpliterator>();
+        result.add(source);
+        boolean split = true;
+        while (split && result.size() < parts) {
+            split = false;
+            for (int i = 0; i < result.size() && result.size() < parts; i++) {
+                PackedIdSpliterator prefix = result.get(i).trySplit();
+                if (prefix != null) {
+                    result.add(i, prefix);
+                    i++;
+                    split = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Method collects statistics of source in calling thread
+     * @param source source of citizen ids
+     * @return statistics
+     */
+    public static CitizenIdStatistics statistics(PackedIdSpliterator source) {
+        CitizenIdStatistics statistics = new CitizenIdStatistics();
+        source.forEachRemaining(statistics);
+        return statistics;
+    }
+
+    /**
+     * Method splits source into parts, collects statistics of every part by executor and merges results
+     * @param source source of citizen ids
+     * @param executor executor which runs parts
+     * @param parts desired number of parts, for example few times more than number of threads
+     * @return statistics
+     * @throws InterruptedException if calling thread was interrupted while waiting for parts
+     * @throws IllegalArgumentException if number of parts is not positive
+     */
+    public static CitizenIdStatistics statistics(PackedIdSpliterator source, ExecutorService executor, int parts)
+            throws InterruptedException {
+        CitizenIdStatistics result = new CitizenIdStatistics();
+        for (CitizenIdStatistics part : run(source, executor, parts, new Accumulation<CitizenIdStatistics>() {
+            public CitizenIdStatistics create() {
+                return new CitizenIdStatistics();
+            }
+        })) {
+            result.combine(part);
+        }
+        return result;
+    }
+
+    /**
+     * Method counts citizen ids of source by attributes in calling thread
+     * @param source source of citizen ids
+     * @return cube of counters
+     */
+    public static CitizenIdCube cube(PackedIdSpliterator source) {
+        CitizenIdCube cube = new CitizenIdCube();
+        source.forEachRemaining(cube);
+        return cube;
+    }
+
+    /**
+     * Method splits source into parts, counts citizen ids of every part into its own cube by executor and merges
+     * results
+     * @param source source of citizen ids
+     * @param executor executor which runs parts
+     * @param parts desired number of parts, for example few times more than number of threads
+     * @return cube of counters
+     * @throws InterruptedException if calling thread was interrupted while waiting for parts
+     * @throws IllegalArgumentException if number of parts is not positive
+     */
+    public static CitizenIdCube cube(PackedIdSpliterator source, ExecutorService executor, int parts)
+            throws InterruptedException {
+        CitizenIdCube result = new CitizenIdCube();
+        for (CitizenIdCube part : run(source, executor, parts, new Accumulation<CitizenIdCube>() {
+            public CitizenIdCube create() {
+                return new CitizenIdCube();
+            }
+        })) {
+            result.combine(part);
+        }
+        return result;
+    }
+
+    /**
+     * Factory of consumers which accumulate results of one part
+     */
+    private interface Accumulation<T extends PackedIdConsumer> {
+        T create();
+    }
+
+    private static <T extends PackedIdConsumer> List<T> run(PackedIdSpliterator source, ExecutorService executor,
+                                                            int parts, final Accumulation<T> accumulation)
+            throws InterruptedException {
+        List<Future<T>> futures = new ArrayList<Future<T>>();
+        for (final PackedIdSpliterator part : split(source, parts)) {
+            futures.add(executor.submit(new Callable<T>() {
+                public T call() {
+                    T result = accumulation.create();
+                    part.forEachRemaining(result);
+                    return result;
+                }
+            }));
+        }
+        List<T> results = new ArrayList<T>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || from > to || to > length) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") is outside of array with length "
+                    + length);
+        }
+    }
+
+    private static final class LongArraySpliterator implements PackedIdSpliterator {
+        private final long[] values;
+        private int index;
+        private final int end;
+
+        private LongArraySpliterator(long[] values, int index, int end) {
+            this.values = values;
+            this.index = index;
+            this.end = end;
+        }
+
+        public boolean tryAdvance(PackedIdConsumer action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(values[index++]);
+            return true;
+        }
+
+        public void forEachRemaining(PackedIdConsumer action) {
+            int current = index;
+            index = end;
+            for (; current < end; current++) {
+                action.accept(values[current]);
+            }
+        }
+
+        public PackedIdSpliterator trySplit() {
+            int size = end - index;
+            if (size < MIN_ARRAY_SPLIT) {
+                return null;
+            }
+            int middle = index + size / 2;
+            PackedIdSpliterator prefix = new LongArraySpliterator(values, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return end - index;
+        }
+    }
+
+    private static final class TextArraySpliterator implements PackedIdSpliterator {
+        private final CharSequence[] values;
+        private int index;
+        private final int end;
+
+        private TextArraySpliterator(CharSequence[] values, int index, int end) {
+            this.values = values;
+            this.index = index;
+            this.end = end;
+        }
+
+        public boolean tryAdvance(PackedIdConsumer action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(pack(values[index++]));
+            return true;
+        }
+
+        public void forEachRemaining(PackedIdConsumer action) {
+            int current = index;
+            index = end;
+            for (; current < end; current++) {
+                action.accept(pack(values[current]));
+            }
+        }
+
+        public PackedIdSpliterator trySplit() {
+            int size = end - index;
+            if (size < MIN_ARRAY_SPLIT) {
+                return null;
+            }
+            int middle = index + size / 2;
+            PackedIdSpliterator prefix = new TextArraySpliterator(values, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return end - index;
+        }
+
+        private static long pack(CharSequence value) {
+            CitizenIdStatus status = CitizenId.checkFormat(value);
+            return status.isWellFormed() ? PackedCitizenId.packDigits(value, 0) : malformed(status);
+        }
+    }
+
+    /**
+     * Source over mapped windows of text file. Windows and bounds of every spliterator start at beginning of line,
+     * so lines never cross windows.
+     */
+    private static final class FileSpliterator implements PackedIdSpliterator {
+        private final ByteBuffer[] windows;
+        private final long[] offsets;
+        private long position;
+        private final long end;
+        private int window;
+
+        private FileSpliterator(ByteBuffer[] windows, long[] offsets, long position, long end) {
+            this.windows = windows;
+            this.offsets = offsets;
+            this.position = position;
+            this.end = end;
+            this.window = windowOf(position);
+        }
+
+        public boolean tryAdvance(PackedIdConsumer action) {
+            if (position >= end) {
+                return false;
+            }
+            while (position >= offsets[window + 1]) {
+                window++;
+            }
+            ByteBuffer buffer = windows[window];
+            int lineStart = (int) (position - offsets[window]);
+            int lineEnd = lineEnd(buffer, lineStart, buffer.limit());
+            position = offsets[window] + Math.min(lineEnd + 1, buffer.limit());
+            action.accept(element(buffer, lineStart, lineEnd));
+            return true;
+        }
+
+        public void forEachRemaining(PackedIdConsumer action) {
+            while (position < end) {
+                while (position >= offsets[window + 1]) {
+                    window++;
+                }
+                ByteBuffer buffer = windows[window];
+                int limit = (int) (Math.min(end, offsets[window + 1]) - offsets[window]);
+                int lineStart = (int) (position - offsets[window]);
+                position = offsets[window] + limit;
+                while (lineStart < limit) {
+                    int lineEnd = lineEnd(buffer, lineStart, limit);
+                    action.accept(element(buffer, lineStart, lineEnd));
+                    lineStart = lineEnd + 1;
+                }
+            }
+        }
+
+        public PackedIdSpliterator trySplit() {
+            if (end - position < MIN_FILE_SPLIT) {
+                return null;
+            }
+            long middle = position + (end - position) / 2;
+            int middleWindow = windowOf(middle);
+            if (middle != offsets[middleWindow]) {
+                ByteBuffer buffer = windows[middleWindow];
+                int lineEnd = lineEnd(buffer, (int) (middle - offsets[middleWindow]), buffer.limit());
+                middle = offsets[middleWindow] + Math.min(lineEnd + 1, buffer.limit());
+            }
+            if (middle >= end) {
+                return null;
+            }
+            PackedIdSpliterator prefix = new FileSpliterator(windows, offsets, position, middle);
+            position = middle;
+            window = middleWindow;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return (end - position + LINE_LENGTH - 1) / LINE_LENGTH;
+        }
+
+        private int windowOf(long offset) {
+            int result = 0;
+            while (result < windows.length - 1 && offsets[result + 1] <= offset) {
+                result++;
+            }
+            return result;
+        }
+
+        private static int lineEnd(ByteBuffer buffer, int from, int limit) {
+            int lineEnd = from;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            return lineEnd;
+        }
+
+        private static long element(ByteBuffer buffer, int lineStart, int lineEnd) {
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            return CitizenIdBytes.parseField(buffer, lineStart, contentEnd);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.BitSet;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Stateless validator of citizen ids. Instances are obtained from {@link Validators} and are shared between threads.
+ */
+public interface CitizenIdValidator {
+
+    /**
+     * Method checks validity of citizen id
+     * @param citizenId citizen id
+     * @return true if citizen id is accepted by validator and its control digit is correct
+     * @throws IllegalArgumentException if citizen id is null
+     */
+    boolean isValid(CitizenId citizenId);
+
+    /**
+     * Method checks validity of text value of citizen id
+     * @param value text value
+     * @return true if value is well formed citizen id accepted by validator and its control digit is correct
+     */
+    boolean isValid(CharSequence value);
+
+    /**
+     * Method checks validity of packed citizen id
+     * @param packed packed citizen id, see {@link PackedCitizenId}
+     * @return true if value is packed citizen id accepted by validator and its control digit is correct
+     */
+    boolean isValid(long packed);
+
+    /**
+     * Method checks all values and sets bit with index of every valid value, bits of invalid values are cleared
+     * @param values text values, null elements are invalid
+     * @param out bitset which receives result
+     * @return number of valid values
+     * @throws IllegalArgumentException if values or out are null
+     */
+    int validateAll(CharSequence[] values, BitSet out);
+
+    /**
+     * Method checks all packed values and sets bit with index of every valid value, bits of invalid values are cleared
+     * @param values packed citizen ids
+     * @param out bitset which receives result
+     * @return number of valid values
+     * @throws IllegalArgumentException if values or out are null
+     */
+    int validateAll(long[] values, BitSet out);
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class contains static helpers which work with shared state of the library
+ */
+public final class CitizenIds {
+
+    /**
+     * Name of system property which sets maximal number of citizen ids in shared cache, default is 262144
+     */
+    public static final String CACHE_SIZE_PROPERTY = "net.kazakhstan.citizen.id.cacheSize";
+
+    private static final int DEFAULT_CACHE_SIZE = 1 << 18;
+
+    static volatile CitizenIdMetrics metrics;
+
+    private CitizenIds() {
+    }
+
+    private static final class SharedCache {
+        private static final CitizenIdCache INSTANCE = new CitizenIdCache(
+                Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE));
+    }
+
+    /**
+     * Method return canonical instance of citizen id from shared cache. Cache is created on the first call and its
+     * size is taken from system property {@link #CACHE_SIZE_PROPERTY}.
+     * @param value citizen id
+     * @return shared resolved citizen id or null if value is not accepted by {@link CitizenId#CitizenId(String)}
+     */
+    public static ResolvedCitizenId intern(CharSequence value) {
+        return SharedCache.INSTANCE.get(value);
+    }
+
+    /**
+     * Method return canonical instance of packed citizen id from shared cache
+     * @param packed packed citizen id
+     * @return shared resolved citizen id
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static ResolvedCitizenId intern(long packed) {
+        return SharedCache.INSTANCE.get(packed);
+    }
+
+    /**
+     * Method return shared cache which is used by {@link #intern(CharSequence)}, for example to read its counters
+     * @return shared cache
+     */
+    public static CitizenIdCache sharedCache() {
+        return SharedCache.INSTANCE;
+    }
+
+    /**
+     * Method installs metrics which receive outcomes of parsing, validation and decoding
+     * @param citizenIdMetrics metrics or null to switch metrics off
+     */
+    public static void setMetrics(CitizenIdMetrics citizenIdMetrics) {
+        metrics = citizenIdMetrics;
+    }
+
+    /**
+     * Method return installed metrics
+     * @return metrics or null if metrics are switched off
+     */
+    public static CitizenIdMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Method starts timing of operation
+     * @return current time or 0 if operation is not sampled
+     */
+    static long start(CitizenIdMetrics metrics) {
+        return metrics.sample() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Method finishes timing of operation
+     * @return duration of operation or -1 if it was not sampled
+     */
+    static long elapsed(long started) {
+        return started == 0 ? -1 : System.nanoTime() - started;
+    }
+}
@@ -0,0 +1,626 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.Arrays;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Immutable sorted set of packed citizen ids which is stored with Elias-Fano encoding. Every value is split into
+ * {@code L} low bits, which are stored as a dense bit array, and high part, which is stored in unary code as a bit
+ * vector where i-th value sets bit {@code high + i}. {@code L} is chosen from ratio of universe of packed citizen ids
+ * to number of values, so set takes about {@code 2 + log2(10^12 / size)} bits per citizen id, less than two bytes for
+ * a national registry. Positions of every 256th one and zero of the high bit vector are sampled, so {@link #select(int)}
+ * and {@link #rank(long)} scan only a few words. Set may be read by many threads.
+ */
+public final class CompressedCitizenIdSet implements PackedIdLookup {
+
+    private static final int SAMPLE_SHIFT = 8;
+    private static final int MIN_SPLIT = 1024;
+    private static final long END = Long.MAX_VALUE;
+
+    private static final int UNION = 0;
+    private static final int INTERSECTION = 1;
+    private static final int DIFFERENCE = 2;
+
+    private static final CompressedCitizenIdSet EMPTY = new Encoder(0).build();
+
+    private final int size;
+    private final int lowBits;
+    private final long lowMask;
+    private final long[] lows;
+    private final long[] highs;
+    private final long[] oneSamples;
+    private final long[] zeroSamples;
+
+    private CompressedCitizenIdSet(int size, int lowBits, long[] lows, long[] highs, long[] oneSamples,
+                                   long[] zeroSamples) {
+        this.size = size;
+        this.lowBits = lowBits;
+        this.lowMask = (1L << lowBits) - 1;
+        this.lows = lows;
+        this.highs = highs;
+        this.oneSamples = oneSamples;
+        this.zeroSamples = zeroSamples;
+    }
+
+    /**
+     * Method creates builder of set
+     * @return new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Method return empty set
+     * @return set without citizen ids
+     */
+    public static CompressedCitizenIdSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Method checks if packed citizen id belongs to set
+     * @param packed packed citizen id
+     * @return true if set contains citizen id
+     */
+    public boolean contains(long packed) {
+        if (packed < 0 || packed > PackedCitizenId.MAX_VALUE || size == 0) {
+            return false;
+        }
+        long high = packed >>> lowBits;
+        long low = packed & lowMask;
+        long position = high == 0 ? 0 : select0(high - 1) + 1;
+        int index = (int) (position - high);
+        while (bit(position)) {
+            long current = low(index);
+            if (current >= low) {
+                return current == low;
+            }
+            position++;
+            index++;
+        }
+        return false;
+    }
+
+    /**
+     * Method checks if citizen id belongs to set
+     * @param value citizen id
+     * @return true if value is citizen id which belongs to set
+     */
+    public boolean contains(CharSequence value) {
+        long packed = PackedCitizenId.tryPack(value);
+        return packed != PackedCitizenId.INVALID && contains(packed);
+    }
+
+    /**
+     * Method checks if citizen id belongs to set
+     * @param citizenId citizen id
+     * @return true if citizen id is not null and belongs to set
+     */
+    public boolean contains(CitizenId citizenId) {
+        return citizenId != null && contains(PackedCitizenId.pack(citizenId));
+    }
+
+    /**
+     * Method return number of citizen ids of set which are less than value
+     * @param packed packed citizen id, values out of range of packed citizen ids are accepted
+     * @return number of smaller citizen ids, it is also index of value in set if set contains it
+     */
+    public int rank(long packed) {
+        if (packed <= 0 || size == 0) {
+            return 0;
+        }
+        if (packed > PackedCitizenId.MAX_VALUE) {
+            return size;
+        }
+        long high = packed >>> lowBits;
+        long low = packed & lowMask;
+        long position = high == 0 ? 0 : select0(high - 1) + 1;
+        int index = (int) (position - high);
+        while (bit(position) && low(index) < low) {
+            position++;
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Method return citizen id by its index in ascending order
+     * @param index index of citizen id
+     * @return packed citizen id
+     * @throws IndexOutOfBoundsException if index is negative or is not less than size of set
+     */
+    public long select(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside of set with size " + size);
+        }
+        return (select1(index) - index) << lowBits | low(index);
+    }
+
+    /**
+     * Method return number of citizen ids
+     * @return size of set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method checks if set is empty
+     * @return true if set does not contain citizen ids
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Method return memory which is taken by encoded citizen ids and samples
+     * @return approximate number of bytes
+     */
+    public long sizeInBytes() {
+        return 8L * (lows.length + highs.length + oneSamples.length + zeroSamples.length);
+    }
+
+    /**
+     * Method return spliterator which passes citizen ids in ascending order and splits by index
+     * @return spliterator of packed citizen ids
+     */
+    public PackedIdSpliterator spliterator() {
+        return new SetSpliterator(0, size);
+    }
+
+    /**
+     * Method passes citizen ids to consumer in ascending order
+     * @param action consumer of packed citizen ids
+     */
+    public void forEach(PackedIdConsumer action) {
+        Cursor cursor = new Cursor(0, size);
+        while (cursor.hasNext()) {
+            action.accept(cursor.next());
+        }
+    }
+
+    /**
+     * Method decodes all citizen ids
+     * @return packed citizen ids in ascending order
+     */
+    public long[] toArray() {
+        long[] values = new long[size];
+        Cursor cursor = new Cursor(0, size);
+        for (int i = 0; i < size; i++) {
+            values[i] = cursor.next();
+        }
+        return values;
+    }
+
+    /**
+     * Method creates set of citizen ids which belong to this or other set
+     * @param other other set
+     * @return union of sets
+     */
+    public CompressedCitizenIdSet union(CompressedCitizenIdSet other) {
+        return combine(other, UNION);
+    }
+
+    /**
+     * Method creates set of citizen ids which belong to both sets
+     * @param other other set
+     * @return intersection of sets
+     */
+    public CompressedCitizenIdSet intersect(CompressedCitizenIdSet other) {
+        return combine(other, INTERSECTION);
+    }
+
+    /**
+     * Method creates set of citizen ids which belong to this set and do not belong to other set, for example citizen
+     * ids which are removed from registry between two snapshots
+     * @param other other set
+     * @return difference of sets
+     */
+    public CompressedCitizenIdSet difference(CompressedCitizenIdSet other) {
+        return combine(other, DIFFERENCE);
+    }
+
+    /**
+     * Method merges sets twice: the first pass counts citizen ids of result, so the second pass encodes them
+     * without intermediate array
+     */
+    private CompressedCitizenIdSet combine(CompressedCitizenIdSet other, int operation) {
+        if (other == null) {
+            throw new IllegalArgumentException("Other set can not be empty");
+        }
+        int count = merge(other, operation, null);
+        Encoder encoder = new Encoder(count);
+        merge(other, operation, encoder);
+        return encoder.build();
+    }
+
+    private int merge(CompressedCitizenIdSet other, int operation, Encoder encoder) {
+        Cursor left = new Cursor(0, size);
+        Cursor right = other.new Cursor(0, other.size);
+        long x = left.hasNext() ? left.next() : END;
+        long y = right.hasNext() ? right.next() : END;
+        long count = 0;
+        while (x != END || y != END) {
+            if (operation == INTERSECTION && (x == END || y == END) || operation == DIFFERENCE && x == END) {
+                break;
+            }
+            long emitted = -1;
+            if (x < y) {
+                if (operation != INTERSECTION) {
+                    emitted = x;
+                }
+                x = left.hasNext() ? left.next() : END;
+            } else if (y < x) {
+                if (operation == UNION) {
+                    emitted = y;
+                }
+                y = right.hasNext() ? right.next() : END;
+            } else {
+                if (operation != DIFFERENCE) {
+                    emitted = x;
+                }
+                x = left.hasNext() ? left.next() : END;
+                y = right.hasNext() ? right.next() : END;
+            }
+            if (emitted >= 0) {
+                if (encoder != null) {
+                    encoder.add(emitted);
+                }
+                count++;
+            }
+        }
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Result of set operation is too large: " + count);
+        }
+        return (int) count;
+    }
+
+    private long low(int index) {
+        if (lowBits == 0) {
+            return 0;
+        }
+        long position = (long) index * lowBits;
+        int word = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        long value = lows[word] >>> offset;
+        if (offset + lowBits > 64) {
+            value |= lows[word + 1] << (64 - offset);
+        }
+        return value & lowMask;
+    }
+
+    private boolean bit(long position) {
+        int word = (int) (position >>> 6);
+        return word < highs.length && (highs[word] & (1L << position)) != 0;
+    }
+
+    /**
+     * Method return position of one with given index in high bit vector
+     */
+    private long select1(int index) {
+        long sample = oneSamples[index >>> SAMPLE_SHIFT];
+        int remaining = index & ((1 << SAMPLE_SHIFT) - 1);
+        int word = (int) (sample >>> 6);
+        long bits = highs[word] & (-1L << sample);
+        while (true) {
+            int count = Long.bitCount(bits);
+            if (remaining < count) {
+                return ((long) word << 6) + selectInWord(bits, remaining);
+            }
+            remaining -= count;
+            bits = highs[++word];
+        }
+    }
+
+    /**
+     * Method return position of zero with given index in high bit vector, that is end of bucket of values which
+     * have high part equal to index
+     */
+    private long select0(long index) {
+        long sample = zeroSamples[(int) (index >>> SAMPLE_SHIFT)];
+        int remaining = (int) (index & ((1 << SAMPLE_SHIFT) - 1));
+        int word = (int) (sample >>> 6);
+        long bits = ~highs[word] & (-1L << sample);
+        while (true) {
+            int count = Long.bitCount(bits);
+            if (remaining < count) {
+                return ((long) word << 6) + selectInWord(bits, remaining);
+            }
+            remaining -= count;
+            bits = ~highs[++word];
+        }
+    }
+
+    private static int selectInWord(long bits, int index) {
+        for (int i = 0; i < index; i++) {
+            bits &= bits - 1;
+        }
+        return Long.numberOfTrailingZeros(bits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CompressedCitizenIdSet that = (CompressedCitizenIdSet) o;
+
+        return size == that.size && Arrays.equals(highs, that.highs) && Arrays.equals(lows, that.lows);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(highs) + Arrays.hashCode(lows);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedCitizenIdSet{size=" + size + ", lowBits=" + lowBits + ", bytes=" + sizeInBytes() + "}";
+    }
+
+    /**
+     * Cursor decodes citizen ids of index range one by one, position of the first one is found on the first call
+     */
+    private final class Cursor {
+        private int index;
+        private final int end;
+        private long position = -1;
+
+        private Cursor(int index, int end) {
+            this.index = index;
+            this.end = end;
+        }
+
+        boolean hasNext() {
+            return index < end;
+        }
+
+        long next() {
+            if (position < 0) {
+                position = select1(index);
+            } else {
+                int word = (int) (position >>> 6);
+                long bits = highs[word] & (-2L << position);
+                while (bits == 0) {
+                    bits = highs[++word];
+                }
+                position = ((long) word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            long value = (position - index) << lowBits | low(index);
+            index++;
+            return value;
+        }
+    }
+
+    private final class SetSpliterator implements PackedIdSpliterator {
+        private Cursor cursor;
+
+        private SetSpliterator(int index, int end) {
+            this.cursor = new Cursor(index, end);
+        }
+
+        public boolean tryAdvance(PackedIdConsumer action) {
+            if (!cursor.hasNext()) {
+                return false;
+            }
+            action.accept(cursor.next());
+            return true;
+        }
+
+        public void forEachRemaining(PackedIdConsumer action) {
+            while (cursor.hasNext()) {
+                action.accept(cursor.next());
+            }
+        }
+
+        public PackedIdSpliterator trySplit() {
+            int remaining = cursor.end - cursor.index;
+            if (remaining < MIN_SPLIT) {
+                return null;
+            }
+            int middle = cursor.index + remaining / 2;
+            PackedIdSpliterator prefix = new SetSpliterator(cursor.index, middle);
+            cursor = new Cursor(middle, cursor.end);
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return cursor.end - cursor.index;
+        }
+    }
+
+    /**
+     * Encoder writes strictly increasing citizen ids, number of them must be known in advance to choose number of low
+     * bits
+     */
+    private static final class Encoder {
+        private final int size;
+        private final int lowBits;
+        private final long[] lows;
+        private final long[] highs;
+        private int count;
+        private long last = -1;
+
+        private Encoder(int size) {
+            this.size = size;
+            long universe = PackedCitizenId.MAX_VALUE + 1;
+            this.lowBits = Math.max(0, 63 - Long.numberOfLeadingZeros(universe / Math.max(1, size)));
+            long highLength = size + (PackedCitizenId.MAX_VALUE >>> lowBits) + 1;
+            this.highs = new long[(int) ((highLength + 63) >>> 6)];
+            this.lows = new long[(int) (((long) size * lowBits + 63) >>> 6)];
+        }
+
+        void add(long packed) {
+            if (packed <= last) {
+                throw new IllegalStateException("Citizen ids must be added in ascending order: " + packed);
+            }
+            last = packed;
+            long high = (packed >>> lowBits) + count;
+            highs[(int) (high >>> 6)] |= 1L << high;
+            if (lowBits > 0) {
+                long low = packed & ((1L << lowBits) - 1);
+                long position = (long) count * lowBits;
+                int word = (int) (position >>> 6);
+                int offset = (int) (position & 63);
+                lows[word] |= low << offset;
+                if (offset + lowBits > 64) {
+                    lows[word + 1] |= low >>> (64 - offset);
+                }
+            }
+            count++;
+        }
+
+        CompressedCitizenIdSet build() {
+            if (count != size) {
+                throw new IllegalStateException("Expected " + size + " citizen ids, but " + count + " were added");
+            }
+            long zeros = (PackedCitizenId.MAX_VALUE >>> lowBits) + 1;
+            long[] oneSamples = new long[(size + (1 << SAMPLE_SHIFT) - 1) >>> SAMPLE_SHIFT];
+            long[] zeroSamples = new long[(int) ((zeros + (1 << SAMPLE_SHIFT) - 1) >>> SAMPLE_SHIFT)];
+            long length = size + zeros;
+            long ones = 0;
+            long zeroCount = 0;
+            long nextOne = 0;
+            long nextZero = 0;
+            for (int word = 0; word < highs.length; word++) {
+                int limit = (int) Math.min(64, length - ((long) word << 6));
+                long oneBits = highs[word];
+                long zeroBits = ~oneBits & (limit == 64 ? -1L : (1L << limit) - 1);
+                long position = (long) word << 6;
+                ones += Long.bitCount(oneBits);
+                for (; nextOne < ones; nextOne += 1 << SAMPLE_SHIFT) {
+                    oneSamples[(int) (nextOne >>> SAMPLE_SHIFT)] = position
+                            + selectInWord(oneBits, (int) (nextOne - ones + Long.bitCount(oneBits)));
+                }
+                zeroCount += Long.bitCount(zeroBits);
+                for (; nextZero < zeroCount; nextZero += 1 << SAMPLE_SHIFT) {
+                    zeroSamples[(int) (nextZero >>> SAMPLE_SHIFT)] = position
+                            + selectInWord(zeroBits, (int) (nextZero - zeroCount + Long.bitCount(zeroBits)));
+                }
+            }
+            return new CompressedCitizenIdSet(size, lowBits, lows, highs, oneSamples, zeroSamples);
+        }
+    }
+
+    /**
+     * Builder collects citizen ids in any order and creates {@link CompressedCitizenIdSet}. Builder is not thread
+     * safe.
+     */
+    public static final class Builder {
+
+        private long[] values = new long[16];
+        private int count;
+
+        private Builder() {
+        }
+
+        /**
+         * Method sets expected number of citizen ids to avoid growing of internal buffer
+         * @param expectedSize expected number of citizen ids
+         * @return this builder
+         */
+        public Builder expectedSize(int expectedSize) {
+            if (expectedSize < 0) {
+                throw new IllegalArgumentException("Expected size can not be negative");
+            }
+            ensureCapacity(expectedSize);
+            return this;
+        }
+
+        /**
+         * Method adds citizen id
+         * @param value citizen id
+         * @return this builder
+         * @throws IllegalArgumentException if value is not accepted by {@link CitizenId#CitizenId(String)}
+         */
+        public Builder add(CharSequence value) {
+            return addPacked(PackedCitizenId.pack(value));
+        }
+
+        /**
+         * Method adds citizen id
+         * @param citizenId citizen id
+         * @return this builder
+         * @throws IllegalArgumentException if citizen id is null
+         */
+        public Builder add(CitizenId citizenId) {
+            return addPacked(PackedCitizenId.pack(citizenId));
+        }
+
+        /**
+         * Method adds packed citizen id
+         * @param packed packed citizen id
+         * @return this builder
+         * @throws IllegalArgumentException if value is negative or has more than 12 digits
+         */
+        public Builder addPacked(long packed) {
+            if (packed < 0 || packed > PackedCitizenId.MAX_VALUE) {
+                throw new IllegalArgumentException("Packed citizen id must have up to 12 digits: " + packed);
+            }
+            ensureCapacity(count + 1);
+            values[count++] = packed;
+            return this;
+        }
+
+        /**
+         * Method adds packed citizen ids
+         * @param packed packed citizen ids
+         * @return this builder
+         * @throws IllegalArgumentException if any value is negative or has more than 12 digits
+         */
+        public Builder addAllPacked(long[] packed) {
+            ensureCapacity(count + packed.length);
+            for (long value : packed) {
+                addPacked(value);
+            }
+            return this;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1)));
+            }
+        }
+
+        /**
+         * Method sorts collected citizen ids and encodes them. Duplicates are stored once.
+         * @return immutable set
+         */
+        public CompressedCitizenIdSet build() {
+            long[] sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            Encoder encoder = new Encoder(unique);
+            for (int i = 0; i < unique; i++) {
+                encoder.add(sorted[i]);
+            }
+            return encoder.build();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Enumeration represents department types of juridical subjects which are encoded by the sixth digit of citizen id
+ */
+public enum DepartmentType {
+    HEAD('0'), BRANCH('1'), AGENCY('2'), FARM_HOLDING('3');
+
+    final char value;
+
+    DepartmentType(char value) {
+        this.value = value;
+    }
+
+    /**
+     * Method return department type encoded by digit
+     * @param digit the sixth digit of juridical citizen id
+     * @return department type or null if digit does not encode department type
+     */
+    public static DepartmentType fromDigit(int digit) {
+        switch (digit) {
+            case 0:
+                return HEAD;
+            case 1:
+                return BRANCH;
+            case 2:
+                return AGENCY;
+            case 3:
+                return FARM_HOLDING;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Method return digit which encodes department type
+     * @return digit of citizen id
+     */
+    public int digit() {
+        return value - '0';
+    }
+}
@@ -21,7 +21,8 @@ package net.kazakhstan.citizen.id;
  */
 
 /**
- * This interface provides method for checking validity of citizen id
+ * This interface provides method for checking validity of citizen id. Implementations are bound to one citizen id,
+ * shared stateless validators are available from {@link Validators}.
  */
 public interface IdValidation {
 
@@ -16,8 +16,6 @@
 
 package net.kazakhstan.citizen.id;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 
 /**
@@ -30,6 +28,7 @@ import java.util.Calendar;
 public class JuridicalDataInformation {
 
     private final CitizenId citizenId;
+    private final JuridicalInfo info;
 
     /**
      * Constructor creates object which will be used for getting information from juridical subject id
@@ -37,46 +36,50 @@ public class JuridicalDataInformation {
      * @throws IllegalArgumentException if citizen id is empty or is not belong to juridical subject
      */
     public JuridicalDataInformation(CitizenId citizenId) {
-        if (citizenId == null) {
-            throw new IllegalArgumentException("Citizen id should not be empty");
-        }
-        if (!citizenId.isJuridical()) {
-            throw new IllegalArgumentException("Information could be provide only for juridical subject");
+        CitizenIdMetrics metrics = CitizenIds.metrics;
+        long started = metrics == null ? 0 : CitizenIds.start(metrics);
+        boolean accepted = false;
+        try {
+            if (citizenId == null) {
+                throw new IllegalArgumentException("Citizen id should not be empty");
+            }
+            if (!citizenId.isJuridical()) {
+                throw new IllegalArgumentException("Information could be provide only for juridical subject");
+            }
+            this.citizenId = citizenId;
+            this.info = JuridicalInfo.decode(citizenId);
+            accepted = true;
+        } finally {
+            if (metrics != null) {
+                metrics.decoded(CitizenType.JURIDICAL, accepted, CitizenIds.elapsed(started));
+            }
         }
-        this.citizenId = citizenId;
     }
 
     /**
-     * Method return year of registration or reregistration of juridical subject
+     * Method return year of registration or reregistration of juridical subject. Two digits of year are resolved
+     * into the latest year which is not after the current one.
      * @return year of operation
      */
     public int getYear() {
-        String value = citizenId.getValue();
-        String firstTwoDigits = value.substring(0, 2);
-        SimpleDateFormat sdf = new SimpleDateFormat("yy");
-        Calendar calendar = Calendar.getInstance();
-        try {
-            calendar.setTimeInMillis(sdf.parse(firstTwoDigits).getTime());
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        return calendar.get(Calendar.YEAR);
+        return info.getYear();
     }
 
     /**
      * Method return month of registration or registration of juridical subject
-     * @return month which is represented by month constants of {@link Calendar} class
+     * @return month which is represented by month constants of {@link Calendar} class or -1 if citizen id does not
+     * contain correct month
      */
     public int getMonth() {
-        String monthTwoDigits = citizenId.getValue().substring(2, 4);
-        SimpleDateFormat sdf = new SimpleDateFormat("MM");
-        Calendar calendar = Calendar.getInstance();
-        try {
-            calendar.setTimeInMillis(sdf.parse(monthTwoDigits).getTime());
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        return calendar.get(Calendar.MONTH);
+        return info.getMonth();
+    }
+
+    /**
+     * Method return all decoded information about juridical subject
+     * @return decoded information
+     */
+    public JuridicalInfo getInfo() {
+        return info;
     }
 
     /**
@@ -142,24 +145,4 @@ public class JuridicalDataInformation {
     public String getOrderNumber() {
         return citizenId.getValue().substring(6,11);
     }
-
-    private enum OrganizationType {
-        RESIDENT('4'), NONRESIDENT('5'), JOINT_ENTREPRENEUR('6');
-
-        private char value;
-
-        OrganizationType(char value) {
-            this.value = value;
-        }
-    }
-
-    private enum DepartmentType {
-        HEAD('0'), BRANCH('1'), AGENCY('2'), FARM_HOLDING('3');
-
-        private char value;
-
-        DepartmentType(char value) {
-            this.value = value;
-        }
-    }
 }
@@ -28,9 +28,6 @@ public class JuridicalIdValidation implements IdValidation {
 
     private final CitizenId citizenId;
 
-    private final int firstOrderWeights[] = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
-    private final int secondOrderWeights[] = {3, 4, 5, 6, 7, 8, 9, 10, 11, 1, 2};
-
     /**
      * Constructor creates validation object for juridical citizen id
      * @param citizenId citizen id which will be checked
@@ -51,17 +48,7 @@ public class JuridicalIdValidation implements IdValidation {
      * @return true if validation passed successful
      */
     public boolean isValid() {
-        int sum = 0;
-        for (int i = 0; i < firstOrderWeights.length; i++) {
-            sum += (citizenId.getValue().charAt(i) - 0x30) * firstOrderWeights[i];
-        }
-        if (sum % 11 == 10) {
-            sum = 0;
-            for (int i = 0; i< secondOrderWeights.length; i++) {
-                sum += (citizenId.getValue().charAt(i) - 0x30) * secondOrderWeights[i];
-            }
-        }
-        return sum % 11 == citizenId.getValue().charAt(citizenId.getValue().length() - 1) - 0x30;
+        return Validators.forType(CitizenType.JURIDICAL).isValid(citizenId);
     }
 
     @Override
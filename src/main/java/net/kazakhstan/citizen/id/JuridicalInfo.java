@@ -0,0 +1,277 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.Calendar;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Immutable information about juridical subject which is decoded from its citizen id in one pass. Two digits of
+ * registration year are resolved into the latest year which is not after the current one, because registration can
+ * not happen in future. Years and months are taken from precomputed tables, so static methods of the class decode
+ * packed citizen ids without allocation. Table of years is rebuilt when current year changes, so long running
+ * applications resolve years correctly after New Year.
+ */
+public final class JuridicalInfo {
+
+    private static final int[] MONTHS = new int[100];
+    private static volatile YearTable years = YearTable.current();
+
+    static {
+        for (int twoDigits = 0; twoDigits < MONTHS.length; twoDigits++) {
+            MONTHS[twoDigits] = twoDigits >= 1 && twoDigits <= 12 ? Calendar.JANUARY + twoDigits - 1 : -1;
+        }
+    }
+
+    /**
+     * Years resolved for two digits together with the period of time when they are correct
+     */
+    private static final class YearTable {
+        private final int[] years;
+        private final long validFrom;
+        private final long validUntil;
+
+        private YearTable(int[] years, long validFrom, long validUntil) {
+            this.years = years;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+
+        static YearTable current() {
+            Calendar calendar = Calendar.getInstance();
+            int currentYear = calendar.get(Calendar.YEAR);
+            calendar.clear();
+            calendar.set(currentYear, Calendar.JANUARY, 1);
+            long validFrom = calendar.getTimeInMillis();
+            calendar.add(Calendar.YEAR, 1);
+            return new YearTable(resolveYears(currentYear), validFrom, calendar.getTimeInMillis());
+        }
+    }
+
+    /**
+     * Method resolves every two digits of year into the latest year which is not after current one
+     */
+    static int[] resolveYears(int currentYear) {
+        int[] years = new int[100];
+        for (int twoDigits = 0; twoDigits < years.length; twoDigits++) {
+            years[twoDigits] = currentYear - (currentYear - twoDigits) % 100;
+        }
+        return years;
+    }
+
+    /**
+     * Method return table of years for current year, it only compares current time with bounds of the year while the
+     * year lasts
+     */
+    private static int[] years() {
+        YearTable table = years;
+        long now = System.currentTimeMillis();
+        if (now < table.validFrom || now >= table.validUntil) {
+            table = YearTable.current();
+            years = table;
+        }
+        return table.years;
+    }
+
+    private final int year;
+    private final int month;
+    private final OrganizationType organizationType;
+    private final DepartmentType departmentType;
+    private final int orderNumber;
+
+    private JuridicalInfo(int year, int month, OrganizationType organizationType, DepartmentType departmentType,
+                          int orderNumber) {
+        this.year = year;
+        this.month = month;
+        this.organizationType = organizationType;
+        this.departmentType = departmentType;
+        this.orderNumber = orderNumber;
+    }
+
+    /**
+     * Method decodes information about juridical subject
+     * @param citizenId citizen id of juridical subject
+     * @return decoded information
+     * @throws IllegalArgumentException if citizen id is empty or is not belong to juridical subject
+     */
+    public static JuridicalInfo decode(CitizenId citizenId) {
+        if (citizenId == null) {
+            throw new IllegalArgumentException("Citizen id should not be empty");
+        }
+        return decode(PackedCitizenId.pack(citizenId));
+    }
+
+    /**
+     * Method decodes information about juridical subject from packed citizen id
+     * @param packedId packed citizen id of juridical subject
+     * @return decoded information
+     * @throws IllegalArgumentException if value is not packed citizen id of juridical subject
+     */
+    public static JuridicalInfo decode(long packedId) {
+        PackedCitizenId.checkRange(packedId);
+        long rest = packedId / 10;
+        int orderNumber = (int) (rest % 100000);
+        rest /= 100000;
+        int department = (int) (rest % 10);
+        rest /= 10;
+        int organization = (int) (rest % 10);
+        rest /= 10;
+        if (organization <= 3) {
+            throw new IllegalArgumentException("Information could be provide only for juridical subject");
+        }
+        int month = (int) (rest % 100);
+        int year = (int) (rest / 100);
+        return new JuridicalInfo(years()[year], MONTHS[month], OrganizationType.fromDigit(organization),
+                DepartmentType.fromDigit(department), orderNumber);
+    }
+
+    static int year(int twoDigits) {
+        return years()[twoDigits];
+    }
+
+    static int month(int twoDigits) {
+        return MONTHS[twoDigits];
+    }
+
+    /**
+     * Method return year of registration or reregistration encoded by packed citizen id
+     * @param packedId packed citizen id of juridical subject
+     * @return year of operation
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static int yearOf(long packedId) {
+        PackedCitizenId.checkRange(packedId);
+        return years()[(int) (packedId / 10000000000L)];
+    }
+
+    /**
+     * Method return month of registration or reregistration encoded by packed citizen id
+     * @param packedId packed citizen id of juridical subject
+     * @return month which is represented by month constants of {@link Calendar} class or -1 if citizen id does not
+     * contain correct month
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static int monthOf(long packedId) {
+        PackedCitizenId.checkRange(packedId);
+        return MONTHS[(int) (packedId / 100000000L % 100)];
+    }
+
+    /**
+     * Method return organization type encoded by packed citizen id
+     * @param packedId packed citizen id of juridical subject
+     * @return organization type or null if digit does not encode organization type
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static OrganizationType organizationTypeOf(long packedId) {
+        PackedCitizenId.checkRange(packedId);
+        return OrganizationType.fromDigit((int) (packedId / 10000000L % 10));
+    }
+
+    /**
+     * Method return department type encoded by packed citizen id
+     * @param packedId packed citizen id of juridical subject
+     * @return department type or null if digit does not encode department type
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static DepartmentType departmentTypeOf(long packedId) {
+        PackedCitizenId.checkRange(packedId);
+        return DepartmentType.fromDigit((int) (packedId / 1000000L % 10));
+    }
+
+    /**
+     * Method return registration order number encoded by packed citizen id
+     * @param packedId packed citizen id of juridical subject
+     * @return registration order number
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static int orderNumberOf(long packedId) {
+        PackedCitizenId.checkRange(packedId);
+        return (int) (packedId / 10 % 100000);
+    }
+
+    /**
+     * Method return year of registration or reregistration
+     * @return year of operation
+     */
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Method return month of registration or reregistration
+     * @return month which is represented by month constants of {@link Calendar} class or -1 if citizen id does not
+     * contain correct month
+     */
+    public int getMonth() {
+        return month;
+    }
+
+    /**
+     * Method return organization type of juridical subject
+     * @return organization type or null if citizen id does not encode organization type
+     */
+    public OrganizationType getOrganizationType() {
+        return organizationType;
+    }
+
+    /**
+     * Method return department type of juridical subject
+     * @return department type or null if citizen id does not encode department type
+     */
+    public DepartmentType getDepartmentType() {
+        return departmentType;
+    }
+
+    /**
+     * Method return registration order number of juridical subject
+     * @return registration order number
+     */
+    public int getOrderNumber() {
+        return orderNumber;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        JuridicalInfo that = (JuridicalInfo) o;
+
+        return year == that.year && month == that.month && orderNumber == that.orderNumber
+                && organizationType == that.organizationType && departmentType == that.departmentType;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = year;
+        result = 31 * result + month;
+        result = 31 * result + (organizationType != null ? organizationType.hashCode() : 0);
+        result = 31 * result + (departmentType != null ? departmentType.hashCode() : 0);
+        result = 31 * result + orderNumber;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "JuridicalInfo{year=" + year + ", month=" + month + ", organizationType=" + organizationType
+                + ", departmentType=" + departmentType + ", orderNumber=" + orderNumber + "}";
+    }
+}
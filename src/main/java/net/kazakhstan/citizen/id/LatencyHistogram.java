@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class contains histogram of durations with fixed buckets. Bucket 0 counts durations below 16 nanoseconds, bucket i
+ * counts durations below 2^(i + 4) nanoseconds, the last bucket counts all longer durations.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Number of buckets
+     */
+    public static final int BUCKETS = 32;
+
+    private final long[] counts = new long[BUCKETS];
+    private final long total;
+
+    LatencyHistogram(long[] counters, int offset) {
+        System.arraycopy(counters, offset, counts, 0, BUCKETS);
+        long sum = 0;
+        for (long count : counts) {
+            sum += count;
+        }
+        total = sum;
+    }
+
+    static int bucketOf(long nanos) {
+        int bucket = 60 - Long.numberOfLeadingZeros(nanos);
+        return bucket < 0 ? 0 : bucket >= BUCKETS ? BUCKETS - 1 : bucket;
+    }
+
+    /**
+     * Method return exclusive upper bound of bucket
+     * @param bucket index of bucket
+     * @return duration in nanoseconds or {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long upperBound(int bucket) {
+        if (bucket < 0 || bucket >= BUCKETS) {
+            throw new IndexOutOfBoundsException("Bucket " + bucket + " is outside of histogram");
+        }
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << (bucket + 4);
+    }
+
+    /**
+     * Method return number of sampled durations in bucket
+     * @param bucket index of bucket
+     * @return number of durations
+     */
+    public long getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Method return number of sampled durations
+     * @return number of durations
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Method return upper bound of bucket which contains percentile of durations
+     * @param percentile percentile between 0 and 100
+     * @return duration in nanoseconds or 0 if histogram is empty
+     * @throws IllegalArgumentException if percentile is outside of range
+     */
+    public long getPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return upperBound(bucket);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "samples=" + total + " p50<" + getPercentile(50) + "ns p99<" + getPercentile(99) + "ns";
+    }
+}
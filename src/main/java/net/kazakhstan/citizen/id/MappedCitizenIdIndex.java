@@ -0,0 +1,283 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Read only view of index file which is written by {@link CitizenIdIndexWriter}. File is mapped into memory, so
+ * opening index does not read citizen ids and all processes which use the same file share it through page cache.
+ * Lookups use binary search over fence index and then over mapped citizen ids. Index is safe for use from several
+ * threads.
+ */
+public class MappedCitizenIdIndex implements PackedIdLookup, Closeable {
+
+    static final int MAGIC = 0x4B5A4944;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int ENTRY_WIDTH = 5;
+    static final int DEFAULT_FENCE_STRIDE = 256;
+
+    private static final int MIN_SPLIT = 1024;
+
+    private final RandomAccessFile file;
+    private final ByteBuffer buffer;
+    private final int fenceStride;
+    private final int fenceCount;
+    private final int size;
+    private final int dataOffset;
+
+    private MappedCitizenIdIndex(RandomAccessFile file, ByteBuffer buffer, int fenceStride, int fenceCount, int size) {
+        this.file = file;
+        this.buffer = buffer;
+        this.fenceStride = fenceStride;
+        this.fenceCount = fenceCount;
+        this.size = size;
+        this.dataOffset = HEADER_SIZE + fenceCount * 8;
+    }
+
+    /**
+     * Method maps index file into memory
+     * @param file index file
+     * @return index
+     * @throws IOException if file can not be read or is not index of citizen ids
+     */
+    public static MappedCitizenIdIndex open(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("File is not index of citizen ids: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int fenceStride = buffer.getInt(8);
+            int fenceCount = buffer.getInt(12);
+            long size = buffer.getLong(16);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || fenceStride <= 0 || size < 0
+                    || fenceCount != (size + fenceStride - 1) / fenceStride
+                    || length != HEADER_SIZE + fenceCount * 8L + size * ENTRY_WIDTH) {
+                throw new IOException("File is not index of citizen ids: " + file);
+            }
+            return new MappedCitizenIdIndex(randomAccessFile, buffer, fenceStride, fenceCount, (int) size);
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        } catch (RuntimeException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Method return number of citizen ids in index
+     * @return number of citizen ids
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method return packed citizen id by its position in sorted order
+     * @param index position of citizen id
+     * @return packed citizen id
+     * @throws IndexOutOfBoundsException if index is negative or not less than size
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return entry(index);
+    }
+
+    private long entry(int index) {
+        int position = dataOffset + index * ENTRY_WIDTH;
+        return ((long) (buffer.get(position) & 0xFF) << 32) | (buffer.getInt(position + 1) & 0xFFFFFFFFL);
+    }
+
+    private long fence(int index) {
+        return buffer.getLong(HEADER_SIZE + index * 8);
+    }
+
+    /**
+     * Method return number of citizen ids in index which are less than packed value
+     * @param packed packed citizen id
+     * @return number of smaller citizen ids
+     */
+    public int rank(long packed) {
+        int low = 0;
+        int high = fenceCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (fence(middle) < packed) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low == 0) {
+            return 0;
+        }
+        low = (low - 1) * fenceStride;
+        high = Math.min(low + fenceStride, size);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entry(middle) < packed) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Method checks if index contains packed citizen id
+     * @param packed packed citizen id
+     * @return true if citizen id is in index
+     */
+    public boolean contains(long packed) {
+        if (!PackedCitizenId.isValid(packed)) {
+            return false;
+        }
+        int rank = rank(packed);
+        return rank < size && entry(rank) == packed;
+    }
+
+    /**
+     * Method checks if index contains citizen id
+     * @param value citizen id
+     * @return true if value is valid citizen id and it is in index
+     */
+    public boolean contains(CharSequence value) {
+        if (CitizenId.validate(value) != CitizenIdStatus.VALID) {
+            return false;
+        }
+        return contains(PackedCitizenId.packDigits(value, 0));
+    }
+
+    /**
+     * Method checks if index contains citizen id
+     * @param citizenId citizen id
+     * @return true if citizen id is in index
+     */
+    public boolean contains(CitizenId citizenId) {
+        return citizenId != null && contains(PackedCitizenId.pack(citizenId));
+    }
+
+    /**
+     * Method passes citizen ids from range to consumer in ascending order
+     * @param from lower bound of range inclusively
+     * @param to upper bound of range exclusively
+     * @param consumer consumer of packed citizen ids
+     * @return number of citizen ids in range
+     */
+    public int forEachInRange(long from, long to, PackedIdConsumer consumer) {
+        if (from >= to) {
+            return 0;
+        }
+        int start = rank(from);
+        int count = 0;
+        for (int i = start; i < size; i++) {
+            long packed = entry(i);
+            if (packed >= to) {
+                break;
+            }
+            consumer.accept(packed);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Method return number of citizen ids in range
+     * @param from lower bound of range inclusively
+     * @param to upper bound of range exclusively
+     * @return number of citizen ids in range
+     */
+    public int countInRange(long from, long to) {
+        return from >= to ? 0 : rank(to) - rank(from);
+    }
+
+    /**
+     * Method return spliterator which passes citizen ids in ascending order and splits by position, so mapped index
+     * can be processed by several threads, see {@link CitizenIdStreams#split(PackedIdSpliterator, int)}
+     * @return spliterator of packed citizen ids
+     */
+    public PackedIdSpliterator spliterator() {
+        return new IndexSpliterator(0, size);
+    }
+
+    /**
+     * Method closes file. Mapped memory is released by garbage collector, index must not be used after closing.
+     * @throws IOException if file can not be closed
+     */
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private final class IndexSpliterator implements PackedIdSpliterator {
+        private int index;
+        private final int end;
+
+        private IndexSpliterator(int index, int end) {
+            this.index = index;
+            this.end = end;
+        }
+
+        public boolean tryAdvance(PackedIdConsumer action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(entry(index++));
+            return true;
+        }
+
+        public void forEachRemaining(PackedIdConsumer action) {
+            int current = index;
+            index = end;
+            for (; current < end; current++) {
+                action.accept(entry(current));
+            }
+        }
+
+        public PackedIdSpliterator trySplit() {
+            int remaining = end - index;
+            if (remaining < MIN_SPLIT) {
+                return null;
+            }
+            int middle = index + remaining / 2;
+            PackedIdSpliterator prefix = new IndexSpliterator(index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return end - index;
+        }
+    }
+}
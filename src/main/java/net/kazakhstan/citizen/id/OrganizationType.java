@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Enumeration represents organization types of juridical subjects which are encoded by the fifth digit of citizen id
+ */
+public enum OrganizationType {
+    RESIDENT('4'), NONRESIDENT('5'), JOINT_ENTREPRENEUR('6');
+
+    final char value;
+
+    OrganizationType(char value) {
+        this.value = value;
+    }
+
+    /**
+     * Method return organization type encoded by digit
+     * @param digit the fifth digit of juridical citizen id
+     * @return organization type or null if digit does not encode organization type
+     */
+    public static OrganizationType fromDigit(int digit) {
+        switch (digit) {
+            case 4:
+                return RESIDENT;
+            case 5:
+                return NONRESIDENT;
+            case 6:
+                return JOINT_ENTREPRENEUR;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Method return digit which encodes organization type
+     * @return digit of citizen id
+     */
+    public int digit() {
+        return value - '0';
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * This class represents citizen id packed into primitive long. Twelve digits of citizen id are stored as decimal
+ * number which needs 40 bits, so packed citizen id keeps numeric ordering of original value. Static methods of the
+ * class work with packed values directly and allow to keep large amount of citizen ids in primitive arrays.
+ */
+public final class PackedCitizenId implements Comparable<PackedCitizenId> {
+
+    /**
+     * Value which is returned instead of packed citizen id if incoming value can not be packed
+     */
+    public static final long INVALID = -1L;
+
+    /**
+     * Maximal value of packed citizen id
+     */
+    public static final long MAX_VALUE = 999999999999L;
+
+    static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L,
+            100000000000L
+    };
+
+    private final long value;
+
+    private PackedCitizenId(long value) {
+        this.value = value;
+    }
+
+    /**
+     * Creates packed citizen id from packed value
+     * @param packed packed citizen id
+     * @return packed citizen id
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static PackedCitizenId valueOf(long packed) {
+        checkRange(packed);
+        return new PackedCitizenId(packed);
+    }
+
+    /**
+     * Creates packed citizen id from value of citizen id
+     * @param value citizen id
+     * @return packed citizen id
+     * @throws IllegalArgumentException if value is not accepted by {@link CitizenId#CitizenId(String)}
+     */
+    public static PackedCitizenId of(CharSequence value) {
+        return new PackedCitizenId(pack(value));
+    }
+
+    /**
+     * Creates packed citizen id from citizen id
+     * @param citizenId citizen id
+     * @return packed citizen id
+     * @throws IllegalArgumentException if citizen id is null
+     */
+    public static PackedCitizenId of(CitizenId citizenId) {
+        return new PackedCitizenId(pack(citizenId));
+    }
+
+    /**
+     * Method packs value of citizen id into long
+     * @param value citizen id
+     * @return packed citizen id
+     * @throws IllegalArgumentException if value is not accepted by {@link CitizenId#CitizenId(String)}
+     */
+    public static long pack(CharSequence value) {
+        CitizenIdStatus status = CitizenId.checkFormat(value);
+        if (!status.isWellFormed()) {
+            throw new IllegalArgumentException(status.message);
+        }
+        return packDigits(value, 0);
+    }
+
+    /**
+     * Method packs citizen id into long
+     * @param citizenId citizen id
+     * @return packed citizen id
+     * @throws IllegalArgumentException if citizen id is null
+     */
+    public static long pack(CitizenId citizenId) {
+        if (citizenId == null) {
+            throw new IllegalArgumentException("Citizen id can not be empty");
+        }
+        return packDigits(citizenId.getValue(), 0);
+    }
+
+    /**
+     * Method packs value of citizen id into long without throwing exception for incorrect value
+     * @param value citizen id
+     * @return packed citizen id or {@link #INVALID} if value is not accepted by {@link CitizenId#CitizenId(String)}
+     */
+    public static long tryPack(CharSequence value) {
+        if (!CitizenId.checkFormat(value).isWellFormed()) {
+            return INVALID;
+        }
+        return packDigits(value, 0);
+    }
+
+    static long packDigits(CharSequence value, int offset) {
+        long packed = 0;
+        for (int i = offset; i < offset + CitizenId.LENGTH; i++) {
+            packed = packed * 10 + (value.charAt(i) - '0');
+        }
+        return packed;
+    }
+
+    /**
+     * Method unpacks citizen id into its original value
+     * @param packed packed citizen id
+     * @return value of citizen id with leading zeros
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static String unpack(long packed) {
+        checkRange(packed);
+        char[] digits = new char[CitizenId.LENGTH];
+        for (int i = digits.length - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + packed % 10);
+            packed /= 10;
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Method unpacks citizen id into citizen id object
+     * @param packed packed citizen id
+     * @return citizen id
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static CitizenId toCitizenId(long packed) {
+        String value = unpack(packed);
+        return new CitizenId(value, typeOf(packed));
+    }
+
+    /**
+     * Method return type of packed citizen id
+     * @param packed packed citizen id
+     * @return type of citizen id
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static CitizenType typeOf(long packed) {
+        checkRange(packed);
+        return digit(packed, 4) <= 3 ? CitizenType.PHYSICAL : CitizenType.JURIDICAL;
+    }
+
+    /**
+     * Method checks control digit of packed citizen id
+     * @param packed packed citizen id
+     * @return true if packed value is citizen id with correct control digit
+     */
+    public static boolean isValid(long packed) {
+        return packed >= 0 && packed <= MAX_VALUE && Checksum.isValid(packed);
+    }
+
+    /**
+     * Method return digit of packed citizen id
+     * @param packed packed citizen id
+     * @param index index of digit, 0 is the first digit of citizen id
+     * @return digit at index
+     */
+    static int digit(long packed, int index) {
+        return (int) (packed / POWERS_OF_TEN[CitizenId.LENGTH - 1 - index] % 10);
+    }
+
+    /**
+     * Method mixes bits of packed citizen id, so hash based structures get well distributed hashes for sequential
+     * numbers
+     */
+    static long mix(long packed) {
+        long h = packed;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static void checkRange(long packed) {
+        if (packed < 0 || packed > MAX_VALUE) {
+            throw new IllegalArgumentException("Packed citizen id must have up to 12 digits: " + packed);
+        }
+    }
+
+    /**
+     * Method return packed value
+     * @return packed citizen id
+     */
+    public long longValue() {
+        return value;
+    }
+
+    /**
+     * Method return type of citizen id
+     * @return type of citizen id
+     */
+    public CitizenType getType() {
+        return typeOf(value);
+    }
+
+    /**
+     * Method checks if citizen id represents physical subject
+     * @return true if citizen id belongs to physical subject
+     */
+    public boolean isPhysical() {
+        return getType() == CitizenType.PHYSICAL;
+    }
+
+    /**
+     * Method checks if citizen id represents juridical subject
+     * @return true if citizen id belongs to juridical subject
+     */
+    public boolean isJuridical() {
+        return getType() == CitizenType.JURIDICAL;
+    }
+
+    /**
+     * Method checks control digit of citizen id
+     * @return true if control digit is correct
+     */
+    public boolean isValid() {
+        return Checksum.isValid(value);
+    }
+
+    /**
+     * Method unpacks citizen id into citizen id object
+     * @return citizen id
+     */
+    public CitizenId toCitizenId() {
+        return toCitizenId(value);
+    }
+
+    public int compareTo(PackedCitizenId o) {
+        return value < o.value ? -1 : (value == o.value ? 0 : 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PackedCitizenId that = (PackedCitizenId) o;
+
+        return value == that.value;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = mix(value);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return unpack(value);
+    }
+}
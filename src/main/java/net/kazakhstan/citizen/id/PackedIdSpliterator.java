@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * This interface traverses and partitions a sequence of packed citizen ids. It follows contract of
+ * java.util.Spliterator.OfLong, so sources can be split between worker threads and processed independently.
+ */
+public interface PackedIdSpliterator {
+
+    /**
+     * Method passes next packed citizen id to consumer if it exists
+     * @param action consumer of packed citizen id
+     * @return false if there are no remaining citizen ids
+     */
+    boolean tryAdvance(PackedIdConsumer action);
+
+    /**
+     * Method passes all remaining packed citizen ids to consumer
+     * @param action consumer of packed citizen ids
+     */
+    void forEachRemaining(PackedIdConsumer action);
+
+    /**
+     * Method splits off a prefix of remaining citizen ids, after the call this spliterator covers the rest of them
+     * @return spliterator of prefix or null if this spliterator can not be split
+     */
+    PackedIdSpliterator trySplit();
+
+    /**
+     * Method return number of remaining citizen ids, sources which do not know it exactly return an estimate
+     * @return number of remaining citizen ids
+     */
+    long estimateSize();
+}
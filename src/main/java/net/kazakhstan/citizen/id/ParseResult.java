@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class represents result of {@link CitizenId#tryParse(CharSequence)}. Results of rejected values are shared
+ * instances, so rejecting a value does not allocate anything.
+ */
+public final class ParseResult {
+
+    private static final ParseResult[] FAILURES;
+
+    static {
+        CitizenIdStatus[] statuses = CitizenIdStatus.values();
+        FAILURES = new ParseResult[statuses.length];
+        for (CitizenIdStatus status : statuses) {
+            if (!status.isWellFormed()) {
+                FAILURES[status.ordinal()] = new ParseResult(status, null);
+            }
+        }
+    }
+
+    private final CitizenIdStatus status;
+    private final CitizenId citizenId;
+
+    private ParseResult(CitizenIdStatus status, CitizenId citizenId) {
+        this.status = status;
+        this.citizenId = citizenId;
+    }
+
+    static ParseResult success(CitizenId citizenId, CitizenIdStatus status) {
+        return new ParseResult(status, citizenId);
+    }
+
+    static ParseResult failure(CitizenIdStatus status) {
+        return FAILURES[status.ordinal()];
+    }
+
+    /**
+     * Method checks if value was parsed into citizen id. Citizen id with wrong control digit is parsed as well as
+     * {@link CitizenId#CitizenId(String)} accepts it.
+     * @return true if citizen id is available
+     */
+    public boolean isParsed() {
+        return citizenId != null;
+    }
+
+    /**
+     * Method checks if value was parsed and has correct control digit
+     * @return true if status is {@link CitizenIdStatus#VALID}
+     */
+    public boolean isValid() {
+        return status == CitizenIdStatus.VALID;
+    }
+
+    /**
+     * Method return status of parsed value
+     * @return status of value
+     */
+    public CitizenIdStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Method return parsed citizen id
+     * @return citizen id or null if value was rejected
+     */
+    public CitizenId getCitizenId() {
+        return citizenId;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.Calendar;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class provides additional information about physical subject using citizen id
+ */
+public class PhysicalDataInformation {
+
+    private final PhysicalInfo info;
+
+    /**
+     * Constructor creates object which will be used for getting information from physical subject id
+     * @param citizenId citizen id of physical subject
+     * @throws IllegalArgumentException if citizen id is empty, is not belong to physical subject or does not contain
+     * correct birth date
+     */
+    public PhysicalDataInformation(CitizenId citizenId) {
+        CitizenIdMetrics metrics = CitizenIds.metrics;
+        long started = metrics == null ? 0 : CitizenIds.start(metrics);
+        boolean accepted = false;
+        try {
+            if (citizenId == null) {
+                throw new IllegalArgumentException("Citizen id should not be empty");
+            }
+            if (!citizenId.isPhysical()) {
+                throw new IllegalArgumentException("Information could be provide only for physical subject");
+            }
+            this.info = PhysicalInfo.decode(citizenId);
+            accepted = true;
+        } finally {
+            if (metrics != null) {
+                metrics.decoded(CitizenType.PHYSICAL, accepted, CitizenIds.elapsed(started));
+            }
+        }
+    }
+
+    /**
+     * Method return year of birth of physical subject
+     * @return year of birth
+     */
+    public int getYear() {
+        return info.getBirthYear();
+    }
+
+    /**
+     * Method return month of birth of physical subject
+     * @return month which is represented by month constants of {@link Calendar} class
+     */
+    public int getMonth() {
+        return info.getBirthMonth();
+    }
+
+    /**
+     * Method return day of month of birth of physical subject
+     * @return day of month
+     */
+    public int getDay() {
+        return info.getBirthDay();
+    }
+
+    /**
+     * Method return birth date of physical subject
+     * @return number of days since 1970-01-01
+     */
+    public int getEpochDay() {
+        return info.getEpochDay();
+    }
+
+    /**
+     * Method checks if physical subject is male
+     * @return true if subject is male
+     */
+    public boolean isMale() {
+        return info.getGender() == Gender.MALE;
+    }
+
+    /**
+     * Method checks if physical subject is female
+     * @return true if subject is female
+     */
+    public boolean isFemale() {
+        return info.getGender() == Gender.FEMALE;
+    }
+
+    /**
+     * Method return all decoded information about physical subject
+     * @return decoded information
+     */
+    public PhysicalInfo getInfo() {
+        return info;
+    }
+}
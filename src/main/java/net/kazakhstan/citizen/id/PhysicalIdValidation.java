@@ -26,8 +26,6 @@ package net.kazakhstan.citizen.id;
  */
 public class PhysicalIdValidation implements IdValidation {
     private final CitizenId citizenId;
-    private final int firstWeights[] = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
-    private final int secondWeights[] = {3, 4, 5, 6, 7, 8, 9, 10, 11, 1, 2};
 
     /**
      * Constructor creates validation object for checking validity of physical subject citizen id
@@ -49,17 +47,7 @@ public class PhysicalIdValidation implements IdValidation {
      * @return true if validation is passed successful
      */
     public boolean isValid() {
-        int sum = 0;
-        for (int i = 0; i < firstWeights.length; i++) {
-            sum += (citizenId.getValue().charAt(i) - 0x30) * firstWeights[i];
-        }
-        if (sum % 11 == 10) {
-            sum = 0;
-            for (int i = 0; i< secondWeights.length; i++) {
-                sum += (citizenId.getValue().charAt(i) - 0x30) * secondWeights[i];
-            }
-        }
-        return sum % 11 == citizenId.getValue().charAt(citizenId.getValue().length() - 1) - 0x30;
+        return Validators.forType(CitizenType.PHYSICAL).isValid(citizenId);
     }
 
     @Override
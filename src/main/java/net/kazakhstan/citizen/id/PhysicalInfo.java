@@ -0,0 +1,257 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.Calendar;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Immutable information about physical subject which is decoded from its citizen id. The first six digits contain
+ * birth date as YYMMDD and the seventh digit contains century of birth and gender: 1 and 2 mean XIX century, 3 and 4
+ * mean XX century, 5 and 6 mean XXI century, odd digits belong to men and even digits belong to women. Birth date is
+ * represented as number of days since 1970-01-01 which is calculated with precomputed tables, so static methods of
+ * the class decode packed citizen ids without allocation.
+ */
+public final class PhysicalInfo {
+
+    /**
+     * Value which is returned instead of epoch day if citizen id does not contain correct birth date
+     */
+    public static final int INVALID_EPOCH_DAY = Integer.MIN_VALUE;
+
+    private static final int FIRST_YEAR = 1800;
+    private static final int[] YEAR_STARTS = new int[300];
+    private static final int[][] MONTH_STARTS = {
+            {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334, 365},
+            {0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335, 366}
+    };
+
+    static {
+        int epochDay = -(170 * 365 + 41);
+        for (int i = 0; i < YEAR_STARTS.length; i++) {
+            YEAR_STARTS[i] = epochDay;
+            epochDay += isLeap(FIRST_YEAR + i) ? 366 : 365;
+        }
+    }
+
+    private final int birthYear;
+    private final int birthMonth;
+    private final int birthDay;
+    private final int epochDay;
+    private final Gender gender;
+
+    private PhysicalInfo(int birthYear, int birthMonth, int birthDay, int epochDay, Gender gender) {
+        this.birthYear = birthYear;
+        this.birthMonth = birthMonth;
+        this.birthDay = birthDay;
+        this.epochDay = epochDay;
+        this.gender = gender;
+    }
+
+    private static boolean isLeap(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Method return days before the first day of every month of year and number of days in year as the last element,
+     * returned array is shared and must not be changed
+     */
+    static int[] monthStarts(int year) {
+        return MONTH_STARTS[isLeap(year) ? 1 : 0];
+    }
+
+    /**
+     * Method converts date between 1800 and 2099 years into number of days since 1970-01-01
+     * @param month month between 1 and 12
+     */
+    static int epochDay(int year, int month, int day) {
+        return YEAR_STARTS[year - FIRST_YEAR] + monthStarts(year)[month - 1] + day - 1;
+    }
+
+    /**
+     * Method decodes information about physical subject
+     * @param citizenId citizen id of physical subject
+     * @return decoded information
+     * @throws IllegalArgumentException if citizen id is empty, is not belong to physical subject or does not contain
+     * correct birth date
+     */
+    public static PhysicalInfo decode(CitizenId citizenId) {
+        if (citizenId == null) {
+            throw new IllegalArgumentException("Citizen id should not be empty");
+        }
+        return decode(PackedCitizenId.pack(citizenId));
+    }
+
+    /**
+     * Method decodes information about physical subject from packed citizen id
+     * @param packedId packed citizen id of physical subject
+     * @return decoded information
+     * @throws IllegalArgumentException if value is not packed citizen id of physical subject or does not contain
+     * correct birth date
+     */
+    public static PhysicalInfo decode(long packedId) {
+        PackedCitizenId.checkRange(packedId);
+        if (PackedCitizenId.typeOf(packedId) != CitizenType.PHYSICAL) {
+            throw new IllegalArgumentException("Information could be provide only for physical subject");
+        }
+        int epochDay = epochDayOf(packedId);
+        if (epochDay == INVALID_EPOCH_DAY) {
+            throw new IllegalArgumentException("Citizen id does not contain correct birth date");
+        }
+        long date = packedId / 100000;
+        int century = (int) (date % 10);
+        date /= 10;
+        int day = (int) (date % 100);
+        date /= 100;
+        int month = (int) (date % 100);
+        int year = yearOf(century, (int) (date / 100));
+        return new PhysicalInfo(year, Calendar.JANUARY + month - 1, day, epochDay, genderOf(century));
+    }
+
+    private static int yearOf(int century, int twoDigits) {
+        return FIRST_YEAR + (century - 1) / 2 * 100 + twoDigits;
+    }
+
+    private static Gender genderOf(int century) {
+        return (century & 1) == 1 ? Gender.MALE : Gender.FEMALE;
+    }
+
+    /**
+     * Method return birth date encoded by packed citizen id
+     * @param packedId packed citizen id of physical subject
+     * @return number of days since 1970-01-01 or {@link #INVALID_EPOCH_DAY} if citizen id does not contain correct
+     * century or date
+     */
+    public static int epochDayOf(long packedId) {
+        if (packedId < 0 || packedId > PackedCitizenId.MAX_VALUE) {
+            return INVALID_EPOCH_DAY;
+        }
+        long date = packedId / 100000;
+        int century = (int) (date % 10);
+        date /= 10;
+        int day = (int) (date % 100);
+        date /= 100;
+        int month = (int) (date % 100);
+        if (century < 1 || century > 6 || month < 1 || month > 12 || day < 1) {
+            return INVALID_EPOCH_DAY;
+        }
+        int year = yearOf(century, (int) (date / 100));
+        int[] monthStarts = monthStarts(year);
+        if (day > monthStarts[month] - monthStarts[month - 1]) {
+            return INVALID_EPOCH_DAY;
+        }
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * Method return gender encoded by packed citizen id
+     * @param packedId packed citizen id of physical subject
+     * @return gender or null if citizen id does not contain correct century digit
+     */
+    public static Gender genderOf(long packedId) {
+        int century = (int) (packedId / 100000 % 10);
+        return century >= 1 && century <= 6 ? genderOf(century) : null;
+    }
+
+    /**
+     * Method decodes birth dates of packed citizen ids in batch
+     * @param packedIds packed citizen ids of physical subjects
+     * @param epochDays array which receives number of days since 1970-01-01 or {@link #INVALID_EPOCH_DAY} for each
+     * citizen id
+     * @return number of citizen ids with correct birth date
+     * @throws IllegalArgumentException if array of results is shorter than array of citizen ids
+     */
+    public static int epochDaysOf(long[] packedIds, int[] epochDays) {
+        if (epochDays.length < packedIds.length) {
+            throw new IllegalArgumentException("Array of results is too small: " + epochDays.length);
+        }
+        int decoded = 0;
+        for (int i = 0; i < packedIds.length; i++) {
+            int epochDay = epochDayOf(packedIds[i]);
+            epochDays[i] = epochDay;
+            if (epochDay != INVALID_EPOCH_DAY) {
+                decoded++;
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * Method return year of birth
+     * @return year of birth
+     */
+    public int getBirthYear() {
+        return birthYear;
+    }
+
+    /**
+     * Method return month of birth
+     * @return month which is represented by month constants of {@link Calendar} class
+     */
+    public int getBirthMonth() {
+        return birthMonth;
+    }
+
+    /**
+     * Method return day of month of birth
+     * @return day of month
+     */
+    public int getBirthDay() {
+        return birthDay;
+    }
+
+    /**
+     * Method return birth date
+     * @return number of days since 1970-01-01
+     */
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    /**
+     * Method return gender of physical subject
+     * @return gender
+     */
+    public Gender getGender() {
+        return gender;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PhysicalInfo that = (PhysicalInfo) o;
+
+        return epochDay == that.epochDay && gender == that.gender;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * epochDay + gender.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "PhysicalInfo{birthYear=" + birthYear + ", birthMonth=" + birthMonth + ", birthDay=" + birthDay
+                + ", gender=" + gender + "}";
+    }
+}
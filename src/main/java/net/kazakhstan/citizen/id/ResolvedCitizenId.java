@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Immutable citizen id together with result of its validation and decoded information. Instances are created once
+ * per citizen id by {@link CitizenIdCache} and shared between all users of the cache.
+ */
+public final class ResolvedCitizenId {
+
+    private final long packed;
+    private final CitizenId citizenId;
+    private final boolean valid;
+    private final JuridicalInfo juridicalInfo;
+    private final PhysicalInfo physicalInfo;
+
+    private ResolvedCitizenId(long packed, CitizenId citizenId, boolean valid, JuridicalInfo juridicalInfo,
+                              PhysicalInfo physicalInfo) {
+        this.packed = packed;
+        this.citizenId = citizenId;
+        this.valid = valid;
+        this.juridicalInfo = juridicalInfo;
+        this.physicalInfo = physicalInfo;
+    }
+
+    /**
+     * Method validates and decodes packed citizen id
+     * @param packed packed citizen id
+     * @return resolved citizen id
+     * @throws IllegalArgumentException if value is negative or has more than 12 digits
+     */
+    public static ResolvedCitizenId resolve(long packed) {
+        CitizenId citizenId = PackedCitizenId.toCitizenId(packed);
+        JuridicalInfo juridicalInfo = null;
+        PhysicalInfo physicalInfo = null;
+        if (citizenId.isJuridical()) {
+            juridicalInfo = JuridicalInfo.decode(packed);
+        } else if (PhysicalInfo.epochDayOf(packed) != PhysicalInfo.INVALID_EPOCH_DAY) {
+            physicalInfo = PhysicalInfo.decode(packed);
+        }
+        return new ResolvedCitizenId(packed, citizenId, Checksum.isValid(packed), juridicalInfo, physicalInfo);
+    }
+
+    /**
+     * Method return packed citizen id
+     * @return packed citizen id
+     */
+    public long longValue() {
+        return packed;
+    }
+
+    /**
+     * Method return citizen id
+     * @return citizen id
+     */
+    public CitizenId getCitizenId() {
+        return citizenId;
+    }
+
+    /**
+     * Method return type of citizen id
+     * @return type of citizen id
+     */
+    public CitizenType getType() {
+        return citizenId.getType();
+    }
+
+    /**
+     * Method return validity of citizen id
+     * @return true if control digit is correct
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Method return information about juridical subject. Information is decoded again if current year has changed
+     * the resolved year of registration since citizen id was resolved.
+     * @return decoded information or null if citizen id belongs to physical subject
+     */
+    public JuridicalInfo getJuridicalInfo() {
+        if (juridicalInfo != null && juridicalInfo.getYear() != JuridicalInfo.yearOf(packed)) {
+            return JuridicalInfo.decode(packed);
+        }
+        return juridicalInfo;
+    }
+
+    /**
+     * Method return information about physical subject
+     * @return decoded information or null if citizen id belongs to juridical subject or does not contain correct
+     * birth date
+     */
+    public PhysicalInfo getPhysicalInfo() {
+        return physicalInfo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ResolvedCitizenId that = (ResolvedCitizenId) o;
+
+        return packed == that.packed;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = PackedCitizenId.mix(packed);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return citizenId.getValue();
+    }
+}
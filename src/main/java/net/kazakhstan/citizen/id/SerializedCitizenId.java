@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Serialized form of {@link CitizenId}: 5 bytes of packed value written by {@link CitizenIdCodec}. Citizen id keeps
+ * its fields final, so it is replaced by this proxy when it is written and restored from packed value when it is read.
+ */
+final class SerializedCitizenId implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long packed;
+
+    /**
+     * Constructor is used by serialization
+     */
+    public SerializedCitizenId() {
+    }
+
+    SerializedCitizenId(CitizenId citizenId) {
+        this.packed = PackedCitizenId.pack(citizenId);
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        byte[] record = new byte[CitizenIdCodec.RECORD_SIZE];
+        CitizenIdCodec.write(packed, record, 0);
+        out.write(record);
+    }
+
+    public void readExternal(ObjectInput in) throws IOException {
+        byte[] record = new byte[CitizenIdCodec.RECORD_SIZE];
+        in.readFully(record);
+        try {
+            packed = CitizenIdCodec.readPacked(record, 0);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidObjectException(e.getMessage());
+        }
+    }
+
+    private Object readResolve() {
+        return PackedCitizenId.toCitizenId(packed);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Default implementation of metrics. Outcomes are counted by striped counters, durations of sampled operations are
+ * counted in histogram with fixed buckets which are powers of two nanoseconds. Current values are read by
+ * {@link #snapshot()}.
+ */
+public final class StripedCitizenIdMetrics implements CitizenIdMetrics {
+
+    static final int PARSED = 0;
+    static final int PARSED_TYPES = PARSED + CitizenIdStatus.values().length;
+    static final int VALIDATED = PARSED_TYPES + 2;
+    static final int DECODED = VALIDATED + 3 * 2;
+    static final int PARSE_LATENCY = DECODED + 2 * 2;
+    static final int VALIDATION_LATENCY = PARSE_LATENCY + LatencyHistogram.BUCKETS;
+    static final int DECODE_LATENCY = VALIDATION_LATENCY + LatencyHistogram.BUCKETS;
+    static final int COUNTERS = DECODE_LATENCY + LatencyHistogram.BUCKETS;
+
+    private static final int TICK_STRIDE = 16;
+
+    private final StripedCounters counters = new StripedCounters(COUNTERS);
+    private final int[] ticks = new int[counters.stripes() * TICK_STRIDE];
+    private final int sampleMask;
+
+    /**
+     * Constructor creates metrics which time every 64th operation of thread
+     */
+    public StripedCitizenIdMetrics() {
+        this(64);
+    }
+
+    /**
+     * Constructor creates metrics with given sampling of durations
+     * @param sampleRate power of two, every sampleRate-th operation of thread is timed, 1 times all operations
+     * @throws IllegalArgumentException if sample rate is not positive power of two
+     */
+    public StripedCitizenIdMetrics(int sampleRate) {
+        if (sampleRate <= 0 || Integer.bitCount(sampleRate) != 1) {
+            throw new IllegalArgumentException("Sample rate must be positive power of two: " + sampleRate);
+        }
+        this.sampleMask = sampleRate - 1;
+    }
+
+    public boolean sample() {
+        // ticks are not atomic: lost updates of concurrent threads only shift sampling
+        return (++ticks[counters.stripe() * TICK_STRIDE] & sampleMask) == 0;
+    }
+
+    public void parsed(CitizenIdStatus status, CitizenType type, long nanos) {
+        int stripe = counters.stripe();
+        counters.increment(stripe, PARSED + status.ordinal());
+        if (type != null) {
+            counters.increment(stripe, PARSED_TYPES + type.ordinal());
+        }
+        if (nanos >= 0) {
+            counters.increment(stripe, PARSE_LATENCY + LatencyHistogram.bucketOf(nanos));
+        }
+    }
+
+    public void validated(CitizenType type, boolean valid, long nanos) {
+        int stripe = counters.stripe();
+        counters.increment(stripe, validatedIndex(type, valid));
+        if (nanos >= 0) {
+            counters.increment(stripe, VALIDATION_LATENCY + LatencyHistogram.bucketOf(nanos));
+        }
+    }
+
+    public void decoded(CitizenType type, boolean success, long nanos) {
+        int stripe = counters.stripe();
+        counters.increment(stripe, decodedIndex(type, success));
+        if (nanos >= 0) {
+            counters.increment(stripe, DECODE_LATENCY + LatencyHistogram.bucketOf(nanos));
+        }
+    }
+
+    /**
+     * Method reads current values of all counters, counters are read one by one, so concurrent updates may be
+     * partially visible
+     * @return snapshot of counters
+     */
+    public CitizenIdMetricsSnapshot snapshot() {
+        return new CitizenIdMetricsSnapshot(counters.sums());
+    }
+
+    static int validatedIndex(CitizenType type, boolean valid) {
+        return VALIDATED + (type == null ? 0 : type.ordinal() + 1) * 2 + (valid ? 1 : 0);
+    }
+
+    static int decodedIndex(CitizenType type, boolean success) {
+        return DECODED + type.ordinal() * 2 + (success ? 1 : 0);
+    }
+}
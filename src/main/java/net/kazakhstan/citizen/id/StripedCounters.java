@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class contains group of counters which are spread over stripes, every thread increments counters of its own stripe
+ * and stripes are padded, so threads do not contend for cache lines. Value of counter is sum of all stripes.
+ */
+final class StripedCounters {
+
+    private static final int PADDING = 8;
+    private static final int MAX_STRIPES = 64;
+
+    private final AtomicLongArray cells;
+    private final int counters;
+    private final int stride;
+    private final int stripeMask;
+
+    StripedCounters(int counters) {
+        int stripes = 1;
+        while (stripes < Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors() * 2)) {
+            stripes <<= 1;
+        }
+        this.counters = counters;
+        this.stride = (counters + PADDING - 1) / PADDING * PADDING + PADDING;
+        this.stripeMask = stripes - 1;
+        this.cells = new AtomicLongArray((stripeMask + 1) * stride);
+    }
+
+    /**
+     * Method return stripe of calling thread
+     */
+    int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9e3779b97f4a7c15L) >>> 40) & stripeMask;
+    }
+
+    int stripes() {
+        return stripeMask + 1;
+    }
+
+    void increment(int stripe, int counter) {
+        cells.incrementAndGet(stripe * stride + counter);
+    }
+
+    long sum(int counter) {
+        long sum = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            sum += cells.get(stripe * stride + counter);
+        }
+        return sum;
+    }
+
+    long[] sums() {
+        long[] sums = new long[counters];
+        for (int counter = 0; counter < counters; counter++) {
+            sums[counter] = sum(counter);
+        }
+        return sums;
+    }
+}
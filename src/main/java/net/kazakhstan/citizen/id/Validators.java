@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.util.BitSet;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class gives shared stateless validators. Validator of a type rejects citizen ids of other type, {@link #auto()}
+ * accepts both types. All validators use the same static weight tables of checksum algorithm.
+ */
+public final class Validators {
+
+    private static final CitizenIdValidator AUTO = new TypedValidator(null);
+    private static final CitizenIdValidator PHYSICAL = new TypedValidator(CitizenType.PHYSICAL);
+    private static final CitizenIdValidator JURIDICAL = new TypedValidator(CitizenType.JURIDICAL);
+
+    private Validators() {
+    }
+
+    /**
+     * Method return validator which accepts citizen ids of any type
+     * @return shared validator
+     */
+    public static CitizenIdValidator auto() {
+        return AUTO;
+    }
+
+    /**
+     * Method return validator which accepts only citizen ids of given type
+     * @param type type of subject
+     * @return shared validator
+     * @throws IllegalArgumentException if type is null
+     */
+    public static CitizenIdValidator forType(CitizenType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Citizen type can not be empty");
+        }
+        return type == CitizenType.PHYSICAL ? PHYSICAL : JURIDICAL;
+    }
+
+    private static final class TypedValidator implements CitizenIdValidator {
+        private final CitizenType type;
+
+        private TypedValidator(CitizenType type) {
+            this.type = type;
+        }
+
+        public boolean isValid(CitizenId citizenId) {
+            if (citizenId == null) {
+                throw new IllegalArgumentException("Citizen id can not be empty");
+            }
+            CitizenIdMetrics metrics = CitizenIds.metrics;
+            long started = metrics == null ? 0 : CitizenIds.start(metrics);
+            boolean valid = accepts(citizenId.getType()) && ChecksumKernel.isValid(citizenId.getValue(), 0);
+            if (metrics != null) {
+                metrics.validated(citizenId.getType(), valid, CitizenIds.elapsed(started));
+            }
+            return valid;
+        }
+
+        public boolean isValid(CharSequence value) {
+            CitizenIdMetrics metrics = CitizenIds.metrics;
+            long started = metrics == null ? 0 : CitizenIds.start(metrics);
+            CitizenIdStatus status = CitizenId.validate(value);
+            CitizenType actual = status.isWellFormed() ? CitizenId.verifyType(value, 0) : null;
+            boolean valid = status == CitizenIdStatus.VALID && accepts(actual);
+            if (metrics != null) {
+                metrics.validated(actual, valid, CitizenIds.elapsed(started));
+            }
+            return valid;
+        }
+
+        public boolean isValid(long packed) {
+            CitizenIdMetrics metrics = CitizenIds.metrics;
+            long started = metrics == null ? 0 : CitizenIds.start(metrics);
+            CitizenType actual = packed >= 0 && packed <= PackedCitizenId.MAX_VALUE
+                    ? PackedCitizenId.typeOf(packed) : null;
+            boolean valid = actual != null && Checksum.isValid(packed) && accepts(actual);
+            if (metrics != null) {
+                metrics.validated(actual, valid, CitizenIds.elapsed(started));
+            }
+            return valid;
+        }
+
+        public int validateAll(CharSequence[] values, BitSet out) {
+            if (values == null || out == null) {
+                throw new IllegalArgumentException("Values and result can not be empty");
+            }
+            int count = 0;
+            for (int i = 0; i < values.length; i++) {
+                boolean valid = isValid(values[i]);
+                out.set(i, valid);
+                if (valid) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public int validateAll(long[] values, BitSet out) {
+            if (values == null || out == null) {
+                throw new IllegalArgumentException("Values and result can not be empty");
+            }
+            int count = 0;
+            for (int i = 0; i < values.length; i++) {
+                boolean valid = isValid(values[i]);
+                out.set(i, valid);
+                if (valid) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private boolean accepts(CitizenType actual) {
+            return type == null || type == actual;
+        }
+
+        @Override
+        public String toString() {
+            return type == null ? "AUTO" : type.toString();
+        }
+    }
+}
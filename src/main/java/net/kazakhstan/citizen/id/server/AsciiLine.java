@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id.server;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Reusable buffer of request line, citizen ids are validated directly in its bytes without creating strings
+ */
+final class AsciiLine {
+
+    private byte[] bytes = new byte[64];
+    private int length;
+
+    void reset() {
+        length = 0;
+    }
+
+    void append(byte[] src, int from, int to) {
+        int count = to - from;
+        if (length + count > bytes.length) {
+            byte[] copy = new byte[Math.max(bytes.length * 2, length + count)];
+            System.arraycopy(bytes, 0, copy, 0, length);
+            bytes = copy;
+        }
+        System.arraycopy(src, from, bytes, length, count);
+        length += count;
+    }
+
+    void truncate(int newLength) {
+        length = newLength;
+    }
+
+    int length() {
+        return length;
+    }
+
+    byte byteAt(int index) {
+        return bytes[index];
+    }
+
+    /**
+     * Method return internal array, only first {@link #length()} bytes belong to line
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id.server;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class implements TCP server which validates and decodes citizen ids for clients written in other languages. Protocol
+ * is described by {@link ValidationProtocol}: one request per line, one response per line. Clients may pipeline
+ * requests, responses are flushed when all received requests are answered, so a batch of requests is answered by
+ * one write. Every connection is served by its own thread which is created by thread factory; on JDK 21 the default
+ * factory creates virtual threads.
+ */
+public class CitizenIdServer implements Closeable {
+
+    /**
+     * Port which is used by command line server and load client by default
+     */
+    public static final int DEFAULT_PORT = 7121;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_LINE_LENGTH = 1024;
+
+    private final ServerSocket serverSocket;
+    private final ThreadFactory threadFactory;
+    private final Set<Socket> connections = new HashSet<Socket>();
+    private volatile boolean closed;
+
+    /**
+     * Constructor binds server to loopback interface, connections are served by daemon threads or by
+     * virtual threads on JDK 21
+     * @param port port or 0 for any free port
+     * @throws IOException if port can not be bound
+     */
+    public CitizenIdServer(int port) throws IOException {
+        this(InetAddress.getByName(null), port, ConnectionThreads.newFactory());
+    }
+
+    /**
+     * Constructor binds server to address
+     * @param address local address, for example loopback address
+     * @param port port or 0 for any free port
+     * @param threadFactory factory of threads which accept and serve connections
+     * @throws IOException if port can not be bound
+     * @throws IllegalArgumentException if address or thread factory is null
+     */
+    public CitizenIdServer(InetAddress address, int port, ThreadFactory threadFactory) throws IOException {
+        if (address == null || threadFactory == null) {
+            throw new IllegalArgumentException("Address and thread factory can not be empty");
+        }
+        this.threadFactory = threadFactory;
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(address, port));
+    }
+
+    /**
+     * Method starts accepting connections
+     * @return this server
+     */
+    public CitizenIdServer start() {
+        threadFactory.newThread(new Runnable() {
+            public void run() {
+                accept();
+            }
+        }).start();
+        return this;
+    }
+
+    /**
+     * Method return port which server is bound to
+     * @return local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Method stops accepting connections and closes open connections
+     * @throws IOException if server socket can not be closed
+     */
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        synchronized (connections) {
+            for (Socket connection : connections) {
+                closeQuietly(connection);
+            }
+            connections.clear();
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            synchronized (connections) {
+                if (closed) {
+                    closeQuietly(socket);
+                    return;
+                }
+                connections.add(socket);
+            }
+            threadFactory.newThread(new Runnable() {
+                public void run() {
+                    try {
+                        serve(socket);
+                    } catch (IOException e) {
+                        // connection is dropped, client gets no more responses
+                    } finally {
+                        synchronized (connections) {
+                            connections.remove(socket);
+                        }
+                        closeQuietly(socket);
+                    }
+                }
+            }).start();
+        }
+    }
+
+    /**
+     * Method reads requests into array and scans it for line ends, responses are flushed when no more requests are
+     * available
+     */
+    private static void serve(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        InputStream in = socket.getInputStream();
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+        ValidationProtocol protocol = new ValidationProtocol();
+        AsciiLine line = new AsciiLine();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            int start = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    append(line, buffer, start, i);
+                    respond(protocol, line, out);
+                    start = i + 1;
+                }
+            }
+            append(line, buffer, start, read);
+            if (in.available() == 0) {
+                out.flush();
+            }
+        }
+        if (line.length() > 0) {
+            respond(protocol, line, out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Method appends part of request to line, bytes above maximal length of line are dropped
+     */
+    private static void append(AsciiLine line, byte[] buffer, int from, int to) {
+        int count = Math.min(to - from, MAX_LINE_LENGTH - line.length());
+        if (count > 0) {
+            line.append(buffer, from, from + count);
+        }
+    }
+
+    private static void respond(ValidationProtocol protocol, AsciiLine line, OutputStream out) throws IOException {
+        if (line.length() > 0 && line.byteAt(line.length() - 1) == '\r') {
+            line.truncate(line.length() - 1);
+        }
+        protocol.respond(line, out);
+        line.reset();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // socket is already unusable
+        }
+    }
+
+    /**
+     * Command line entry point which starts server on loopback interface and serves until process is stopped
+     * @param args options
+     * @throws IOException if port can not be bound
+     * @throws InterruptedException if main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = DEFAULT_PORT;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--port") && i + 1 < args.length) {
+                    port = Integer.parseInt(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: CitizenIdServer [--port N]");
+            System.exit(2);
+            return;
+        }
+        CitizenIdServer server = new CitizenIdServer(port).start();
+        System.out.println("listening: " + server.serverSocket.getLocalSocketAddress());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id.server;
+
+import net.kazakhstan.citizen.id.CitizenId;
+import net.kazakhstan.citizen.id.CitizenIdGenerator;
+import net.kazakhstan.citizen.id.CitizenIdStreams;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class generates load for {@link CitizenIdServer}. Every connection sends batches of pipelined requests with citizen
+ * ids from {@link CitizenIdGenerator}, waits for all responses of batch and checks statuses against local validation.
+ */
+public class LoadClient {
+
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private int connections = 4;
+    private int batches = 1000;
+    private int batchSize = 64;
+    private long seed;
+    private double invalidRatio = 0.1;
+    private boolean decode;
+
+    /**
+     * Method sets number of concurrent connections, default is 4
+     * @param connections number of connections
+     * @return this client
+     */
+    public LoadClient connections(int connections) {
+        if (connections <= 0) {
+            throw new IllegalArgumentException("Number of connections must be positive: " + connections);
+        }
+        this.connections = connections;
+        return this;
+    }
+
+    /**
+     * Method sets number of batches which are sent by every connection, default is 1000
+     * @param batches number of batches
+     * @return this client
+     */
+    public LoadClient batches(int batches) {
+        if (batches <= 0) {
+            throw new IllegalArgumentException("Number of batches must be positive: " + batches);
+        }
+        this.batches = batches;
+        return this;
+    }
+
+    /**
+     * Method sets number of pipelined requests in batch, default is 64. Batch is written before responses are read, so
+     * its size is limited to fit buffers of server.
+     * @param batchSize number of requests between 1 and 1024
+     * @return this client
+     */
+    public LoadClient batchSize(int batchSize) {
+        if (batchSize <= 0 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE + ": " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Method sets seed of generated citizen ids
+     * @param seed seed
+     * @return this client
+     */
+    public LoadClient seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Method sets share of citizen ids with wrong control digit, default is 0.1
+     * @param invalidRatio share between 0 and 1
+     * @return this client
+     */
+    public LoadClient invalidRatio(double invalidRatio) {
+        if (!(invalidRatio >= 0 && invalidRatio <= 1)) {
+            throw new IllegalArgumentException("Ratio must be between 0 and 1: " + invalidRatio);
+        }
+        this.invalidRatio = invalidRatio;
+        return this;
+    }
+
+    /**
+     * Method switches requests from validation to decoding
+     * @param decode true if decode requests should be sent
+     * @return this client
+     */
+    public LoadClient decode(boolean decode) {
+        this.decode = decode;
+        return this;
+    }
+
+    /**
+     * Method runs load test against server on loopback interface
+     * @param port port of server
+     * @return results of load test
+     * @throws IOException if connection fails
+     */
+    public LoadReport run(int port) throws IOException {
+        final InetAddress address = InetAddress.getByName(null);
+        final CitizenIdGenerator generator = CitizenIdGenerator.builder()
+                .seed(seed)
+                .invalidRatio(invalidRatio)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        try {
+            List<Future<Connection>> futures = new ArrayList<Future<Connection>>();
+            long started = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                futures.add(executor.submit(new Connection(address, port, generator, (long) i * batches * batchSize)));
+            }
+            long requests = 0;
+            long mismatches = 0;
+            long[] latencies = new long[connections * batches];
+            int count = 0;
+            for (Future<Connection> future : futures) {
+                Connection connection = await(future);
+                requests += (long) batches * batchSize;
+                mismatches += connection.mismatches;
+                System.arraycopy(connection.latencies, 0, latencies, count, batches);
+                count += batches;
+            }
+            return new LoadReport(requests, mismatches, System.nanoTime() - started, latencies);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Connection await(Future<Connection> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Load test was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private final class Connection implements Callable<Connection> {
+        private final InetAddress address;
+        private final int port;
+        private final CitizenIdGenerator generator;
+        private final long firstIndex;
+        private final long[] latencies = new long[batches];
+        private long mismatches;
+
+        private Connection(InetAddress address, int port, CitizenIdGenerator generator, long firstIndex) {
+            this.address = address;
+            this.port = port;
+            this.generator = generator;
+            this.firstIndex = firstIndex;
+        }
+
+        public Connection call() throws IOException {
+            Socket socket = new Socket(address, port);
+            try {
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                InputStream in = new BufferedInputStream(socket.getInputStream(), 1 << 16);
+                int requestLength = CitizenId.LENGTH + 3;
+                byte[] request = new byte[batchSize * requestLength];
+                byte[][] expected = new byte[batchSize][];
+                byte[] response = new byte[256];
+                long[] ids = new long[batchSize];
+                for (int batch = 0; batch < batches; batch++) {
+                    generator.fill(ids, 0, batchSize, firstIndex + (long) batch * batchSize);
+                    for (int i = 0; i < batchSize; i++) {
+                        int position = i * requestLength;
+                        request[position] = (byte) (decode ? 'D' : 'V');
+                        request[position + 1] = ' ';
+                        long packed = ids[i];
+                        for (int digit = CitizenId.LENGTH - 1; digit >= 0; digit--) {
+                            request[position + 2 + digit] = (byte) ('0' + packed % 10);
+                            packed /= 10;
+                        }
+                        request[position + requestLength - 1] = '\n';
+                        expected[i] = CitizenIdStreams.statusOf(ids[i]).name().getBytes("US-ASCII");
+                    }
+                    long started = System.nanoTime();
+                    out.write(request);
+                    out.flush();
+                    for (int i = 0; i < batchSize; i++) {
+                        int length = readLine(in, response);
+                        if (!startsWithStatus(response, length, expected[i])) {
+                            mismatches++;
+                        }
+                    }
+                    latencies[batch] = System.nanoTime() - started;
+                }
+                return this;
+            } finally {
+                socket.close();
+            }
+        }
+    }
+
+    private static int readLine(InputStream in, byte[] line) throws IOException {
+        int length = 0;
+        int value;
+        while ((value = in.read()) != '\n') {
+            if (value < 0) {
+                throw new EOFException("Server closed connection");
+            }
+            if (length < line.length) {
+                line[length++] = (byte) value;
+            }
+        }
+        return length;
+    }
+
+    private static boolean startsWithStatus(byte[] line, int length, byte[] status) {
+        if (length < status.length || (length > status.length && line[status.length] != ' ')) {
+            return false;
+        }
+        for (int i = 0; i < status.length; i++) {
+            if (line[i] != status[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Command line entry point which runs load test against server on loopback interface and prints report
+     * @param args options
+     * @throws IOException if connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        LoadClient client = new LoadClient();
+        int port = CitizenIdServer.DEFAULT_PORT;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--port")) {
+                    port = Integer.parseInt(optionValue(args, ++i));
+                } else if (arg.equals("--connections")) {
+                    client.connections(Integer.parseInt(optionValue(args, ++i)));
+                } else if (arg.equals("--batches")) {
+                    client.batches(Integer.parseInt(optionValue(args, ++i)));
+                } else if (arg.equals("--batch-size")) {
+                    client.batchSize(Integer.parseInt(optionValue(args, ++i)));
+                } else if (arg.equals("--seed")) {
+                    client.seed(Long.parseLong(optionValue(args, ++i)));
+                } else if (arg.equals("--invalid-ratio")) {
+                    client.invalidRatio(Double.parseDouble(optionValue(args, ++i)));
+                } else if (arg.equals("--decode")) {
+                    client.decode(true);
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: LoadClient [--port N] [--connections N] [--batches N] [--batch-size N]"
+                    + " [--seed N] [--invalid-ratio R] [--decode]");
+            System.exit(2);
+            return;
+        }
+        System.out.print(client.run(port));
+    }
+
+    private static String optionValue(String[] args, int index) {
+        if (index >= args.length || args[index].length() == 0) {
+            throw new IllegalArgumentException("Option " + args[index - 1] + " requires value");
+        }
+        return args[index];
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id.server;
+
+import java.util.Arrays;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class contains results of load test: throughput and latency of request batches
+ */
+public class LoadReport {
+
+    private final long requests;
+    private final long mismatches;
+    private final long nanos;
+    private final long[] latencies;
+
+    LoadReport(long requests, long mismatches, long nanos, long[] latencies) {
+        this.requests = requests;
+        this.mismatches = mismatches;
+        this.nanos = nanos;
+        this.latencies = latencies;
+        Arrays.sort(this.latencies);
+    }
+
+    /**
+     * Method return number of answered requests
+     * @return number of requests
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Method return number of responses which differ from local validation
+     * @return number of wrong responses
+     */
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Method return duration of load test
+     * @return duration in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Method return throughput of server
+     * @return number of requests per second
+     */
+    public double getThroughput() {
+        return nanos == 0 ? 0 : requests * 1e9 / nanos;
+    }
+
+    /**
+     * Method return percentile of round trip time of batch: from sending first request to receiving last response
+     * @param percentile percentile between 0 and 100
+     * @return latency in nanoseconds or 0 if no batches were sent
+     * @throws IllegalArgumentException if percentile is outside of range
+     */
+    public long getLatency(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+        return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+    }
+
+    @Override
+    public String toString() {
+        return "requests: " + requests + "\n"
+                + "mismatches: " + mismatches + "\n"
+                + "batches: " + latencies.length + "\n"
+                + "throughput: " + Math.round(getThroughput()) + " requests/s\n"
+                + "p50: " + getLatency(50) / 1000 + " us\n"
+                + "p99: " + getLatency(99) / 1000 + " us\n";
+    }
+}
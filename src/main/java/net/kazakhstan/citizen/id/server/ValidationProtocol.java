@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id.server;
+
+import net.kazakhstan.citizen.id.CitizenIdBytes;
+import net.kazakhstan.citizen.id.CitizenIdStatus;
+import net.kazakhstan.citizen.id.CitizenType;
+import net.kazakhstan.citizen.id.Gender;
+import net.kazakhstan.citizen.id.JuridicalInfo;
+import net.kazakhstan.citizen.id.PackedCitizenId;
+import net.kazakhstan.citizen.id.PhysicalInfo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class implements line protocol of validation server. Every request is one line of ASCII text, every response is one
+ * line too, responses are sent in order of requests:
+ * <ul>
+ *     <li>{@code V <citizen id>} answers status of validation, for example {@code VALID} or {@code BAD_CHECKSUM}</li>
+ *     <li>{@code D <citizen id>} answers status and decoded information of valid citizen id:
+ *     {@code VALID PHYSICAL <year> <month> <day> <gender>} or
+ *     {@code VALID JURIDICAL <year> <month> <organization type> <department type> <order number>}, month is 1-12,
+ *     fields which can not be decoded are {@code -}</li>
+ *     <li>any other line answers {@code ERROR <message>}</li>
+ * </ul>
+ */
+final class ValidationProtocol {
+
+    private static final byte[][] STATUSES = new byte[CitizenIdStatus.values().length][];
+    private static final byte[] UNKNOWN_COMMAND = ascii("ERROR unknown command\n");
+
+    static {
+        for (CitizenIdStatus status : CitizenIdStatus.values()) {
+            STATUSES[status.ordinal()] = ascii(status.name() + "\n");
+        }
+    }
+
+    private final StringBuilder decoded = new StringBuilder();
+
+    /**
+     * Method writes response to request line
+     * @param line request without line separator
+     * @param out stream which receives response
+     * @throws IOException if response can not be written
+     */
+    void respond(AsciiLine line, OutputStream out) throws IOException {
+        if (line.length() < 2 || line.byteAt(1) != ' ') {
+            out.write(UNKNOWN_COMMAND);
+            return;
+        }
+        byte command = line.byteAt(0);
+        if (command != 'V' && command != 'D') {
+            out.write(UNKNOWN_COMMAND);
+            return;
+        }
+        CitizenIdStatus status = CitizenIdBytes.validateField(line.bytes(), 2, line.length());
+        if (command == 'V' || status != CitizenIdStatus.VALID) {
+            out.write(STATUSES[status.ordinal()]);
+            return;
+        }
+        long packed = CitizenIdBytes.tryPack(line.bytes(), 2);
+        decoded.setLength(0);
+        decoded.append(status.name());
+        if (PackedCitizenId.typeOf(packed) == CitizenType.PHYSICAL) {
+            appendPhysical(packed);
+        } else {
+            appendJuridical(packed);
+        }
+        decoded.append('\n');
+        for (int i = 0; i < decoded.length(); i++) {
+            out.write(decoded.charAt(i));
+        }
+    }
+
+    private void appendPhysical(long packed) {
+        decoded.append(" PHYSICAL");
+        if (PhysicalInfo.epochDayOf(packed) == PhysicalInfo.INVALID_EPOCH_DAY) {
+            decoded.append(" - - -");
+            Gender gender = PhysicalInfo.genderOf(packed);
+            decoded.append(' ').append(gender == null ? "-" : gender);
+            return;
+        }
+        PhysicalInfo info = PhysicalInfo.decode(packed);
+        decoded.append(' ').append(info.getBirthYear())
+                .append(' ').append(info.getBirthMonth() + 1)
+                .append(' ').append(info.getBirthDay())
+                .append(' ').append(info.getGender());
+    }
+
+    private void appendJuridical(long packed) {
+        JuridicalInfo info = JuridicalInfo.decode(packed);
+        decoded.append(" JURIDICAL ").append(info.getYear()).append(' ');
+        if (info.getMonth() < 0) {
+            decoded.append('-');
+        } else {
+            decoded.append(info.getMonth() + 1);
+        }
+        decoded.append(' ').append(info.getOrganizationType() == null ? "-" : info.getOrganizationType())
+                .append(' ').append(info.getDepartmentType() == null ? "-" : info.getDepartmentType())
+                .append(' ').append(info.getOrderNumber());
+    }
+
+    private static byte[] ascii(String value) {
+        byte[] bytes = new byte[value.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) value.charAt(i);
+        }
+        return bytes;
+    }
+}
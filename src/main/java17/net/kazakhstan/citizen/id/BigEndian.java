@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class reads big endian values from byte arrays and buffers through view var handles, so every value is loaded by
+ * one bounds checked access instead of eight single bytes, and order of buffer is not consulted. The class replaces
+ * baseline implementation in multi-release jar.
+ */
+final class BigEndian {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle BUFFER_LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle BUFFER_INTS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private BigEndian() {
+    }
+
+    static long getLong(byte[] src, int offset) {
+        return (long) LONGS.get(src, offset);
+    }
+
+    static int getInt(byte[] src, int offset) {
+        return (int) INTS.get(src, offset);
+    }
+
+    static long getLong(ByteBuffer buffer, int index) {
+        return (long) BUFFER_LONGS.get(buffer, index);
+    }
+
+    static int getInt(ByteBuffer buffer, int index) {
+        return (int) BUFFER_INTS.get(buffer, index);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id.server;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Class creates default factory of virtual threads, so idle connections do not hold platform threads. The class
+ * replaces baseline implementation in multi-release jar.
+ */
+final class ConnectionThreads {
+
+    private ConnectionThreads() {
+    }
+
+    static ThreadFactory newFactory() {
+        return Thread.ofVirtual().name("citizen-id-server-", 1).factory();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class BigEndianTests {
+
+    @Test
+    public void shouldReadAsByteBuffer() throws Exception {
+        byte[] bytes = new byte[64];
+        new Random(1).nextBytes(bytes);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int offset = 0; offset + 8 <= bytes.length; offset++) {
+            assertEquals(buffer.getLong(offset), BigEndian.getLong(bytes, offset));
+            assertEquals(buffer.getInt(offset), BigEndian.getInt(bytes, offset));
+        }
+    }
+
+    @Test
+    public void shouldReadBigEndianFromBufferOfAnyOrder() throws Exception {
+        byte[] bytes = new byte[64];
+        new Random(2).nextBytes(bytes);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).clear();
+        ByteBuffer[] buffers = {ByteBuffer.wrap(bytes), ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN),
+                direct, direct.duplicate().order(ByteOrder.LITTLE_ENDIAN), ByteBuffer.wrap(bytes).asReadOnlyBuffer()};
+        for (ByteBuffer buffer : buffers) {
+            for (int offset = 0; offset + 8 <= bytes.length; offset++) {
+                assertEquals(BigEndian.getLong(bytes, offset), BigEndian.getLong(buffer, offset));
+                assertEquals(BigEndian.getInt(bytes, offset), BigEndian.getInt(buffer, offset));
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectLongOutOfBuffer() throws Exception {
+        BigEndian.getLong(ByteBuffer.allocate(12), 5);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectLongOutOfArray() throws Exception {
+        BigEndian.getLong(new byte[12], 5);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectIntOutOfArray() throws Exception {
+        BigEndian.getInt(new byte[12], -1);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class BulkValidatorTests {
+
+    private File file;
+    private File rejectFile;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("citizen-id", ".csv");
+        rejectFile = File.createTempFile("citizen-id", ".rejects");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        file.delete();
+        rejectFile.delete();
+    }
+
+    private void write(String content) throws Exception {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void shouldCountValidAndInvalidIds() throws Exception {
+        write("880319350220\n081140000436\r\n880319350221\n88031935022\n\n8803193502a0\n000740000728");
+        BulkValidationReport report = new BulkValidator().validate(file);
+        assertEquals(7, report.getLines());
+        assertEquals(3, report.getValid());
+        assertEquals(4, report.getInvalid());
+        assertEquals(1, report.getPhysical());
+        assertEquals(2, report.getJuridical());
+        assertEquals(1, report.getCount(CitizenIdStatus.BAD_CHECKSUM));
+        assertEquals(1, report.getCount(CitizenIdStatus.WRONG_LENGTH));
+        assertEquals(1, report.getCount(CitizenIdStatus.EMPTY));
+        assertEquals(1, report.getCount(CitizenIdStatus.NON_DIGIT));
+        assertEquals(file.length(), report.getBytes());
+    }
+
+    @Test
+    public void shouldTakeIdFromColumn() throws Exception {
+        write("name;id\nfirst;880319350220;x\nsecond;\"081140000436\"\nthird\n");
+        BulkValidationReport report = new BulkValidator().delimiter(';').column(1).skipHeader(true).validate(file);
+        assertEquals(3, report.getLines());
+        assertEquals(2, report.getValid());
+        assertEquals(1, report.getCount(CitizenIdStatus.EMPTY));
+    }
+
+    @Test
+    public void shouldGiveSameTotalsForSmallChunks() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (long packed = 880319350000L; packed < 880319352000L; packed++) {
+            content.append(PackedCitizenId.unpack(packed)).append('\n');
+        }
+        write(content.toString());
+        BulkValidationReport single = new BulkValidator().threads(1).validate(file);
+        BulkValidationReport parallel = new BulkValidator().threads(4).chunkSize(100).validate(file);
+        assertEquals(2000, single.getLines());
+        assertEquals(single.getLines(), parallel.getLines());
+        assertEquals(single.getValid(), parallel.getValid());
+        assertEquals(single.getCount(CitizenIdStatus.BAD_CHECKSUM), parallel.getCount(CitizenIdStatus.BAD_CHECKSUM));
+        int valid = 0;
+        for (long packed = 880319350000L; packed < 880319352000L; packed++) {
+            if (PackedCitizenId.isValid(packed)) {
+                valid++;
+            }
+        }
+        assertEquals(valid, parallel.getValid());
+    }
+
+    @Test
+    public void shouldWriteOffsetsOfRejectedLines() throws Exception {
+        write("880319350220\n880319350221\n880319350220\nabc\n");
+        new BulkValidator().chunkSize(13).validate(file, rejectFile);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(rejectFile), "US-ASCII"));
+        try {
+            assertEquals("13\tBAD_CHECKSUM", reader.readLine());
+            assertEquals("39\tWRONG_LENGTH", reader.readLine());
+            assertNull(reader.readLine());
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class ChecksumKernelTests {
+
+    @Test
+    public void shouldGiveSameResultsAsScalarAlgorithm() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            long packed = (random.nextLong() >>> 1) % (PackedCitizenId.MAX_VALUE + 1);
+            String value = PackedCitizenId.unpack(packed);
+            boolean expected = Checksum.isValid(value, 0);
+            assertEquals(value, expected, ChecksumKernel.isValid(value, 0));
+            assertEquals(value, expected, ChecksumKernel.isValid(TestIds.ascii(value), 0));
+            assertEquals(value, expected, Checksum.isValid(packed));
+            assertEquals(Checksum.controlDigit(value, 0), ChecksumKernel.controlDigit(
+                    ChecksumKernel.high(TestIds.ascii(value), 0), ChecksumKernel.low(TestIds.ascii(value), 0)));
+        }
+    }
+
+    @Test
+    public void shouldValidateKnownIds() throws Exception {
+        assertTrue(ChecksumKernel.isValid("880319350220", 0));
+        assertTrue(ChecksumKernel.isValid("081140000436", 0));
+        assertTrue(ChecksumKernel.isValid("000740000728", 0));
+        assertFalse(ChecksumKernel.isValid("880319350221", 0));
+    }
+
+    @Test
+    public void shouldRejectNonDigits() throws Exception {
+        assertFalse(ChecksumKernel.isValid("8803193502 0", 0));
+        assertFalse(ChecksumKernel.isValid("88031935022:", 0));
+        assertFalse(ChecksumKernel.isValid("/80319350220", 0));
+        assertFalse(ChecksumKernel.isValid("88031935İ0220", 0));
+        byte[] bytes = TestIds.ascii("880319350220");
+        bytes[3] = (byte) 0xB3;
+        assertFalse(ChecksumKernel.isValid(bytes, 0));
+    }
+
+    @Test
+    public void shouldValidateIdInBufferOfAnyOrder() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put(TestIds.ascii("  880319350220"));
+        assertTrue(ChecksumKernel.isValid(buffer, 2));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        assertTrue(ChecksumKernel.isValid(buffer, 2));
+        assertFalse(ChecksumKernel.isValid(buffer, 1));
+    }
+
+    @Test
+    public void shouldValidateFixedWidthRecords() throws Exception {
+        StringBuilder records = new StringBuilder();
+        for (long packed = 880319350000L; packed < 880319350100L; packed++) {
+            records.append(PackedCitizenId.unpack(packed)).append('\n');
+        }
+        long[] bits = new long[2];
+        int valid = ChecksumKernel.validateAll(TestIds.ascii(records.toString()), 0, 13, 100, bits);
+        int expected = 0;
+        for (int i = 0; i < 100; i++) {
+            boolean isValid = PackedCitizenId.isValid(880319350000L + i);
+            assertEquals(isValid, (bits[i >>> 6] & (1L << i)) != 0);
+            if (isValid) {
+                expected++;
+            }
+        }
+        assertEquals(expected, valid);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotValidateRecordsOutsideOfArray() throws Exception {
+        ChecksumKernel.validateAll(TestIds.ascii("880319350220"), 1, 12, 1, new long[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptStrideLessThanLength() throws Exception {
+        ChecksumKernel.validateAll(TestIds.ascii("880319350220"), 0, 11, 1, new long[1]);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdBloomFilterTests {
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("citizen-id", ".bloom");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        file.delete();
+    }
+
+    private static CitizenIdBloomFilter filterOf(long[] ids, double falsePositiveRate) {
+        return CitizenIdBloomFilter.builder()
+                .expectedSize(ids.length)
+                .falsePositiveRate(falsePositiveRate)
+                .addAllPacked(ids)
+                .build();
+    }
+
+    @Test
+    public void shouldContainAddedIds() throws Exception {
+        CitizenIdBloomFilter filter = CitizenIdBloomFilter.builder()
+                .add("880319350220")
+                .add(new CitizenId("081140000436"))
+                .addPacked(740000728L)
+                .build();
+        assertEquals(3, filter.getCount());
+        assertTrue(filter.mightContain("880319350220"));
+        assertTrue(filter.mightContain(new CitizenId("081140000436")));
+        assertTrue(filter.mightContain("000740000728"));
+        assertTrue(filter.mightContain(880319350220L));
+    }
+
+    @Test
+    public void shouldNotContainIncorrectValues() throws Exception {
+        CitizenIdBloomFilter filter = CitizenIdBloomFilter.builder().add("880319350220").build();
+        assertFalse(filter.mightContain("88031935022"));
+        assertFalse(filter.mightContain("88031935022a"));
+        assertFalse(filter.mightContain((CharSequence) null));
+        assertFalse(filter.mightContain((CitizenId) null));
+        assertFalse(filter.mightContain(-1L));
+        assertFalse(filter.mightContain(PackedCitizenId.MAX_VALUE + 1));
+    }
+
+    @Test
+    public void shouldHaveNoFalseNegatives() throws Exception {
+        long[] ids = TestIds.generated(1, 100000);
+        CitizenIdBloomFilter filter = filterOf(ids, 0.01);
+        for (long id : ids) {
+            assertTrue(filter.mightContain(id));
+        }
+    }
+
+    @Test
+    public void shouldKeepFalsePositiveRateNearTarget() throws Exception {
+        double[] rates = {0.1, 0.01, 0.001};
+        long[] ids = TestIds.generated(1, 100000);
+        long[] others = TestIds.generated(2, 200000);
+        for (double rate : rates) {
+            CitizenIdBloomFilter filter = filterOf(ids, rate);
+            int positives = 0;
+            for (long other : others) {
+                if (filter.mightContain(other)) {
+                    positives++;
+                }
+            }
+            double observed = (double) positives / others.length;
+            assertTrue("Rate " + observed + " is too high for " + rate, observed < rate * 2);
+        }
+    }
+
+    @Test
+    public void shouldSizeFilterFromRate() throws Exception {
+        CitizenIdBloomFilter filter = CitizenIdBloomFilter.builder()
+                .expectedSize(1000000)
+                .falsePositiveRate(0.01)
+                .build();
+        assertEquals(7, filter.getHashCount());
+        assertTrue(filter.getBitSize() >= 9585059);
+        assertEquals(0, filter.getBitSize() % 512);
+        assertEquals(0, filter.getCount());
+        assertFalse(filter.mightContain(880319350220L));
+    }
+
+    @Test
+    public void shouldReadWrittenFilter() throws Exception {
+        long[] ids = TestIds.generated(3, 50000);
+        CitizenIdBloomFilter filter = filterOf(ids, 0.001);
+        filter.writeTo(file);
+        assertEquals(24 + filter.getBitSize() / 8, file.length());
+        CitizenIdBloomFilter read = CitizenIdBloomFilter.readFrom(file);
+        assertEquals(filter.getHashCount(), read.getHashCount());
+        assertEquals(filter.getBitSize(), read.getBitSize());
+        assertEquals(filter.getCount(), read.getCount());
+        for (long id : ids) {
+            assertTrue(read.mightContain(id));
+        }
+        for (long other : TestIds.generated(4, 50000)) {
+            assertEquals(filter.mightContain(other), read.mightContain(other));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectFileOfOtherFormat() throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[64]);
+        } finally {
+            out.close();
+        }
+        CitizenIdBloomFilter.readFrom(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectTruncatedFile() throws Exception {
+        filterOf(TestIds.generated(5, 1000), 0.01).writeTo(file);
+        FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            out.getChannel().truncate(file.length() - 8);
+        } finally {
+            out.close();
+        }
+        CitizenIdBloomFilter.readFrom(file);
+    }
+
+    @Test
+    public void shouldAnswerConcurrentReads() throws Exception {
+        final long[] ids = TestIds.generated(6, 20000);
+        final CitizenIdBloomFilter filter = filterOf(ids, 0.01);
+        final AtomicInteger misses = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (long id : ids) {
+                        if (!filter.mightContain(id)) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, misses.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIncorrectRate() throws Exception {
+        CitizenIdBloomFilter.builder().falsePositiveRate(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIncorrectSize() throws Exception {
+        CitizenIdBloomFilter.builder().expectedSize(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIncorrectPackedId() throws Exception {
+        CitizenIdBloomFilter.builder().addPacked(-1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectResizeAfterAdd() throws Exception {
+        CitizenIdBloomFilter.builder().addPacked(880319350220L).expectedSize(100);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectAddAfterBuild() throws Exception {
+        CitizenIdBloomFilter.Builder builder = CitizenIdBloomFilter.builder();
+        builder.build();
+        builder.addPacked(880319350220L);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Calendar;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdBytesTests {
+    @Test
+    public void shouldValidateBytesInPlace() throws Exception {
+        byte[] frame = TestIds.ascii("##880319350220##880319350221##88031935022");
+        assertEquals(CitizenIdStatus.VALID, CitizenIdBytes.validate(frame, 2));
+        assertEquals(CitizenIdStatus.BAD_CHECKSUM, CitizenIdBytes.validate(frame, 16));
+        assertEquals(CitizenIdStatus.NON_DIGIT, CitizenIdBytes.validate(frame, 0));
+        assertEquals(CitizenIdStatus.WRONG_LENGTH, CitizenIdBytes.validate(frame, 30));
+        assertEquals(CitizenIdStatus.EMPTY, CitizenIdBytes.validate(frame, frame.length));
+    }
+
+    @Test
+    public void shouldValidateBuffersOfAnyKind() throws Exception {
+        byte[] frame = TestIds.ascii("##081140000436");
+        ByteBuffer[] buffers = {
+                ByteBuffer.wrap(frame),
+                ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN),
+                ByteBuffer.allocateDirect(frame.length).put(frame),
+                ByteBuffer.allocateDirect(frame.length).order(ByteOrder.LITTLE_ENDIAN).put(frame)
+        };
+        for (ByteBuffer buffer : buffers) {
+            int position = buffer.position();
+            assertEquals(CitizenIdStatus.VALID, CitizenIdBytes.validate(buffer, 2));
+            assertEquals(81140000436L, CitizenIdBytes.tryPack(buffer, 2));
+            assertEquals(CitizenType.JURIDICAL, CitizenIdBytes.typeOf(buffer, 2));
+            assertEquals(new CitizenId("081140000436"), CitizenIdBytes.toCitizenId(buffer, 2));
+            assertEquals(2008, CitizenIdBytes.decodeJuridical(buffer, 2).getYear());
+            assertEquals(position, buffer.position());
+        }
+    }
+
+    @Test
+    public void shouldPackLikeText() throws Exception {
+        CitizenIdGenerator generator = CitizenIdGenerator.builder().seed(4).invalidRatio(0.3).build();
+        for (long index = 0; index < 10000; index++) {
+            String value = PackedCitizenId.unpack(generator.get(index));
+            byte[] bytes = TestIds.ascii(value);
+            assertEquals(value, PackedCitizenId.tryPack(value), CitizenIdBytes.tryPack(bytes, 0));
+            assertEquals(value, CitizenId.validate(value), CitizenIdBytes.validate(bytes, 0));
+        }
+        assertEquals(999999999999L, CitizenIdBytes.tryPack(TestIds.ascii("999999999999"), 0));
+        assertEquals(0L, CitizenIdBytes.tryPack(TestIds.ascii("000000000000"), 0));
+        assertEquals(PackedCitizenId.INVALID, CitizenIdBytes.tryPack(TestIds.ascii("88031935022/"), 0));
+        assertNull(CitizenIdBytes.typeOf(TestIds.ascii("88031935022"), 0));
+    }
+
+    @Test
+    public void shouldDecodePhysicalSubject() throws Exception {
+        PhysicalInfo info = CitizenIdBytes.decodePhysical(TestIds.ascii("880319350220"), 0);
+        assertEquals(1988, info.getBirthYear());
+        assertEquals(Calendar.MARCH, info.getBirthMonth());
+        assertEquals(19, info.getBirthDay());
+    }
+
+    @Test
+    public void shouldValidateFieldsLikeText() throws Exception {
+        String[] values = {"880319350220", "880319350221", "", " 880319350220", "88031935022", "8803193502200",
+                "88031935022a", "  8803193502 ", "880319350220 "};
+        for (String value : values) {
+            byte[] record = TestIds.ascii("x;" + value + ";y");
+            int end = 2 + value.length();
+            assertEquals(value, CitizenId.validate(value), CitizenIdBytes.validateField(record, 2, end));
+            assertEquals(value, CitizenId.validate(value),
+                    CitizenIdBytes.validateField(ByteBuffer.wrap(record), 2, end));
+            long element = CitizenIdBytes.parseField(record, 2, end);
+            assertEquals(value, CitizenId.validate(value), CitizenIdStreams.statusOf(element));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateCitizenIdFromNonDigits() throws Exception {
+        CitizenIdBytes.toCitizenId(TestIds.ascii("88031935022a"), 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotAcceptNegativeOffset() throws Exception {
+        CitizenIdBytes.validate(TestIds.ascii("880319350220"), -1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotAcceptFieldOutsideOfArray() throws Exception {
+        CitizenIdBytes.validateField(TestIds.ascii("880319350220"), 0, 13);
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Callable;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdCacheTests {
+    @Test
+    public void shouldReturnSameInstanceForSameId() throws Exception {
+        CitizenIdCache cache = new CitizenIdCache(16);
+        ResolvedCitizenId first = cache.get("880319350220");
+        ResolvedCitizenId second = cache.get(new StringBuilder("880319350220"));
+        assertSame(first, second);
+        assertSame(first, cache.get(880319350220L));
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldResolveValidityAndInformation() throws Exception {
+        CitizenIdCache cache = new CitizenIdCache(16);
+        ResolvedCitizenId physical = cache.get("880319350220");
+        assertTrue(physical.isValid());
+        assertEquals(CitizenType.PHYSICAL, physical.getType());
+        assertEquals(1988, physical.getPhysicalInfo().getBirthYear());
+        assertNull(physical.getJuridicalInfo());
+        ResolvedCitizenId juridical = cache.get("081140000436");
+        assertTrue(juridical.isValid());
+        assertEquals(2008, juridical.getJuridicalInfo().getYear());
+        assertNull(juridical.getPhysicalInfo());
+        assertFalse(cache.get("880319350221").isValid());
+        assertEquals(new CitizenId("081140000436"), juridical.getCitizenId());
+    }
+
+    @Test
+    public void shouldReturnNullForIncorrectValue() throws Exception {
+        CitizenIdCache cache = new CitizenIdCache(16);
+        assertNull(cache.get("88031935022"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldKeepSizeBudget() throws Exception {
+        CitizenIdCache cache = new CitizenIdCache(100, 4);
+        for (long packed = 0; packed < 1000; packed++) {
+            assertEquals(packed, cache.get(packed).longValue());
+        }
+        assertEquals(100, cache.size());
+        assertEquals(900, cache.getEvictions());
+        assertEquals(1000, cache.getMisses());
+    }
+
+    @Test
+    public void shouldKeepFrequentlyUsedEntries() throws Exception {
+        CitizenIdCache cache = new CitizenIdCache(64, 1);
+        ResolvedCitizenId hot = cache.get(880319350220L);
+        for (long packed = 0; packed < 10000; packed++) {
+            cache.get(packed);
+            assertSame(hot, cache.get(880319350220L));
+        }
+    }
+
+    @Test
+    public void shouldReturnCanonicalInstancesToConcurrentThreads() throws Exception {
+        final CitizenIdCache cache = new CitizenIdCache(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ResolvedCitizenId[]>> futures = new ArrayList<Future<ResolvedCitizenId[]>>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(new Callable<ResolvedCitizenId[]>() {
+                    public ResolvedCitizenId[] call() throws Exception {
+                        ResolvedCitizenId[] result = new ResolvedCitizenId[500];
+                        for (int i = 0; i < result.length; i++) {
+                            result[i] = cache.get(880319350000L + i);
+                        }
+                        return result;
+                    }
+                }));
+            }
+            ResolvedCitizenId[] first = futures.get(0).get();
+            for (Future<ResolvedCitizenId[]> future : futures) {
+                ResolvedCitizenId[] result = future.get();
+                for (int i = 0; i < result.length; i++) {
+                    assertSame(first[i], result[i]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldInternIntoSharedCache() throws Exception {
+        assertSame(CitizenIds.intern("081140000436"), CitizenIds.intern(81140000436L));
+        assertTrue(CitizenIds.sharedCache().getHits() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateCacheWithoutSize() throws Exception {
+        new CitizenIdCache(0);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdCodecTests {
+
+    private static final class NamedCitizenId extends CitizenId {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        private NamedCitizenId(String value, String name) {
+            super(value);
+            this.name = name;
+        }
+    }
+
+    private static int compareUnsigned(byte[] left, byte[] right) {
+        for (int i = 0; i < left.length; i++) {
+            int difference = (left[i] & 0xFF) - (right[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    @Test
+    public void shouldWriteAndReadRecords() throws Exception {
+        long[] values = {0, 1, 880319350220L, 81140000436L, PackedCitizenId.MAX_VALUE};
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * CitizenIdCodec.RECORD_SIZE);
+        for (long value : values) {
+            CitizenIdCodec.write(buffer, value);
+        }
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        byte[] array = new byte[buffer.remaining()];
+        buffer.duplicate().get(array);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], CitizenIdCodec.readPacked(buffer));
+            assertEquals(values[i], CitizenIdCodec.readPacked(array, i * CitizenIdCodec.RECORD_SIZE));
+        }
+        buffer.rewind();
+        buffer.position(2 * CitizenIdCodec.RECORD_SIZE);
+        CitizenId citizenId = CitizenIdCodec.read(buffer);
+        assertEquals("880319350220", citizenId.getValue());
+        assertEquals(CitizenType.PHYSICAL, citizenId.getType());
+        assertEquals(CitizenType.JURIDICAL, CitizenIdCodec.read(buffer).getType());
+    }
+
+    @Test
+    public void shouldPreserveOrderOfRecords() throws Exception {
+        Random random = new Random(1);
+        byte[] left = new byte[CitizenIdCodec.RECORD_SIZE];
+        byte[] right = new byte[CitizenIdCodec.RECORD_SIZE];
+        for (int i = 0; i < 10000; i++) {
+            long a = (random.nextLong() >>> 1) % (PackedCitizenId.MAX_VALUE + 1);
+            long b = i % 2 == 0 ? (random.nextLong() >>> 1) % (PackedCitizenId.MAX_VALUE + 1) : a + 1 - i % 4;
+            b = Math.max(0, Math.min(PackedCitizenId.MAX_VALUE, b));
+            CitizenIdCodec.write(a, left, 0);
+            CitizenIdCodec.write(b, right, 0);
+            assertEquals(Long.signum(a - b), Integer.signum(compareUnsigned(left, right)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectRecordOutOfRange() throws Exception {
+        CitizenIdCodec.readPacked(new byte[]{(byte) 0xFF, 0, 0, 0, 0}, 0);
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void shouldRejectFullBuffer() throws Exception {
+        CitizenIdCodec.write(ByteBuffer.allocate(4), 880319350220L);
+    }
+
+    @Test
+    public void shouldWriteAndReadBlocks() throws Exception {
+        long[] unsorted = TestIds.generated(2, 10000);
+        long[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        ByteBuffer buffer = ByteBuffer.allocate(CitizenIdCodec.blockSize(sorted, 0, sorted.length)
+                + CitizenIdCodec.blockSize(unsorted, 100, 500) + 1);
+        assertEquals(buffer.capacity() - 1, CitizenIdCodec.writeBlock(buffer, sorted)
+                + CitizenIdCodec.writeBlock(buffer, unsorted, 100, 500));
+        CitizenIdCodec.writeBlock(buffer, new long[0]);
+        buffer.flip();
+        assertEquals(sorted.length, CitizenIdCodec.blockLength(buffer));
+        assertArrayEquals(sorted, CitizenIdCodec.readBlock(buffer));
+        long[] part = new long[510];
+        assertEquals(500, CitizenIdCodec.readBlock(buffer, part, 10));
+        assertArrayEquals(Arrays.copyOfRange(unsorted, 100, 600), Arrays.copyOfRange(part, 10, 510));
+        assertEquals(0, CitizenIdCodec.readBlock(buffer).length);
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void shouldEncodeSortedBlockCompactly() throws Exception {
+        long[] sorted = TestIds.generated(3, 100000);
+        Arrays.sort(sorted);
+        assertTrue(CitizenIdCodec.blockSize(sorted, 0, sorted.length) < sorted.length * 4);
+    }
+
+    @Test
+    public void shouldKeepPositionOfTruncatedBlock() throws Exception {
+        long[] values = TestIds.generated(4, 100);
+        ByteBuffer buffer = ByteBuffer.allocate(CitizenIdCodec.blockSize(values, 0, values.length));
+        CitizenIdCodec.writeBlock(buffer, values);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+        try {
+            CitizenIdCodec.readBlock(buffer, new long[100], 0);
+            fail();
+        } catch (BufferUnderflowException e) {
+            assertEquals(0, buffer.position());
+        }
+        try {
+            CitizenIdCodec.readBlock(buffer, new long[99], 0);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCorruptedBlock() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) 1);
+        for (int i = 0; i < 11; i++) {
+            buffer.put((byte) 0xFF);
+        }
+        buffer.flip();
+        CitizenIdCodec.readBlock(buffer);
+    }
+
+    @Test
+    public void shouldSerializeCitizenId() throws Exception {
+        CitizenId[] citizenIds = {new CitizenId("880319350220"), new CitizenId("081140000436")};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(citizenIds);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        CitizenId[] read = (CitizenId[]) in.readObject();
+        assertArrayEquals(citizenIds, read);
+        assertEquals(CitizenType.PHYSICAL, read[0].getType());
+        assertEquals(CitizenType.JURIDICAL, read[1].getType());
+    }
+
+    @Test
+    public void shouldSerializeSubclassOfCitizenIdAsCitizenId() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(new NamedCitizenId("880319350220", "subclass field"));
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        CitizenId read = (CitizenId) in.readObject();
+        assertEquals(CitizenId.class, read.getClass());
+        assertEquals(new CitizenId("880319350220"), read);
+    }
+
+    @Test
+    public void shouldRejectCorruptedSerializedCitizenId() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(new CitizenId("880319350220"));
+        out.close();
+        byte[] serialized = bytes.toByteArray();
+        int record = serialized.length - CitizenIdCodec.RECORD_SIZE - 1;
+        assertEquals(880319350220L, CitizenIdCodec.readPacked(serialized, record));
+        serialized[record] = (byte) 0xFF;
+        try {
+            new ObjectInputStream(new ByteArrayInputStream(serialized)).readObject();
+            fail();
+        } catch (InvalidObjectException e) {
+            assertTrue(e.getMessage().contains("12 digits"));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdColumnTests {
+
+    private static final String[] VALUES = {
+            "880319350220", "081140000436", "980141004945", "bad", "880319350221", "070850004167", "120142005544"
+    };
+
+    @Test
+    public void shouldClassifyRows() throws Exception {
+        CitizenIdColumn column = CitizenIdColumn.parse(VALUES);
+        assertEquals(7, column.size());
+        assertEquals(PackedCitizenId.INVALID, column.get(3));
+        assertArrayEquals(new int[]{0, 1, 2, 4, 5, 6}, column.indexes(column.presentMask()));
+        assertArrayEquals(new int[]{0, 4}, column.indexes(column.physicalMask()));
+        assertArrayEquals(new int[]{1, 2, 5, 6}, column.indexes(column.juridicalMask()));
+        assertArrayEquals(new int[]{5}, column.indexes(column.organizationMask(OrganizationType.NONRESIDENT)));
+        assertArrayEquals(new int[]{2}, column.indexes(column.departmentMask(DepartmentType.BRANCH)));
+        assertArrayEquals(new int[]{6}, column.indexes(column.departmentMask(DepartmentType.AGENCY)));
+    }
+
+    @Test
+    public void shouldMarkValidRowsLikeIdValidation() throws Exception {
+        CitizenIdColumn column = CitizenIdColumn.parse(VALUES);
+        long[] valid = column.validMask();
+        for (int i = 0; i < VALUES.length; i++) {
+            ParseResult result = CitizenId.tryParse(VALUES[i]);
+            assertEquals(result.isValid(), (valid[0] & (1L << i)) != 0);
+        }
+    }
+
+    @Test
+    public void shouldSelectValidJuridicalBranches() throws Exception {
+        CitizenIdColumn column = CitizenIdColumn.parse(VALUES);
+        long[] mask = CitizenIdColumn.and(column.validMask(), column.departmentMask(DepartmentType.BRANCH));
+        CitizenIdColumn branches = column.filter(mask);
+        assertEquals(1, branches.size());
+        assertEquals(PackedCitizenId.pack("980141004945"), branches.get(0));
+    }
+
+    @Test
+    public void shouldCombineBitsets() throws Exception {
+        long[] first = {0x0FL, 1L};
+        long[] second = {0x3CL};
+        assertArrayEquals(new long[]{0x0CL}, CitizenIdColumn.and(first, second));
+        assertArrayEquals(new long[]{0x3FL, 1L}, CitizenIdColumn.or(first, second));
+        assertArrayEquals(new long[]{0x03L, 1L}, CitizenIdColumn.andNot(first, second));
+        assertEquals(5, CitizenIdColumn.cardinality(first));
+    }
+
+    @Test
+    public void shouldProcessBatchWiderThanWord() throws Exception {
+        long[] packed = new long[1000];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = 880319350000L + i;
+        }
+        CitizenIdColumn column = CitizenIdColumn.wrap(packed, 900);
+        int[] valid = column.indexes(column.validMask());
+        int expected = 0;
+        for (int i = 0; i < 900; i++) {
+            if (PackedCitizenId.isValid(packed[i])) {
+                assertEquals(i, valid[expected++]);
+            }
+        }
+        assertEquals(expected, valid.length);
+        assertArrayEquals(new int[0], column.indexes(column.juridicalMask()));
+        assertEquals(900, column.toArray().length);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotSelectRowOutsideOfColumn() throws Exception {
+        CitizenIdColumn.wrap(new long[10], 5).select(new int[]{5});
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdCorrectorTests {
+    @Test
+    public void shouldFindSubstitutedDigit() throws Exception {
+        long[] candidates = new CitizenIdCorrector().candidates("880319350230");
+        assertTrue(Arrays.binarySearch(candidates, 880319350220L) >= 0);
+        for (long candidate : candidates) {
+            assertTrue(PackedCitizenId.isValid(candidate));
+        }
+    }
+
+    @Test
+    public void shouldFindTransposedDigits() throws Exception {
+        long[] candidates = new CitizenIdCorrector().candidates("880391350220");
+        assertTrue(Arrays.binarySearch(candidates, 880319350220L) >= 0);
+    }
+
+    @Test
+    public void shouldFindSameCandidatesAsExhaustiveSearch() throws Exception {
+        CitizenIdCorrector corrector = new CitizenIdCorrector();
+        CitizenIdGenerator generator = CitizenIdGenerator.builder().seed(11).invalidRatio(0.5).build();
+        for (long index = 0; index < 2000; index++) {
+            String value = PackedCitizenId.unpack(generator.get(index));
+            assertArrayEquals(value, exhaustive(value), corrector.candidates(value));
+        }
+    }
+
+    @Test
+    public void shouldRestrictCandidatesToRegistry() throws Exception {
+        CitizenIdSet registry = CitizenIdSet.builder().add("880319350220").add("081140000436").build();
+        CitizenIdCorrector corrector = new CitizenIdCorrector(registry);
+        List<CitizenId> suggestions = corrector.suggest("880319350230");
+        assertEquals(1, suggestions.size());
+        assertEquals(new CitizenId("880319350220"), suggestions.get(0));
+        assertEquals(0, corrector.candidates("123456789012").length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptIncorrectFormat() throws Exception {
+        new CitizenIdCorrector().candidates("88031935023");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptEmptyRegistry() throws Exception {
+        new CitizenIdCorrector(null);
+    }
+
+    private static long[] exhaustive(String value) {
+        long[] found = new long[200];
+        int count = 0;
+        char[] digits = value.toCharArray();
+        for (int position = 0; position < digits.length; position++) {
+            char original = digits[position];
+            for (char digit = '0'; digit <= '9'; digit++) {
+                if (digit != original) {
+                    digits[position] = digit;
+                    count = addIfValid(digits, found, count);
+                }
+            }
+            digits[position] = original;
+        }
+        for (int position = 0; position + 1 < digits.length; position++) {
+            if (digits[position] != digits[position + 1]) {
+                swap(digits, position);
+                count = addIfValid(digits, found, count);
+                swap(digits, position);
+            }
+        }
+        long[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static int addIfValid(char[] digits, long[] found, int count) {
+        String candidate = new String(digits);
+        if (Checksum.isValid(candidate, 0)) {
+            found[count++] = Long.parseLong(candidate);
+        }
+        return count;
+    }
+
+    private static void swap(char[] digits, int position) {
+        char digit = digits[position];
+        digits[position] = digits[position + 1];
+        digits[position + 1] = digit;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdCubeTests {
+
+    private static void increment(Map<String, Long> counts, String key) {
+        Long count = counts.get(key);
+        counts.put(key, count == null ? 1 : count + 1);
+    }
+
+    @Test
+    public void shouldCountAsDecodedInformation() throws Exception {
+        long[] ids = TestIds.generated(CitizenIdGenerator.builder().seed(1).invalidRatio(0.1), 100000);
+        Map<String, Long> expected = new HashMap<String, Long>();
+        long rejected = 0;
+        for (long packed : ids) {
+            if (!PackedCitizenId.isValid(packed)) {
+                rejected++;
+            } else if (PackedCitizenId.typeOf(packed) == CitizenType.JURIDICAL) {
+                JuridicalInfo info = JuridicalInfo.decode(packed);
+                increment(expected, "J " + info.getYear() + " " + info.getMonth() + " "
+                        + info.getOrganizationType() + " " + info.getDepartmentType());
+            } else if (PhysicalInfo.epochDayOf(packed) != PhysicalInfo.INVALID_EPOCH_DAY) {
+                PhysicalInfo info = PhysicalInfo.decode(packed);
+                increment(expected, "P " + info.getBirthYear() / 10 * 10 + " " + info.getGender());
+            }
+        }
+        CitizenIdCube cube = new CitizenIdCube().acceptAll(ids);
+        final Map<String, Long> actual = new HashMap<String, Long>();
+        cube.forEachJuridical(new CitizenIdCube.JuridicalCellVisitor() {
+            public void visit(int year, int month, OrganizationType organizationType, DepartmentType departmentType,
+                              int count) {
+                actual.put("J " + year + " " + month + " " + organizationType + " " + departmentType, (long) count);
+            }
+        });
+        cube.forEachPhysical(new CitizenIdCube.PhysicalCellVisitor() {
+            public void visit(int decade, Gender gender, int count) {
+                actual.put("P " + decade + " " + gender, (long) count);
+            }
+        });
+        assertEquals(expected, actual);
+        assertEquals(rejected, cube.getRejected());
+        assertEquals(ids.length - rejected, cube.getTotal());
+        assertEquals(cube.getTotal(), cube.getJuridical() + cube.getPhysical());
+    }
+
+    @Test
+    public void shouldCountByAttributes() throws Exception {
+        CitizenIdCube cube = new CitizenIdCube();
+        cube.accept("880319350220");
+        cube.accept("880319450217");
+        cube.accept("081140000436");
+        cube.accept(880319350221L);
+        cube.accept("wrong");
+        cube.accept(CitizenIdStreams.EMPTY_ELEMENT);
+        assertEquals(3, cube.getTotal());
+        assertEquals(3, cube.getRejected());
+        assertEquals(2, cube.countPhysical(1980, null));
+        assertEquals(1, cube.countPhysical(1988, Gender.FEMALE));
+        assertEquals(0, cube.countPhysical(1990, null));
+        assertEquals(1, cube.countJuridical(2008, Calendar.NOVEMBER, OrganizationType.RESIDENT, DepartmentType.HEAD));
+        assertEquals(1, cube.countJuridical(CitizenIdCube.ANY, CitizenIdCube.ANY, null, DepartmentType.HEAD));
+        assertEquals(0, cube.countJuridical(2008, Calendar.NOVEMBER, null, DepartmentType.BRANCH));
+        assertEquals(0, cube.countJuridical(1908, CitizenIdCube.ANY, null, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIncorrectMonth() throws Exception {
+        new CitizenIdCube().countJuridical(2008, 12, null, null);
+    }
+
+    @Test
+    public void shouldMergeThreadLocalCubes() throws Exception {
+        long[] ids = TestIds.generated(CitizenIdGenerator.builder().seed(2).invalidRatio(0.05), 200000);
+        CitizenIdCube expected = new CitizenIdCube().acceptAll(ids);
+        assertEquals(expected, CitizenIdStreams.cube(CitizenIdStreams.of(ids)));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertEquals(expected, CitizenIdStreams.cube(CitizenIdStreams.of(ids), executor, 16));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCountMappedIndex() throws Exception {
+        long[] ids = TestIds.generated(CitizenIdGenerator.builder().seed(3).invalidRatio(0), 50000);
+        CitizenIdIndexWriter writer = new CitizenIdIndexWriter();
+        for (long packed : ids) {
+            writer.addPacked(packed);
+        }
+        File file = File.createTempFile("citizen-id", ".idx");
+        try {
+            int written = writer.write(file);
+            MappedCitizenIdIndex index = MappedCitizenIdIndex.open(file);
+            try {
+                CitizenIdCube expected = new CitizenIdCube();
+                for (int i = 0; i < index.size(); i++) {
+                    expected.accept(index.get(i));
+                }
+                assertEquals(written, expected.getTotal());
+                ExecutorService executor = Executors.newFixedThreadPool(2);
+                try {
+                    assertEquals(expected, CitizenIdStreams.cube(index.spliterator(), executor, 8));
+                } finally {
+                    executor.shutdown();
+                }
+            } finally {
+                index.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdDateIndexTests {
+
+    private static long[] filter(long[] ids, Matcher matcher) {
+        List<Long> matched = new ArrayList<Long>();
+        for (long id : ids) {
+            if (matcher.matches(id)) {
+                matched.add(id);
+            }
+        }
+        long[] result = new long[matched.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = matched.get(i);
+        }
+        Arrays.sort(result);
+        int unique = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[unique++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, unique);
+    }
+
+    private interface Matcher {
+        boolean matches(long packed);
+    }
+
+    @Test
+    public void shouldFindJuridicalSubjectsByMonthAndDepartment() throws Exception {
+        long[] ids = TestIds.generated(CitizenIdGenerator.builder().seed(1).birthYears(1940, 2010), 200000);
+        CitizenIdDateIndex index = new CitizenIdDateIndex();
+        index.addAllPacked(ids);
+        long[] expected = filter(ids, new Matcher() {
+            public boolean matches(long packed) {
+                return PackedCitizenId.typeOf(packed) == CitizenType.JURIDICAL
+                        && JuridicalInfo.yearOf(packed) == 2014 && JuridicalInfo.monthOf(packed) == Calendar.MARCH
+                        && JuridicalInfo.departmentTypeOf(packed) == DepartmentType.BRANCH;
+            }
+        });
+        assertTrue(expected.length > 0);
+        CitizenIdDateIndex.JuridicalQuery query = index.juridical()
+                .registeredIn(2014, Calendar.MARCH)
+                .departmentType(DepartmentType.BRANCH);
+        assertArrayEquals(expected, query.toArray());
+        assertEquals(expected.length, query.count());
+    }
+
+    @Test
+    public void shouldFindJuridicalSubjectsByRangeAndOrganization() throws Exception {
+        long[] ids = TestIds.generated(CitizenIdGenerator.builder().seed(2).birthYears(1940, 2010), 200000);
+        CitizenIdDateIndex index = new CitizenIdDateIndex();
+        index.addAllPacked(ids);
+        long[] expected = filter(ids, new Matcher() {
+            public boolean matches(long packed) {
+                int month = JuridicalInfo.yearOf(packed) * 12 + JuridicalInfo.monthOf(packed);
+                return PackedCitizenId.typeOf(packed) == CitizenType.JURIDICAL
+                        && JuridicalInfo.monthOf(packed) >= 0
+                        && month >= 2003 * 12 + Calendar.NOVEMBER && month <= 2005 * 12 + Calendar.FEBRUARY
+                        && JuridicalInfo.organizationTypeOf(packed) == OrganizationType.NONRESIDENT;
+            }
+        });
+        assertTrue(expected.length > 0);
+        assertArrayEquals(expected, index.juridical()
+                .registeredBetween(2003, Calendar.NOVEMBER, 2005, Calendar.FEBRUARY)
+                .organizationType(OrganizationType.NONRESIDENT)
+                .toArray());
+    }
+
+    @Test
+    public void shouldFindPhysicalSubjectsByBirthYears() throws Exception {
+        long[] ids = TestIds.generated(CitizenIdGenerator.builder().seed(3).birthYears(1940, 2010), 200000);
+        CitizenIdDateIndex index = new CitizenIdDateIndex();
+        index.addAllPacked(ids);
+        long[] expected = filter(ids, new Matcher() {
+            public boolean matches(long packed) {
+                if (PackedCitizenId.typeOf(packed) != CitizenType.PHYSICAL) {
+                    return false;
+                }
+                int epochDay = PhysicalInfo.epochDayOf(packed);
+                return epochDay != PhysicalInfo.INVALID_EPOCH_DAY
+                        && PhysicalInfo.decode(packed).getBirthYear() >= 1990
+                        && PhysicalInfo.decode(packed).getBirthYear() <= 1995;
+            }
+        });
+        assertTrue(expected.length > 0);
+        assertArrayEquals(expected, index.physical().bornInYears(1990, 1995).toArray());
+    }
+
+    @Test
+    public void shouldFindPhysicalSubjectsByBirthDatesAndGender() throws Exception {
+        long[] ids = TestIds.generated(CitizenIdGenerator.builder().seed(4).birthYears(1940, 2010), 200000);
+        CitizenIdDateIndex index = new CitizenIdDateIndex();
+        index.addAllPacked(ids);
+        final int from = PhysicalInfo.epochDay(1968, 2, 27);
+        final int to = PhysicalInfo.epochDay(1972, 3, 2);
+        long[] expected = filter(ids, new Matcher() {
+            public boolean matches(long packed) {
+                int epochDay = PhysicalInfo.epochDayOf(packed);
+                return PackedCitizenId.typeOf(packed) == CitizenType.PHYSICAL
+                        && epochDay != PhysicalInfo.INVALID_EPOCH_DAY && epochDay >= from && epochDay <= to
+                        && PhysicalInfo.genderOf(packed) == Gender.FEMALE;
+            }
+        });
+        assertTrue(expected.length > 0);
+        assertArrayEquals(expected, index.physical().bornBetween(from, to).gender(Gender.FEMALE).toArray());
+    }
+
+    @Test
+    public void shouldConvertDatesToEpochDays() throws Exception {
+        assertEquals(0, PhysicalInfo.epochDay(1970, 1, 1));
+        assertEquals(PhysicalInfo.epochDayOf(880319350220L), PhysicalInfo.epochDay(1988, 3, 19));
+        assertEquals(PhysicalInfo.epochDayOf(1229100000L), PhysicalInfo.epochDay(1800, 12, 29));
+    }
+
+    @Test
+    public void shouldAddIncrementally() throws Exception {
+        CitizenIdDateIndex index = new CitizenIdDateIndex();
+        index.add("880319350220");
+        index.add(new CitizenId("081140000436"));
+        index.addPacked(880319350220L);
+        index.addAll(CitizenIdStreams.of(new CharSequence[]{"880319350220", "wrong", "880319450214"}));
+        assertEquals(3, index.size());
+        assertTrue(index.contains(880319450214L));
+        assertFalse(index.contains(880319450215L));
+        assertArrayEquals(new long[]{880319350220L, 880319450214L},
+                index.physical().bornInYears(1988, 1988).toArray());
+        assertArrayEquals(new long[]{880319350220L}, index.physical().gender(Gender.MALE).toArray());
+        assertArrayEquals(new long[]{81140000436L}, index.juridical().registeredIn(2008, Calendar.NOVEMBER).toArray());
+        assertEquals(0, index.juridical().registeredIn(2008, Calendar.DECEMBER).count());
+        assertEquals(0, index.physical().bornInYears(2100, 2200).count());
+        assertEquals(0, index.physical().bornInYears(1700, 1799).count());
+        assertEquals(2, index.physical().bornInYears(1700, 2200).count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIncorrectMonth() throws Exception {
+        new CitizenIdDateIndex().juridical().registeredIn(2014, 12);
+    }
+
+    @Test
+    public void shouldQueryWhileAdding() throws Exception {
+        final long[] ids = TestIds.generated(CitizenIdGenerator.builder().seed(5).birthYears(1940, 2010), 100000);
+        final CitizenIdDateIndex index = new CitizenIdDateIndex();
+        final AtomicBoolean failed = new AtomicBoolean();
+        Thread reader = new Thread(new Runnable() {
+            public void run() {
+                int previous = 0;
+                while (index.size() < ids.length / 2) {
+                    int count = index.physical().count();
+                    if (count < previous) {
+                        failed.set(true);
+                    }
+                    previous = count;
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < ids.length; i += 1000) {
+            index.addAllPacked(Arrays.copyOfRange(ids, i, i + 1000));
+        }
+        reader.join();
+        assertFalse(failed.get());
+        assertEquals(index.physical().count() + index.juridical().count(), index.size()
+                - invalidDates(ids));
+    }
+
+    private static long invalidDates(long[] ids) {
+        long[] invalid = filter(ids, new Matcher() {
+            public boolean matches(long packed) {
+                return PackedCitizenId.typeOf(packed) == CitizenType.PHYSICAL
+                        && PhysicalInfo.epochDayOf(packed) == PhysicalInfo.INVALID_EPOCH_DAY
+                        || PackedCitizenId.typeOf(packed) == CitizenType.JURIDICAL
+                        && JuridicalInfo.monthOf(packed) < 0;
+            }
+        });
+        return invalid.length;
+    }
+}
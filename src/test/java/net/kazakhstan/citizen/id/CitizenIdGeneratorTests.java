@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdGeneratorTests {
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("citizen-ids", ".txt");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void shouldGenerateSameIdsForSameSeed() throws Exception {
+        CitizenIdGenerator first = CitizenIdGenerator.builder().seed(42).build();
+        CitizenIdGenerator second = CitizenIdGenerator.builder().seed(42).build();
+        CitizenIdGenerator other = CitizenIdGenerator.builder().seed(43).build();
+        int differences = 0;
+        for (long index = 0; index < 1000; index++) {
+            assertEquals(first.get(index), second.get(index));
+            if (first.get(index) != other.get(index)) {
+                differences++;
+            }
+        }
+        assertTrue(differences > 990);
+    }
+
+    @Test
+    public void shouldGenerateValidIds() throws Exception {
+        CitizenIdGenerator generator = CitizenIdGenerator.builder().seed(1).build();
+        long[] ids = new long[100000];
+        generator.fill(ids, 0);
+        int physical = 0;
+        for (long packed : ids) {
+            assertTrue(PackedCitizenId.unpack(packed), PackedCitizenId.isValid(packed));
+            if (PackedCitizenId.typeOf(packed) == CitizenType.PHYSICAL) {
+                PhysicalInfo info = PhysicalInfo.decode(packed);
+                assertTrue(info.getBirthYear() >= 1940 && info.getBirthYear() <= 2010);
+                physical++;
+            } else {
+                JuridicalInfo.decode(packed);
+            }
+        }
+        assertTrue(physical > 49000 && physical < 51000);
+    }
+
+    @Test
+    public void shouldFollowRatiosAndRanges() throws Exception {
+        CitizenIdGenerator generator = CitizenIdGenerator.builder()
+                .seed(7)
+                .physicalRatio(0.2)
+                .invalidRatio(0.1)
+                .birthYears(1850, 1860)
+                .registrationYears(2001, 2003)
+                .build();
+        int physical = 0;
+        int invalid = 0;
+        for (long index = 0; index < 100000; index++) {
+            long packed = generator.get(index);
+            if (!PackedCitizenId.isValid(packed)) {
+                invalid++;
+            }
+            if (PackedCitizenId.typeOf(packed) == CitizenType.PHYSICAL) {
+                physical++;
+                int year = PhysicalInfo.decode(packed).getBirthYear();
+                assertTrue(year >= 1850 && year <= 1860);
+            } else {
+                int year = JuridicalInfo.yearOf(packed) % 100;
+                assertTrue(year >= 1 && year <= 3);
+            }
+        }
+        assertTrue(physical > 19000 && physical < 21000);
+        assertTrue(invalid > 9500 && invalid < 10500);
+    }
+
+    @Test
+    public void shouldSplitIntoSameSequence() throws Exception {
+        CitizenIdGenerator generator = CitizenIdGenerator.builder().seed(3).build();
+        final List<Long> collected = new ArrayList<Long>();
+        PackedIdConsumer collector = new PackedIdConsumer() {
+            public void accept(long packed) {
+                collected.add(packed);
+            }
+        };
+        PackedIdSpliterator rest = generator.spliterator(100, 5100);
+        PackedIdSpliterator prefix = rest.trySplit();
+        assertEquals(2500, prefix.estimateSize());
+        assertEquals(2500, rest.estimateSize());
+        assertTrue(prefix.tryAdvance(collector));
+        prefix.forEachRemaining(collector);
+        assertFalse(prefix.tryAdvance(collector));
+        rest.forEachRemaining(collector);
+        assertEquals(0, rest.estimateSize());
+        assertEquals(5000, collected.size());
+        for (int i = 0; i < collected.size(); i++) {
+            assertEquals(generator.get(100 + i), collected.get(i).longValue());
+        }
+        assertNull(generator.spliterator(0, 1000).trySplit());
+    }
+
+    @Test
+    public void shouldWriteLinesToFile() throws Exception {
+        CitizenIdGenerator generator = CitizenIdGenerator.builder().seed(5).build();
+        generator.write(file, 10000);
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            for (long index = 0; index < 10000; index++) {
+                assertEquals(PackedCitizenId.unpack(generator.get(index)), reader.readLine());
+            }
+            assertNull(reader.readLine());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNegativeIndex() throws Exception {
+        CitizenIdGenerator.builder().build().get(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptIncorrectRatio() throws Exception {
+        CitizenIdGenerator.builder().invalidRatio(1.5);
+    }
+}
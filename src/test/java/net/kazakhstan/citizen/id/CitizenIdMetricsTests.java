@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdMetricsTests {
+    private StripedCitizenIdMetrics metrics;
+
+    @Before
+    public void setUp() throws Exception {
+        metrics = new StripedCitizenIdMetrics(1);
+        CitizenIds.setMetrics(metrics);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        CitizenIds.setMetrics(null);
+    }
+
+    @Test
+    public void shouldCountParsingOutcomes() throws Exception {
+        new CitizenId("880319350220");
+        CitizenId.tryParse("081140000436");
+        CitizenId.tryParse("88031935022");
+        try {
+            new CitizenId("88031935022a");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        CitizenIdMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getParsed(CitizenIdStatus.VALID));
+        assertEquals(1, snapshot.getParsed(CitizenIdStatus.WRONG_LENGTH));
+        assertEquals(1, snapshot.getParsed(CitizenIdStatus.NON_DIGIT));
+        assertEquals(1, snapshot.getParsed(CitizenType.PHYSICAL));
+        assertEquals(1, snapshot.getParsed(CitizenType.JURIDICAL));
+        assertEquals(4, snapshot.getParseLatency().getTotal());
+    }
+
+    @Test
+    public void shouldCountValidationOutcomes() throws Exception {
+        CitizenId physical = new CitizenId("880319350220");
+        assertTrue(new PhysicalIdValidation(physical).isValid());
+        assertFalse(new JuridicalIdValidation(new CitizenId("081140000437")).isValid());
+        assertFalse(Validators.auto().isValid("0811400004"));
+        assertTrue(Validators.auto().isValid(81140000436L));
+        CitizenIdMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getValidated(CitizenType.PHYSICAL, true));
+        assertEquals(1, snapshot.getValidated(CitizenType.JURIDICAL, false));
+        assertEquals(1, snapshot.getValidated(CitizenType.JURIDICAL, true));
+        assertEquals(1, snapshot.getValidated(null, false));
+        assertEquals(4, snapshot.getValidationLatency().getTotal());
+    }
+
+    @Test
+    public void shouldCountDecoding() throws Exception {
+        new JuridicalDataInformation(new CitizenId("081140000436"));
+        new PhysicalDataInformation(new CitizenId("880319350220"));
+        try {
+            new JuridicalDataInformation(new CitizenId("880319350220"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        CitizenIdMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getDecoded(CitizenType.JURIDICAL, true));
+        assertEquals(1, snapshot.getDecoded(CitizenType.JURIDICAL, false));
+        assertEquals(1, snapshot.getDecoded(CitizenType.PHYSICAL, true));
+        assertEquals(3, snapshot.getDecodeLatency().getTotal());
+    }
+
+    @Test
+    public void shouldSampleDurations() throws Exception {
+        StripedCitizenIdMetrics sampled = new StripedCitizenIdMetrics(8);
+        CitizenIds.setMetrics(sampled);
+        for (int i = 0; i < 800; i++) {
+            new CitizenId("880319350220");
+        }
+        CitizenIdMetricsSnapshot snapshot = sampled.snapshot();
+        assertEquals(800, snapshot.getParsed(CitizenIdStatus.VALID));
+        assertEquals(100, snapshot.getParseLatency().getTotal());
+        assertTrue(snapshot.getParseLatency().getPercentile(99) >= snapshot.getParseLatency().getPercentile(50));
+    }
+
+    @Test
+    public void shouldCountConcurrentUpdates() throws Exception {
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        Validators.auto().isValid(880319350220L);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, metrics.snapshot().getValidated(CitizenType.PHYSICAL, true));
+    }
+
+    @Test
+    public void shouldNotCountWhenSwitchedOff() throws Exception {
+        CitizenIds.setMetrics(null);
+        new CitizenId("880319350220");
+        assertNull(CitizenIds.getMetrics());
+        assertEquals(0, metrics.snapshot().getParsed(CitizenIdStatus.VALID));
+    }
+
+    @Test
+    public void shouldReturnHistogramBounds() throws Exception {
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(0, LatencyHistogram.bucketOf(15));
+        assertEquals(1, LatencyHistogram.bucketOf(16));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        assertEquals(32, LatencyHistogram.upperBound(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptSampleRateWhichIsNotPowerOfTwo() throws Exception {
+        new StripedCitizenIdMetrics(3);
+    }
+}
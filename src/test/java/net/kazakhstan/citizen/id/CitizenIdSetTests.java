@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdSetTests {
+    @Test
+    public void shouldContainAddedIds() throws Exception {
+        CitizenIdSet set = CitizenIdSet.builder()
+                .add("880319350220")
+                .add(new CitizenId("081140000436"))
+                .addPacked(740000728L)
+                .build();
+        assertEquals(3, set.size());
+        assertTrue(set.contains("880319350220"));
+        assertTrue(set.contains(new CitizenId("081140000436")));
+        assertTrue(set.contains("000740000728"));
+        assertTrue(set.contains(880319350220L));
+        assertFalse(set.contains("880525000017"));
+    }
+
+    @Test
+    public void shouldNotContainIncorrectValues() throws Exception {
+        CitizenIdSet set = CitizenIdSet.builder().add("880319350220").build();
+        assertFalse(set.contains("88031935022"));
+        assertFalse(set.contains((CharSequence) null));
+        assertFalse(set.contains((CitizenId) null));
+        assertFalse(set.contains(-1L));
+    }
+
+    @Test
+    public void shouldStoreDuplicatesOnce() throws Exception {
+        CitizenIdSet set = CitizenIdSet.builder().add("880319350220").add("880319350220").build();
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void shouldSizeTableToLoadFactor() throws Exception {
+        CitizenIdSet.Builder builder = CitizenIdSet.builder().loadFactor(0.25);
+        for (long packed = 0; packed < 1000; packed++) {
+            builder.addPacked(packed);
+        }
+        CitizenIdSet set = builder.build();
+        assertTrue(set.capacity() >= 4000);
+        assertEquals(0, set.capacity() & (set.capacity() - 1));
+    }
+
+    @Test
+    public void shouldContainIdsInOffHeapTable() throws Exception {
+        long[] packed = new long[10000];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = 880319350220L + i * 7;
+        }
+        CitizenIdSet set = CitizenIdSet.builder().offHeap(true).expectedSize(packed.length).addAllPacked(packed).build();
+        assertTrue(set.isOffHeap());
+        assertEquals(packed.length, set.size());
+        for (long value : packed) {
+            assertTrue(set.contains(value));
+            assertFalse(set.contains(value + 1));
+        }
+    }
+
+    @Test
+    public void shouldCreateEmptySet() throws Exception {
+        CitizenIdSet set = CitizenIdSet.builder().build();
+        assertEquals(0, set.size());
+        assertFalse(set.contains(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptIncorrectLoadFactor() throws Exception {
+        CitizenIdSet.builder().loadFactor(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAddIncorrectValue() throws Exception {
+        CitizenIdSet.builder().add("8803193502a0");
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdSorterTests {
+    private File directory;
+    private File first;
+    private File second;
+    private File output;
+    private TreeSet<Long> expected;
+    private TreeSet<Long> expectedValid;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("citizen-ids", ".tmp");
+        directory.delete();
+        assertTrue(directory.mkdir());
+        first = new File(directory, "first.txt");
+        second = new File(directory, "second.txt");
+        output = File.createTempFile("citizen-ids", ".sorted");
+        long[] values = new long[100000];
+        CitizenIdGenerator.builder().seed(7).invalidRatio(0.1).build().fill(values, 0);
+        expected = new TreeSet<Long>();
+        expectedValid = new TreeSet<Long>();
+        for (long value : values) {
+            expected.add(value);
+            if (PackedCitizenId.isValid(value)) {
+                expectedValid.add(value);
+            }
+        }
+        Random random = new Random(7);
+        long[] shuffled = values.clone();
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long value = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = value;
+        }
+        write(first, values, 0, values.length, "88031935022\n");
+        write(second, shuffled, 0, shuffled.length / 2, "88031935022a\n\n");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        first.delete();
+        second.delete();
+        directory.delete();
+        output.delete();
+    }
+
+    private static void write(File file, long[] values, int from, int to, String malformed) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            for (int i = from; i < to; i++) {
+                out.write(PackedCitizenId.toCitizenId(values[i]).getValue().getBytes("US-ASCII"));
+                out.write('\n');
+                if (i % 1000 == 0) {
+                    out.write(malformed.getBytes("US-ASCII"));
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static long[] readText(File file) throws IOException {
+        List<Long> values = new ArrayList<Long>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                assertEquals(CitizenId.LENGTH, line.length());
+                values.add(PackedCitizenId.pack(line));
+            }
+        } finally {
+            reader.close();
+        }
+        return TestIds.toArray(values);
+    }
+
+    private static ByteBuffer readBytes(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        FileInputStream in = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < bytes.length) {
+                read += in.read(bytes, read, bytes.length - read);
+            }
+        } finally {
+            in.close();
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private CitizenIdSorter sorter() {
+        return new CitizenIdSorter().memoryBudget(1 << 20).threads(2).tempDirectory(directory);
+    }
+
+    @Test
+    public void shouldSortAndRemoveDuplicatesAsText() throws Exception {
+        CitizenIdSortReport report = sorter().sort(Arrays.asList(first, second), output);
+        assertArrayEquals(TestIds.toArray(expected), readText(output));
+        assertEquals(150000 + 100 + 50 * 2, report.getLines());
+        assertEquals(100 + 50 * 2, report.getMalformed());
+        assertEquals(0, report.getInvalid());
+        assertEquals(expected.size(), report.getWritten());
+        assertEquals(150000 - expected.size(), report.getDuplicates());
+        assertTrue(report.getRuns() > 1);
+        assertEquals(report.getRuns() > 128 ? 2 : 1, report.getMergePasses());
+        assertEquals(2, directory.list().length);
+    }
+
+    @Test
+    public void shouldMergeInSeveralPassesWithSmallFanIn() throws Exception {
+        CitizenIdSortReport report = sorter().fanIn(2).format(CitizenIdSorter.Format.RECORDS)
+                .sort(Arrays.asList(first, second), output);
+        assertTrue(report.getRuns() > 2);
+        assertTrue(report.getMergePasses() > 1);
+        ByteBuffer buffer = readBytes(output);
+        assertEquals(expected.size() * CitizenIdCodec.RECORD_SIZE, buffer.remaining());
+        for (long value : expected) {
+            assertEquals(value, CitizenIdCodec.readPacked(buffer));
+        }
+        assertEquals(2, directory.list().length);
+    }
+
+    @Test
+    public void shouldWriteBlocksOfValidIds() throws Exception {
+        CitizenIdSortReport report = sorter().validOnly(true).format(CitizenIdSorter.Format.BLOCKS)
+                .sort(Arrays.asList(first, second), output);
+        assertEquals(expectedValid.size(), report.getWritten());
+        assertTrue(report.getInvalid() > 0);
+        ByteBuffer buffer = readBytes(output);
+        long[] values = new long[expectedValid.size()];
+        int count = 0;
+        while (buffer.hasRemaining()) {
+            count += CitizenIdCodec.readBlock(buffer, values, count);
+        }
+        assertArrayEquals(TestIds.toArray(expectedValid), values);
+    }
+
+    @Test
+    public void shouldReportProgress() throws Exception {
+        final long[] last = new long[CitizenIdSorter.Phase.values().length];
+        CitizenIdSortReport report = sorter().listener(new CitizenIdSorter.ProgressListener() {
+            public void progress(CitizenIdSorter.Phase phase, long done, long total) {
+                assertTrue(done >= last[phase.ordinal()]);
+                assertTrue(done <= total);
+                last[phase.ordinal()] = done;
+            }
+        }).sort(Arrays.asList(first, second), output);
+        assertEquals(report.getLines(), last[CitizenIdSorter.Phase.SORT.ordinal()]);
+        assertEquals(report.getSpilledBytes() / CitizenIdCodec.RECORD_SIZE,
+                last[CitizenIdSorter.Phase.MERGE.ordinal()]);
+    }
+
+    @Test
+    public void shouldWriteEmptyOutputForFileWithoutIds() throws Exception {
+        write(first, new long[0], 0, 0, "");
+        CitizenIdSortReport report = sorter().sort(Arrays.asList(first), output);
+        assertEquals(0, output.length());
+        assertEquals(0, report.getWritten());
+        assertEquals(0, report.getRuns());
+    }
+
+    @Test
+    public void shouldFailWhenRunsCanNotBeSpilled() throws Exception {
+        File missing = new File(directory, "missing");
+        try {
+            sorter().tempDirectory(missing).sort(Arrays.asList(first, second), output);
+            fail("Runs were spilled into missing directory");
+        } catch (IOException e) {
+            // expected
+        }
+        assertFalse(missing.exists());
+        assertEquals(2, directory.list().length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSmallMemoryBudget() throws Exception {
+        new CitizenIdSorter().memoryBudget(1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSmallFanIn() throws Exception {
+        new CitizenIdSorter().fanIn(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEmptyInputs() throws Exception {
+        sorter().sort(new ArrayList<File>(), output);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdStreamsTests {
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("citizen-ids", ".txt");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void shouldCollectStatisticsOfTextValues() throws Exception {
+        CitizenIdStatistics statistics = CitizenIdStreams.statistics(CitizenIdStreams.of(new CharSequence[]{
+                "880319350220", "081140000436", "880319350221", "88031935022", "88031935022a", "", null}));
+        assertEquals(7, statistics.getTotal());
+        assertEquals(2, statistics.getValid());
+        assertEquals(5, statistics.getInvalid());
+        assertEquals(1, statistics.getPhysical());
+        assertEquals(1, statistics.getJuridical());
+        assertEquals(1, statistics.getCount(CitizenIdStatus.BAD_CHECKSUM));
+        assertEquals(1, statistics.getCount(CitizenIdStatus.WRONG_LENGTH));
+        assertEquals(1, statistics.getCount(CitizenIdStatus.NON_DIGIT));
+        assertEquals(2, statistics.getCount(CitizenIdStatus.EMPTY));
+    }
+
+    @Test
+    public void shouldReturnStatusOfElements() throws Exception {
+        assertEquals(CitizenIdStatus.VALID, CitizenIdStreams.statusOf(880319350220L));
+        assertEquals(CitizenIdStatus.BAD_CHECKSUM, CitizenIdStreams.statusOf(880319350221L));
+        assertEquals(CitizenIdStatus.WRONG_LENGTH, CitizenIdStreams.statusOf(PackedCitizenId.MAX_VALUE + 1));
+        assertEquals(CitizenIdStatus.NON_DIGIT, CitizenIdStreams.statusOf(PackedCitizenId.INVALID));
+    }
+
+    @Test
+    public void shouldSplitArrayInEncounterOrder() throws Exception {
+        long[] values = new long[10000];
+        CitizenIdGenerator.builder().seed(1).build().fill(values, 0);
+        List<PackedIdSpliterator> parts = CitizenIdStreams.split(CitizenIdStreams.of(values), 8);
+        assertEquals(8, parts.size());
+        final long[] collected = new long[values.length];
+        final int[] count = new int[1];
+        PackedIdConsumer collector = new PackedIdConsumer() {
+            public void accept(long packed) {
+                collected[count[0]++] = packed;
+            }
+        };
+        for (PackedIdSpliterator part : parts) {
+            part.forEachRemaining(collector);
+        }
+        assertArrayEquals(values, collected);
+    }
+
+    @Test
+    public void shouldReadMappedFileLikeArray() throws Exception {
+        CitizenIdGenerator generator = CitizenIdGenerator.builder().seed(2).invalidRatio(0.1).build();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            generator.write(out, 0, 20000);
+            out.write("88031935022\r\n\nabcdefghijkl\n880319350220".getBytes("US-ASCII"));
+        } finally {
+            out.close();
+        }
+        long[] values = new long[20000];
+        generator.fill(values, 0);
+        CitizenIdStatistics expected = CitizenIdStreams.statistics(CitizenIdStreams.of(values));
+        expected.accept("88031935022");
+        expected.accept("");
+        expected.accept("abcdefghijkl");
+        expected.accept("880319350220");
+
+        PackedIdSpliterator source = CitizenIdStreams.of(file);
+        assertEquals(20004, source.estimateSize(), 10);
+        List<PackedIdSpliterator> parts = CitizenIdStreams.split(source, 4);
+        assertEquals(4, parts.size());
+        CitizenIdStatistics actual = new CitizenIdStatistics();
+        for (PackedIdSpliterator part : parts) {
+            while (part.tryAdvance(actual)) {
+                assertTrue(actual.getTotal() > 0);
+            }
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected, CitizenIdStreams.statistics(CitizenIdStreams.of(file)));
+    }
+
+    @Test
+    public void shouldCollectStatisticsInParallel() throws Exception {
+        long[] values = new long[100000];
+        CitizenIdGenerator.builder().seed(3).invalidRatio(0.2).build().fill(values, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CitizenIdStatistics parallel = CitizenIdStreams.statistics(CitizenIdStreams.of(values), executor, 16);
+            assertEquals(CitizenIdStreams.statistics(CitizenIdStreams.of(values)), parallel);
+            assertEquals(100000, parallel.getTotal());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldReadEmptyFile() throws Exception {
+        PackedIdSpliterator source = CitizenIdStreams.of(file);
+        assertNull(source.trySplit());
+        assertEquals(0, CitizenIdStreams.statistics(source).getTotal());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotAcceptRangeOutsideOfArray() throws Exception {
+        CitizenIdStreams.of(new long[10], 5, 11);
+    }
+}
@@ -108,4 +108,62 @@ public class CitizenIdTests {
         hashSet.add(secondId);
         assertEquals(2, hashSet.size());
     }
+
+    @Test
+    public void shouldParseValidId() throws Exception {
+        ParseResult result = CitizenId.tryParse("880319350220");
+        assertTrue(result.isParsed());
+        assertTrue(result.isValid());
+        assertEquals(CitizenIdStatus.VALID, result.getStatus());
+        assertEquals(new CitizenId("880319350220"), result.getCitizenId());
+        assertTrue(result.getCitizenId().isPhysical());
+    }
+
+    @Test
+    public void shouldParseIdWithWrongControlDigit() throws Exception {
+        ParseResult result = CitizenId.tryParse("880319350221");
+        assertTrue(result.isParsed());
+        assertFalse(result.isValid());
+        assertEquals(CitizenIdStatus.BAD_CHECKSUM, result.getStatus());
+    }
+
+    @Test
+    public void shouldReturnReasonOfRejection() throws Exception {
+        assertEquals(CitizenIdStatus.EMPTY, CitizenId.tryParse(null).getStatus());
+        assertEquals(CitizenIdStatus.EMPTY, CitizenId.tryParse("").getStatus());
+        assertEquals(CitizenIdStatus.WRONG_LENGTH, CitizenId.tryParse("88031935022").getStatus());
+        assertEquals(CitizenIdStatus.WRONG_LENGTH, CitizenId.tryParse("8803193502201").getStatus());
+        assertEquals(CitizenIdStatus.NON_DIGIT, CitizenId.tryParse("88±s≈Ω/35&2a").getStatus());
+        assertEquals(CitizenIdStatus.NON_DIGIT, CitizenId.tryParse(" 880319350220").getStatus());
+        assertFalse(CitizenId.tryParse("8803193502a0").isParsed());
+        assertNull(CitizenId.tryParse("8803193502a0").getCitizenId());
+    }
+
+    @Test
+    public void shouldShareResultsOfRejection() throws Exception {
+        assertSame(CitizenId.tryParse("1"), CitizenId.tryParse("12"));
+    }
+
+    @Test
+    public void shouldValidateValue() throws Exception {
+        assertEquals(CitizenIdStatus.VALID, CitizenId.validate("081140000436"));
+        assertEquals(CitizenIdStatus.BAD_CHECKSUM, CitizenId.validate("081140000437"));
+        assertEquals(CitizenIdStatus.NON_DIGIT, CitizenId.validate("08114000043x"));
+        assertEquals(CitizenIdStatus.EMPTY, CitizenId.validate(""));
+    }
+
+    @Test
+    public void shouldValidateValueAtOffset() throws Exception {
+        String line = "id;081140000436;880319350220";
+        assertEquals(CitizenIdStatus.VALID, CitizenId.validate(line, 3));
+        assertEquals(CitizenIdStatus.VALID, CitizenId.validate(line, 16));
+        assertEquals(CitizenIdStatus.NON_DIGIT, CitizenId.validate(line, 2));
+        assertEquals(CitizenIdStatus.WRONG_LENGTH, CitizenId.validate(line, 17));
+        assertEquals(CitizenIdStatus.EMPTY, CitizenId.validate(line, line.length()));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotValidateValueAtNegativeOffset() throws Exception {
+        CitizenId.validate("081140000436", -1);
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CompressedCitizenIdSetTests {
+
+    private static long[] random(long seed, int count, long bound) {
+        Random random = new Random(seed);
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (random.nextLong() >>> 1) % bound;
+        }
+        return values;
+    }
+
+    private static long[] sortedUnique(long[] values) {
+        TreeSet<Long> set = new TreeSet<Long>();
+        for (long value : values) {
+            set.add(value);
+        }
+        long[] sorted = new long[set.size()];
+        int i = 0;
+        for (Long value : set) {
+            sorted[i++] = value;
+        }
+        return sorted;
+    }
+
+    private static CompressedCitizenIdSet setOf(long[] values) {
+        return CompressedCitizenIdSet.builder().addAllPacked(values).build();
+    }
+
+    @Test
+    public void shouldContainAddedIds() throws Exception {
+        CompressedCitizenIdSet set = CompressedCitizenIdSet.builder()
+                .add("880319350220")
+                .add(new CitizenId("081140000436"))
+                .addPacked(740000728L)
+                .addPacked(740000728L)
+                .build();
+        assertEquals(3, set.size());
+        assertTrue(set.contains("880319350220"));
+        assertTrue(set.contains(new CitizenId("081140000436")));
+        assertTrue(set.contains("000740000728"));
+        assertFalse(set.contains("880525000017"));
+        assertFalse(set.contains("88031935022"));
+        assertFalse(set.contains((CharSequence) null));
+        assertFalse(set.contains((CitizenId) null));
+        assertFalse(set.contains(-1L));
+        assertFalse(set.contains(PackedCitizenId.MAX_VALUE + 1));
+    }
+
+    @Test
+    public void shouldMatchSortedArray() throws Exception {
+        long[][] inputs = {
+                random(1, 100000, PackedCitizenId.MAX_VALUE + 1),
+                random(2, 50000, 1000000),
+                {0, 1, 2, PackedCitizenId.MAX_VALUE},
+                {PackedCitizenId.MAX_VALUE}
+        };
+        for (long[] input : inputs) {
+            long[] expected = sortedUnique(input);
+            CompressedCitizenIdSet set = setOf(input);
+            assertEquals(expected.length, set.size());
+            assertArrayEquals(expected, set.toArray());
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], set.select(i));
+                assertEquals(i, set.rank(expected[i]));
+                assertTrue(set.contains(expected[i]));
+                if (expected[i] > 0 && (i == 0 || expected[i - 1] != expected[i] - 1)) {
+                    assertFalse(set.contains(expected[i] - 1));
+                    assertEquals(i, set.rank(expected[i] - 1));
+                }
+            }
+            assertEquals(0, set.rank(0));
+            assertEquals(expected.length, set.rank(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void shouldRankAbsentValues() throws Exception {
+        long[] expected = sortedUnique(random(3, 20000, 100000000));
+        CompressedCitizenIdSet set = setOf(expected);
+        for (long probe : random(4, 20000, 100000000)) {
+            int rank = Arrays.binarySearch(expected, probe);
+            assertEquals(rank >= 0 ? rank : -rank - 1, set.rank(probe));
+            assertEquals(rank >= 0, set.contains(probe));
+        }
+    }
+
+    @Test
+    public void shouldBeEmpty() throws Exception {
+        CompressedCitizenIdSet set = CompressedCitizenIdSet.builder().build();
+        assertTrue(set.isEmpty());
+        assertEquals(set, CompressedCitizenIdSet.empty());
+        assertFalse(set.contains(0));
+        assertEquals(0, set.rank(880319350220L));
+        assertEquals(0, set.toArray().length);
+        assertFalse(set.spliterator().tryAdvance(new CitizenIdStatistics()));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectIndexOutOfSet() throws Exception {
+        setOf(new long[]{880319350220L}).select(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIncorrectPackedId() throws Exception {
+        CompressedCitizenIdSet.builder().addPacked(PackedCitizenId.MAX_VALUE + 1);
+    }
+
+    @Test
+    public void shouldSplitInOrder() throws Exception {
+        long[] expected = sortedUnique(random(5, 10000, PackedCitizenId.MAX_VALUE + 1));
+        List<PackedIdSpliterator> parts = CitizenIdStreams.split(setOf(expected).spliterator(), 4);
+        assertTrue(parts.size() > 1);
+        final List<Long> values = new ArrayList<Long>();
+        for (PackedIdSpliterator part : parts) {
+            part.forEachRemaining(new PackedIdConsumer() {
+                public void accept(long packed) {
+                    values.add(packed);
+                }
+            });
+        }
+        assertEquals(expected.length, values.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], (long) values.get(i));
+        }
+    }
+
+    @Test
+    public void shouldCombineSets() throws Exception {
+        long[] left = random(6, 30000, 2000000);
+        long[] right = random(7, 30000, 2000000);
+        TreeSet<Long> union = new TreeSet<Long>();
+        TreeSet<Long> intersection = new TreeSet<Long>();
+        TreeSet<Long> difference = new TreeSet<Long>();
+        TreeSet<Long> rightSet = new TreeSet<Long>();
+        for (long value : right) {
+            rightSet.add(value);
+            union.add(value);
+        }
+        for (long value : left) {
+            union.add(value);
+            if (rightSet.contains(value)) {
+                intersection.add(value);
+            } else {
+                difference.add(value);
+            }
+        }
+        CompressedCitizenIdSet a = setOf(left);
+        CompressedCitizenIdSet b = setOf(right);
+        assertArrayEquals(TestIds.toArray(union), a.union(b).toArray());
+        assertArrayEquals(TestIds.toArray(intersection), a.intersect(b).toArray());
+        assertArrayEquals(TestIds.toArray(difference), a.difference(b).toArray());
+        assertEquals(setOf(TestIds.toArray(union)), a.union(b));
+        assertEquals(a, a.union(CompressedCitizenIdSet.empty()));
+        assertTrue(a.intersect(CompressedCitizenIdSet.empty()).isEmpty());
+        assertTrue(a.difference(a).isEmpty());
+    }
+
+    @Test
+    public void shouldTakeFewBitsPerId() throws Exception {
+        long[] ids = new long[1 << 20];
+        CitizenIdGenerator.builder().seed(8).build().fill(ids, 0);
+        CompressedCitizenIdSet set = setOf(ids);
+        assertTrue(set.toString(), set.sizeInBytes() * 8.0 / set.size() < 2 + 20 + 1);
+        assertTrue(set.sizeInBytes() < ids.length * 8L / 2);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class JuridicalInfoTests {
+    @Test
+    public void shouldDecodeAllAttributes() throws Exception {
+        JuridicalInfo info = JuridicalInfo.decode(new CitizenId("980141004945"));
+        assertEquals(1998, info.getYear());
+        assertEquals(Calendar.JANUARY, info.getMonth());
+        assertEquals(OrganizationType.RESIDENT, info.getOrganizationType());
+        assertEquals(DepartmentType.BRANCH, info.getDepartmentType());
+        assertEquals(494, info.getOrderNumber());
+    }
+
+    @Test
+    public void shouldDecodePackedId() throws Exception {
+        long packed = PackedCitizenId.pack("070850004167");
+        JuridicalInfo info = JuridicalInfo.decode(packed);
+        assertEquals(2007, info.getYear());
+        assertEquals(Calendar.AUGUST, info.getMonth());
+        assertEquals(OrganizationType.NONRESIDENT, info.getOrganizationType());
+        assertEquals(DepartmentType.HEAD, info.getDepartmentType());
+        assertEquals(416, info.getOrderNumber());
+        assertEquals(info, new JuridicalDataInformation(new CitizenId("070850004167")).getInfo());
+    }
+
+    @Test
+    public void shouldDecodeAttributesOfPackedIdWithoutObjects() throws Exception {
+        long packed = PackedCitizenId.pack("120142005544");
+        assertEquals(2012, JuridicalInfo.yearOf(packed));
+        assertEquals(Calendar.JANUARY, JuridicalInfo.monthOf(packed));
+        assertEquals(OrganizationType.RESIDENT, JuridicalInfo.organizationTypeOf(packed));
+        assertEquals(DepartmentType.AGENCY, JuridicalInfo.departmentTypeOf(packed));
+        assertEquals(554, JuridicalInfo.orderNumberOf(packed));
+    }
+
+    @Test
+    public void shouldResolveYearNotAfterCurrentOne() throws Exception {
+        int currentYear = Calendar.getInstance().get(Calendar.YEAR);
+        for (int twoDigits = 0; twoDigits < 100; twoDigits++) {
+            int year = JuridicalInfo.year(twoDigits);
+            assertEquals(twoDigits, year % 100);
+            assertTrue(year <= currentYear);
+            assertTrue(year > currentYear - 100);
+        }
+    }
+
+    @Test
+    public void shouldResolveYearsOfNextCentury() throws Exception {
+        int[] years = JuridicalInfo.resolveYears(2099);
+        assertEquals(2099, years[99]);
+        assertEquals(2000, years[0]);
+        years = JuridicalInfo.resolveYears(2100);
+        assertEquals(2100, years[0]);
+        assertEquals(2099, years[99]);
+        assertEquals(2001, years[1]);
+    }
+
+    @Test
+    public void shouldReturnMinusOneForIncorrectMonth() throws Exception {
+        assertEquals(-1, JuridicalInfo.decode(PackedCitizenId.pack("081340000436")).getMonth());
+        assertEquals(-1, JuridicalInfo.monthOf(PackedCitizenId.pack("080040000436")));
+        assertEquals(Calendar.DECEMBER, JuridicalInfo.monthOf(PackedCitizenId.pack("081240000436")));
+    }
+
+    @Test
+    public void shouldReturnNullForUnknownTypes() throws Exception {
+        JuridicalInfo info = JuridicalInfo.decode(PackedCitizenId.pack("081197000436"));
+        assertNull(info.getOrganizationType());
+        assertNull(info.getDepartmentType());
+    }
+
+    @Test
+    public void shouldBeEqualForIdenticalIds() throws Exception {
+        JuridicalInfo first = JuridicalInfo.decode(new CitizenId("081140000436"));
+        JuridicalInfo second = JuridicalInfo.decode(PackedCitizenId.pack("081140000436"));
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertFalse(first.equals(JuridicalInfo.decode(new CitizenId("980141004945"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotDecodePhysicalId() throws Exception {
+        JuridicalInfo.decode(new CitizenId("880319350220"));
+    }
+
+    @Test
+    public void shouldRejectValuesOutOfRange() throws Exception {
+        long[] values = {-1, PackedCitizenId.MAX_VALUE + 1, Long.MIN_VALUE};
+        for (long value : values) {
+            try {
+                JuridicalInfo.yearOf(value);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            try {
+                JuridicalInfo.monthOf(value);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            try {
+                JuridicalInfo.organizationTypeOf(value);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotDecodeEmptyId() throws Exception {
+        JuridicalInfo.decode(null);
+    }
+}
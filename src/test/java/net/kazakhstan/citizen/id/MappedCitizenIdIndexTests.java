@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class MappedCitizenIdIndexTests {
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("citizen-id", ".idx");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        file.delete();
+    }
+
+    private static long[] validIds(long from, int count) {
+        long[] ids = new long[count];
+        int found = 0;
+        for (long packed = from; found < count; packed++) {
+            if (PackedCitizenId.isValid(packed)) {
+                ids[found++] = packed;
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    public void shouldFindWrittenIds() throws Exception {
+        int written = new CitizenIdIndexWriter()
+                .add("880319350220")
+                .add(new CitizenId("081140000436"))
+                .addPacked(740000728L)
+                .add("880319350220")
+                .write(file);
+        assertEquals(3, written);
+        MappedCitizenIdIndex index = MappedCitizenIdIndex.open(file);
+        try {
+            assertEquals(3, index.size());
+            assertTrue(index.contains("880319350220"));
+            assertTrue(index.contains(new CitizenId("081140000436")));
+            assertTrue(index.contains(740000728L));
+            assertFalse(index.contains("880525000017"));
+            assertFalse(index.contains("88031935022"));
+            assertEquals(740000728L, index.get(0));
+            assertEquals(880319350220L, index.get(2));
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void shouldRankAndScanRanges() throws Exception {
+        long[] ids = validIds(880319350000L, 5000);
+        CitizenIdIndexWriter writer = new CitizenIdIndexWriter().fenceStride(16);
+        for (int i = ids.length - 1; i >= 0; i--) {
+            writer.addPacked(ids[i]);
+        }
+        writer.write(file);
+        MappedCitizenIdIndex index = MappedCitizenIdIndex.open(file);
+        try {
+            assertEquals(ids.length, index.size());
+            for (int i = 0; i < ids.length; i++) {
+                assertEquals(i, index.rank(ids[i]));
+                assertEquals(i + 1, index.rank(ids[i] + 1));
+                assertTrue(index.contains(ids[i]));
+            }
+            assertEquals(0, index.rank(0));
+            assertEquals(ids.length, index.rank(PackedCitizenId.MAX_VALUE));
+
+            final List<Long> scanned = new ArrayList<Long>();
+            int count = index.forEachInRange(ids[100], ids[200], new PackedIdConsumer() {
+                public void accept(long packed) {
+                    scanned.add(packed);
+                }
+            });
+            assertEquals(100, count);
+            assertEquals(100, scanned.size());
+            assertEquals(ids[100], scanned.get(0).longValue());
+            assertEquals(ids[199], scanned.get(99).longValue());
+            assertEquals(100, index.countInRange(ids[100], ids[200]));
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    public void shouldOpenEmptyIndex() throws Exception {
+        new CitizenIdIndexWriter().write(file);
+        MappedCitizenIdIndex index = MappedCitizenIdIndex.open(file);
+        try {
+            assertEquals(0, index.size());
+            assertFalse(index.contains(880319350220L));
+            assertEquals(0, index.rank(880319350220L));
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotWriteIdWithWrongControlDigit() throws Exception {
+        new CitizenIdIndexWriter().add("880319350221");
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldNotOpenFileOfOtherFormat() throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[64]);
+        } finally {
+            out.close();
+        }
+        MappedCitizenIdIndex.open(file);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class PackedCitizenIdTests {
+    @Test
+    public void shouldPackAndUnpackValue() throws Exception {
+        long packed = PackedCitizenId.pack("081140000436");
+        assertEquals(81140000436L, packed);
+        assertEquals("081140000436", PackedCitizenId.unpack(packed));
+    }
+
+    @Test
+    public void shouldPackCitizenId() throws Exception {
+        assertEquals(880319350220L, PackedCitizenId.pack(new CitizenId("880319350220")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotPackIncorrectValue() throws Exception {
+        PackedCitizenId.pack("88031935022a");
+    }
+
+    @Test
+    public void shouldReturnInvalidIfValueCanNotBePacked() throws Exception {
+        assertEquals(PackedCitizenId.INVALID, PackedCitizenId.tryPack("88031935022"));
+        assertEquals(PackedCitizenId.INVALID, PackedCitizenId.tryPack(null));
+        assertEquals(880319350220L, PackedCitizenId.tryPack("880319350220"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotUnpackNegativeValue() throws Exception {
+        PackedCitizenId.unpack(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotUnpackValueWithMoreThan12Digits() throws Exception {
+        PackedCitizenId.unpack(1000000000000L);
+    }
+
+    @Test
+    public void shouldReturnTypeOfPackedValue() throws Exception {
+        assertEquals(CitizenType.PHYSICAL, PackedCitizenId.typeOf(880319350220L));
+        assertEquals(CitizenType.JURIDICAL, PackedCitizenId.typeOf(81140000436L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotReturnTypeOfNegativeValue() throws Exception {
+        PackedCitizenId.typeOf(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotReturnTypeOfValueWithMoreThan12Digits() throws Exception {
+        PackedCitizenId.typeOf(PackedCitizenId.MAX_VALUE + 1);
+    }
+
+    @Test
+    public void shouldValidatePackedValue() throws Exception {
+        assertTrue(PackedCitizenId.isValid(880319350220L));
+        assertTrue(PackedCitizenId.isValid(81140000436L));
+        assertTrue(PackedCitizenId.isValid(740000728L));
+        assertFalse(PackedCitizenId.isValid(880319350221L));
+        assertFalse(PackedCitizenId.isValid(-1L));
+    }
+
+    @Test
+    public void shouldValidateLikeIdValidation() throws Exception {
+        for (long packed = 880319350000L; packed < 880319352000L; packed++) {
+            CitizenId citizenId = PackedCitizenId.toCitizenId(packed);
+            assertEquals(new PhysicalIdValidation(citizenId).isValid(), PackedCitizenId.isValid(packed));
+        }
+    }
+
+    @Test
+    public void shouldConvertToCitizenId() throws Exception {
+        CitizenId citizenId = PackedCitizenId.valueOf(81140000436L).toCitizenId();
+        assertEquals(new CitizenId("081140000436"), citizenId);
+        assertTrue(citizenId.isJuridical());
+    }
+
+    @Test
+    public void shouldKeepNumericOrdering() throws Exception {
+        PackedCitizenId first = PackedCitizenId.of("081140000436");
+        PackedCitizenId second = PackedCitizenId.of("880319350220");
+        assertTrue(first.compareTo(second) < 0);
+        assertTrue(second.compareTo(first) > 0);
+        assertEquals(0, first.compareTo(PackedCitizenId.of(new CitizenId("081140000436"))));
+    }
+
+    @Test
+    public void objectsShouldBeEqualWithIdenticalNumbers() throws Exception {
+        PackedCitizenId first = PackedCitizenId.of("880319350220");
+        PackedCitizenId second = PackedCitizenId.valueOf(880319350220L);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals("880319350220", first.toString());
+    }
+
+    @Test
+    public void shouldContainsAllObjectsWithDifferentNumbersInHashCollection() throws Exception {
+        Set<PackedCitizenId> hashSet = new HashSet<PackedCitizenId>();
+        for (long packed = 0; packed < 1000; packed++) {
+            hashSet.add(PackedCitizenId.valueOf(packed));
+        }
+        assertEquals(1000, hashSet.size());
+        assertTrue(hashSet.contains(PackedCitizenId.valueOf(999)));
+    }
+}
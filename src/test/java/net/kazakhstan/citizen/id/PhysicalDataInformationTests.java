@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class PhysicalDataInformationTests {
+
+    private static int epochDay(int year, int month, int day) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(year, month, day);
+        return (int) (calendar.getTimeInMillis() / 86400000L);
+    }
+
+    @Test
+    public void shouldReturnBirthDate() throws Exception {
+        PhysicalDataInformation information = new PhysicalDataInformation(new CitizenId("880319350220"));
+        assertEquals(1988, information.getYear());
+        assertEquals(Calendar.MARCH, information.getMonth());
+        assertEquals(19, information.getDay());
+        assertEquals(epochDay(1988, Calendar.MARCH, 19), information.getEpochDay());
+    }
+
+    @Test
+    public void shouldReturnGender() throws Exception {
+        PhysicalDataInformation male = new PhysicalDataInformation(new CitizenId("880319350220"));
+        assertTrue(male.isMale());
+        assertFalse(male.isFemale());
+        PhysicalDataInformation female = new PhysicalDataInformation(new CitizenId("880319450220"));
+        assertTrue(female.isFemale());
+        assertFalse(female.isMale());
+    }
+
+    @Test
+    public void shouldResolveCenturyByGenderDigit() throws Exception {
+        assertEquals(1899, PhysicalInfo.decode(PackedCitizenId.pack("991231100000")).getBirthYear());
+        assertEquals(1899, PhysicalInfo.decode(PackedCitizenId.pack("991231200000")).getBirthYear());
+        assertEquals(2001, PhysicalInfo.decode(PackedCitizenId.pack("010101500000")).getBirthYear());
+        assertEquals(Gender.FEMALE, PhysicalInfo.decode(PackedCitizenId.pack("010101600000")).getGender());
+    }
+
+    @Test
+    public void shouldCalculateEpochDaysLikeCalendar() throws Exception {
+        int[] centuries = {1, 3, 5};
+        for (int century : centuries) {
+            for (int year = 0; year < 100; year += 3) {
+                for (int month = 1; month <= 12; month++) {
+                    long packed = ((year * 100L + month) * 100 + 28) * 1000000L + century * 100000L;
+                    int fullYear = 1800 + (century - 1) / 2 * 100 + year;
+                    assertEquals(epochDay(fullYear, month - 1, 28), PhysicalInfo.epochDayOf(packed));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldRejectImpossibleDates() throws Exception {
+        assertEquals(PhysicalInfo.INVALID_EPOCH_DAY, PhysicalInfo.epochDayOf(PackedCitizenId.pack("880230350220")));
+        assertEquals(PhysicalInfo.INVALID_EPOCH_DAY, PhysicalInfo.epochDayOf(PackedCitizenId.pack("881319350220")));
+        assertEquals(PhysicalInfo.INVALID_EPOCH_DAY, PhysicalInfo.epochDayOf(PackedCitizenId.pack("880300350220")));
+        assertEquals(PhysicalInfo.INVALID_EPOCH_DAY, PhysicalInfo.epochDayOf(PackedCitizenId.pack("880319050220")));
+        assertEquals(PhysicalInfo.INVALID_EPOCH_DAY, PhysicalInfo.epochDayOf(PackedCitizenId.pack("000229150220")));
+        assertEquals(epochDay(2000, Calendar.FEBRUARY, 29), PhysicalInfo.epochDayOf(PackedCitizenId.pack("000229550220")));
+        assertNull(PhysicalInfo.genderOf(PackedCitizenId.pack("880319050220")));
+    }
+
+    @Test
+    public void shouldDecodeBatch() throws Exception {
+        long[] packed = {
+                PackedCitizenId.pack("880319350220"), PackedCitizenId.pack("880230350220"), 880319350220L
+        };
+        int[] epochDays = new int[3];
+        assertEquals(2, PhysicalInfo.epochDaysOf(packed, epochDays));
+        assertEquals(epochDay(1988, Calendar.MARCH, 19), epochDays[0]);
+        assertEquals(PhysicalInfo.INVALID_EPOCH_DAY, epochDays[1]);
+        assertEquals(epochDays[0], epochDays[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionIfDateIsImpossible() throws Exception {
+        new PhysicalDataInformation(new CitizenId("880230350220"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionIfCitizenIdNull() throws Exception {
+        new PhysicalDataInformation(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionIfIsNotPhysicalSubject() throws Exception {
+        new PhysicalDataInformation(new CitizenId("081140000436"));
+    }
+}
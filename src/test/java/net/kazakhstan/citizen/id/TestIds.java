@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Collection;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+
+/**
+ * Test data which is shared by tests of the package
+ */
+final class TestIds {
+
+    private TestIds() {
+    }
+
+    /**
+     * Method generates packed citizen ids with default settings of generator
+     */
+    static long[] generated(long seed, int count) {
+        return generated(CitizenIdGenerator.builder().seed(seed), count);
+    }
+
+    /**
+     * Method generates packed citizen ids by generator which is built by builder
+     */
+    static long[] generated(CitizenIdGenerator.Builder builder, int count) {
+        long[] ids = new long[count];
+        builder.build().fill(ids, 0);
+        return ids;
+    }
+
+    static byte[] ascii(String value) throws UnsupportedEncodingException {
+        return value.getBytes("US-ASCII");
+    }
+
+    static long[] toArray(Collection<Long> values) {
+        long[] array = new long[values.size()];
+        int i = 0;
+        for (Long value : values) {
+            array[i++] = value;
+        }
+        return array;
+    }
+}
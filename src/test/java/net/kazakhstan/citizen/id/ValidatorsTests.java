@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class ValidatorsTests {
+    @Test
+    public void shouldReturnSharedValidators() throws Exception {
+        assertSame(Validators.auto(), Validators.auto());
+        assertSame(Validators.forType(CitizenType.PHYSICAL), Validators.forType(CitizenType.PHYSICAL));
+        assertNotSame(Validators.forType(CitizenType.PHYSICAL), Validators.forType(CitizenType.JURIDICAL));
+    }
+
+    @Test
+    public void shouldValidateByType() throws Exception {
+        CitizenIdValidator physical = Validators.forType(CitizenType.PHYSICAL);
+        CitizenIdValidator juridical = Validators.forType(CitizenType.JURIDICAL);
+        assertTrue(physical.isValid("880319350220"));
+        assertFalse(physical.isValid("081140000436"));
+        assertTrue(juridical.isValid(new CitizenId("081140000436")));
+        assertFalse(juridical.isValid(new CitizenId("880319350220")));
+        assertTrue(Validators.auto().isValid(81140000436L));
+        assertTrue(Validators.auto().isValid("880319350220"));
+    }
+
+    @Test
+    public void shouldRejectIncorrectValues() throws Exception {
+        CitizenIdValidator validator = Validators.auto();
+        assertFalse(validator.isValid("880319350221"));
+        assertFalse(validator.isValid("88031935022"));
+        assertFalse(validator.isValid((CharSequence) null));
+        assertFalse(validator.isValid(-1L));
+        assertFalse(validator.isValid(PackedCitizenId.MAX_VALUE + 1));
+    }
+
+    @Test
+    public void shouldAgreeWithIdValidation() throws Exception {
+        for (long packed = 880319350200L; packed < 880319350300L; packed++) {
+            CitizenId citizenId = PackedCitizenId.toCitizenId(packed);
+            assertEquals(new PhysicalIdValidation(citizenId).isValid(), Validators.auto().isValid(citizenId));
+        }
+    }
+
+    @Test
+    public void shouldValidateAllValues() throws Exception {
+        BitSet out = new BitSet();
+        out.set(3);
+        int valid = Validators.auto().validateAll(
+                new CharSequence[]{"880319350220", "880319350221", null, "081140000436"}, out);
+        assertEquals(2, valid);
+        assertTrue(out.get(0));
+        assertFalse(out.get(1));
+        assertFalse(out.get(2));
+        assertTrue(out.get(3));
+
+        out.clear();
+        valid = Validators.forType(CitizenType.JURIDICAL).validateAll(
+                new long[]{880319350220L, 81140000436L, -1L}, out);
+        assertEquals(1, valid);
+        assertEquals(1, out.cardinality());
+        assertTrue(out.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptEmptyType() throws Exception {
+        Validators.forType(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotValidateEmptyCitizenId() throws Exception {
+        Validators.auto().isValid((CitizenId) null);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015, Eugene Svalukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.kazakhstan.citizen.id.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Eugene Svalukhin.
+ */
+public class CitizenIdServerTests {
+    private CitizenIdServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new CitizenIdServer(0).start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void shouldAnswerPipelinedRequestsInOrder() throws Exception {
+        Socket socket = new Socket(InetAddress.getByName(null), server.getPort());
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write(("V 880319350220\nV 880319350221\r\nV 88031935022\nV 88031935022a\nV \n"
+                    + "D 880319350220\nD 081140000436\nD 880319350221\nX 880319350220\nD 880230350227\n")
+                    .getBytes("US-ASCII"));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+            assertEquals("VALID", in.readLine());
+            assertEquals("BAD_CHECKSUM", in.readLine());
+            assertEquals("WRONG_LENGTH", in.readLine());
+            assertEquals("NON_DIGIT", in.readLine());
+            assertEquals("EMPTY", in.readLine());
+            assertEquals("VALID PHYSICAL 1988 3 19 MALE", in.readLine());
+            assertEquals("VALID JURIDICAL 2008 11 RESIDENT HEAD 43", in.readLine());
+            assertEquals("BAD_CHECKSUM", in.readLine());
+            assertEquals("ERROR unknown command", in.readLine());
+            assertEquals("VALID PHYSICAL - - - MALE", in.readLine());
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void shouldJoinRequestsSplitBetweenReads() throws Exception {
+        Socket socket = new Socket(InetAddress.getByName(null), server.getPort());
+        try {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+            out.write("V 8803193".getBytes("US-ASCII"));
+            out.flush();
+            Thread.sleep(50);
+            out.write("50220\nV ".getBytes("US-ASCII"));
+            out.flush();
+            assertEquals("VALID", in.readLine());
+            StringBuilder tooLong = new StringBuilder("880319350220");
+            while (tooLong.length() < 2000) {
+                tooLong.append('0');
+            }
+            out.write((tooLong + "\nV 081140000436\n").getBytes("US-ASCII"));
+            out.flush();
+            assertEquals("WRONG_LENGTH", in.readLine());
+            assertEquals("VALID", in.readLine());
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void shouldServeLoadClient() throws Exception {
+        LoadReport report = new LoadClient()
+                .connections(3)
+                .batches(20)
+                .batchSize(50)
+                .seed(1)
+                .run(server.getPort());
+        assertEquals(3000, report.getRequests());
+        assertEquals(0, report.getMismatches());
+        assertTrue(report.getLatency(50) > 0);
+        assertTrue(report.getLatency(99) >= report.getLatency(50));
+        assertTrue(report.getThroughput() > 0);
+    }
+
+    @Test
+    public void shouldDecodeUnderLoad() throws Exception {
+        LoadReport report = new LoadClient().connections(2).batches(10).decode(true).run(server.getPort());
+        assertEquals(1280, report.getRequests());
+        assertEquals(0, report.getMismatches());
+    }
+
+    @Test
+    public void shouldCloseOpenConnections() throws Exception {
+        Socket socket = new Socket(InetAddress.getByName(null), server.getPort());
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write("V 880319350220\n".getBytes("US-ASCII"));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+            assertEquals("VALID", in.readLine());
+            server.close();
+            assertNull(in.readLine());
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptTooLargeBatch() throws Exception {
+        new LoadClient().batchSize(100000);
+    }
+}